@@ -0,0 +1,63 @@
+package com.github.dtmo.jfiglet;
+
+/**
+ * Benchmarks holds the fixtures that are shared by the benchmarks.
+ */
+final class Benchmarks {
+	/**
+	 * The smush modes that are benchmarked, by name.
+	 */
+	static final String FULL_WIDTH = "FULL_WIDTH";
+	static final String FITTING = "FITTING";
+	static final String SMUSHING = "SMUSHING";
+	static final String FONT_DEFAULT = "FONT_DEFAULT";
+
+	private static final String PANGRAM = "The quick brown fox jumps over the lazy dog! 0123456789 ";
+
+	private Benchmarks() {
+		// Do nothing.
+	}
+
+	/**
+	 * Returns the smush mode with which to render text with a font.
+	 *
+	 * @param figFont
+	 *            The font with which text is rendered.
+	 * @param smushModeName
+	 *            The name of the smush mode: {@link #FULL_WIDTH}, {@link #FITTING},
+	 *            {@link #SMUSHING} or {@link #FONT_DEFAULT}.
+	 * @return The smush mode.
+	 */
+	static int smushMode(final FigFont figFont, final String smushModeName) {
+		switch (smushModeName) {
+		case FULL_WIDTH:
+			return 0;
+		case FITTING:
+			return LayoutOptions.HORIZONTAL_FITTING_BY_DEFAULT;
+		case SMUSHING:
+			return LayoutOptions.HORIZONTAL_SMUSHING_BY_DEFAULT | LayoutOptions.HORIZONTAL_EQUAL_CHARACTER_SMUSHING
+					| LayoutOptions.HORIZONTAL_UNDERSCORE_SMUSHING | LayoutOptions.HORIZONTAL_HIERARCHY_SMUSHING
+					| LayoutOptions.HORIZONTAL_OPPOSITE_PAIR_SMUSHING | LayoutOptions.HORIZONTAL_BIG_X_SMUSHING
+					| LayoutOptions.HORIZONTAL_HARDBLANK_SMUSHING;
+		case FONT_DEFAULT:
+			return figFont.getFullLayout();
+		default:
+			throw new IllegalArgumentException("Unknown smush mode: " + smushModeName);
+		}
+	}
+
+	/**
+	 * Returns a single line of printable text of a length.
+	 *
+	 * @param length
+	 *            The length of the text.
+	 * @return The text.
+	 */
+	static String text(final int length) {
+		final StringBuilder text = new StringBuilder(length);
+		while (text.length() < length) {
+			text.append(PANGRAM, 0, Math.min(PANGRAM.length(), length - text.length()));
+		}
+		return text.toString();
+	}
+}
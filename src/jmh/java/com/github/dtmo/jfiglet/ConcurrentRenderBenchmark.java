@@ -0,0 +1,79 @@
+package com.github.dtmo.jfiglet;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ConcurrentRenderBenchmark measures the throughput of rendering from several
+ * threads that share a single {@link FigFont}, either through a single shared
+ * {@link FigletRenderer} or through a renderer of each thread's own.
+ * <p>
+ * The number of threads may be changed with JMH's <code>-t</code> option.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConcurrentRenderBenchmark {
+	/**
+	 * SharedState holds the font, and a renderer, shared by every thread.
+	 */
+	@State(Scope.Benchmark)
+	public static class SharedState {
+		@Param({ FigFontResources.STANDARD_FLF })
+		public String fontName;
+
+		@Param({ "16", "256" })
+		public int length;
+
+		private FigFont figFont;
+		private FigletRenderer renderer;
+		private String text;
+
+		@Setup
+		public void setUp() throws IOException {
+			figFont = FigFontResources.loadFigFontResource(fontName);
+			renderer = new FigletRenderer(figFont);
+			text = Benchmarks.text(length);
+		}
+	}
+
+	/**
+	 * ThreadState holds a renderer of each thread's own.
+	 */
+	@State(Scope.Thread)
+	public static class ThreadState {
+		private FigletRenderer renderer;
+
+		@Setup
+		public void setUp(final SharedState sharedState) {
+			renderer = new FigletRenderer(sharedState.figFont);
+		}
+	}
+
+	@Benchmark
+	public String sharedRenderer(final SharedState sharedState) {
+		return sharedState.renderer.renderText(sharedState.text);
+	}
+
+	@Benchmark
+	public String rendererPerThread(final SharedState sharedState, final ThreadState threadState) {
+		return threadState.renderer.renderText(sharedState.text);
+	}
+}
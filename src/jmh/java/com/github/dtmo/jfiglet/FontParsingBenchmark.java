@@ -0,0 +1,84 @@
+package com.github.dtmo.jfiglet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * FontParsingBenchmark measures how long it takes to parse each of the bundled
+ * FIGfonts with {@link FigFontReader#readFont()}, to index them with
+ * {@link FigFontReader#readFontLazily()}, and to read the same fonts with the
+ * {@link LegacyFigFontParser} and from the compiled format for comparison. The
+ * font data is held in memory so that only parsing is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FontParsingBenchmark {
+	@Param({ FigFontResources.BANNER_FLF, FigFontResources.BIG_FLF, FigFontResources.BLOCK_FLF,
+			FigFontResources.BUBBLE_FLF, FigFontResources.DIGITAL_FLF, FigFontResources.IVRIT_FLF,
+			FigFontResources.LEAN_FLF, FigFontResources.MINI_FLF, FigFontResources.MNEMONIC_FLF,
+			FigFontResources.SCRIPT_FLF, FigFontResources.SHADOW_FLF, FigFontResources.SLANT_FLF,
+			FigFontResources.SMALL_FLF, FigFontResources.SMSCRIPT_FLF, FigFontResources.SMSHADOW_FLF,
+			FigFontResources.SMSLANT_FLF, FigFontResources.STANDARD_FLF, FigFontResources.TERM_FLF })
+	public String fontName;
+
+	private byte[] fontData;
+	private byte[] compiledFontData;
+
+	@Setup
+	public void setUp() throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (final InputStream inputStream = FontParsingBenchmark.class.getClassLoader()
+				.getResourceAsStream(fontName)) {
+			final byte[] buffer = new byte[8192];
+			int count;
+			while ((count = inputStream.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, count);
+			}
+		}
+		fontData = outputStream.toByteArray();
+
+		final ByteArrayOutputStream compiledOutputStream = new ByteArrayOutputStream();
+		FigFontCompiler.compile(new ByteArrayInputStream(fontData), compiledOutputStream);
+		compiledFontData = compiledOutputStream.toByteArray();
+	}
+
+	@Benchmark
+	public FigFont readFont() throws IOException {
+		return new FigFontReader(new InputStreamReader(new ByteArrayInputStream(fontData))).readFont();
+	}
+
+	@Benchmark
+	public FigFont readFontLazily() throws IOException {
+		return new FigFontReader(new InputStreamReader(new ByteArrayInputStream(fontData))).readFontLazily();
+	}
+
+	@Benchmark
+	public FigFont readFontLegacy() throws IOException {
+		return LegacyFigFontParser.parseFont(new InputStreamReader(new ByteArrayInputStream(fontData)));
+	}
+
+	@Benchmark
+	public FigFont readCompiled() throws IOException {
+		return FigFont.readCompiled(new ByteArrayInputStream(compiledFontData));
+	}
+}
@@ -0,0 +1,78 @@
+package com.github.dtmo.jfiglet;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.dtmo.jfiglet.FigFont.PrintDirection;
+
+/**
+ * OverlapBenchmark measures the calculation of overlap amounts on its own,
+ * apart from rendering: calculating the overlap of every pair of printable
+ * ASCII characters with
+ * {@link FigFont#calculateOverlapAmount(int, int, int, PrintDirection)},
+ * building a whole {@link OverlapTable}, and looking every pair up in a built
+ * table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverlapBenchmark {
+	@Param({ FigFontResources.STANDARD_FLF, FigFontResources.BIG_FLF })
+	public String fontName;
+
+	@Param({ Benchmarks.FITTING, Benchmarks.SMUSHING, Benchmarks.FONT_DEFAULT })
+	public String smushMode;
+
+	private FigFont figFont;
+	private int mode;
+	private OverlapTable overlapTable;
+
+	@Setup
+	public void setUp() throws IOException {
+		figFont = FigFontResources.loadFigFontResource(fontName);
+		mode = Benchmarks.smushMode(figFont, smushMode);
+		overlapTable = OverlapTable.build(figFont, mode, PrintDirection.LEFT_TO_RIGHT);
+	}
+
+	@Benchmark
+	public int calculateOverlapAmounts() {
+		int total = 0;
+		for (char char1 = OverlapTable.FIRST_CHAR; char1 <= OverlapTable.LAST_CHAR; char1++) {
+			for (char char2 = OverlapTable.FIRST_CHAR; char2 <= OverlapTable.LAST_CHAR; char2++) {
+				total += figFont.calculateOverlapAmount(char1, char2, mode, PrintDirection.LEFT_TO_RIGHT);
+			}
+		}
+		return total;
+	}
+
+	@Benchmark
+	public OverlapTable buildOverlapTable() {
+		return OverlapTable.build(figFont, mode, PrintDirection.LEFT_TO_RIGHT);
+	}
+
+	@Benchmark
+	public int lookUpOverlapAmounts() {
+		int total = 0;
+		for (char char1 = OverlapTable.FIRST_CHAR; char1 <= OverlapTable.LAST_CHAR; char1++) {
+			for (char char2 = OverlapTable.FIRST_CHAR; char2 <= OverlapTable.LAST_CHAR; char2++) {
+				total += overlapTable.getOverlapAmount(char1, char2);
+			}
+		}
+		return total;
+	}
+}
@@ -0,0 +1,66 @@
+package com.github.dtmo.jfiglet;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.dtmo.jfiglet.FigFont.PrintDirection;
+
+/**
+ * RenderTextBenchmark measures {@link FigletRenderer#renderText(String)} for
+ * single lines of text of several lengths, in both print directions, with each
+ * of the benchmarked smush modes. Right-to-left text of increasing length shows
+ * whether prepending stays linear. {@link FigletRenderer#measure(CharSequence)}
+ * is measured alongside, to show what measuring saves over rendering.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderTextBenchmark {
+	@Param({ FigFontResources.STANDARD_FLF })
+	public String fontName;
+
+	@Param({ "8", "64", "512", "4096" })
+	public int length;
+
+	@Param({ "LEFT_TO_RIGHT", "RIGHT_TO_LEFT" })
+	public PrintDirection printDirection;
+
+	@Param({ Benchmarks.FULL_WIDTH, Benchmarks.FITTING, Benchmarks.SMUSHING, Benchmarks.FONT_DEFAULT })
+	public String smushMode;
+
+	private FigletRenderer renderer;
+	private String text;
+
+	@Setup
+	public void setUp() throws IOException {
+		final FigFont figFont = FigFontResources.loadFigFontResource(fontName);
+		renderer = new FigletRenderer.Builder(figFont).setSmushMode(Benchmarks.smushMode(figFont, smushMode))
+				.setPrintDirection(printDirection).build();
+		text = Benchmarks.text(length);
+	}
+
+	@Benchmark
+	public String renderText() {
+		return renderer.renderText(text);
+	}
+
+	@Benchmark
+	public FigletMeasurement measure() {
+		return renderer.measure(text);
+	}
+}
@@ -1,10 +1,19 @@
 package com.github.dtmo.jfiglet;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * FigFont represents a FIGlet font that may be used to render text.
@@ -52,6 +61,28 @@ public class FigFont {
 		}
 	}
 
+	/**
+	 * The magic number that starts every compiled FigFont: the characters "FLFC".
+	 */
+	static final int COMPILED_MAGIC = 0x464C4643;
+
+	/**
+	 * The version of the compiled FigFont format written by
+	 * {@link #write(OutputStream)}. It must be increased whenever the format, or
+	 * the way that FIGfonts are parsed into it, changes, so that fonts compiled
+	 * before are not mistaken for current ones. Version 3 records the length of
+	 * the FIGfont data that a font was compiled from, and follows the parsing of
+	 * full integer code tags and the detection of UTF-8 FIGfonts.
+	 */
+	static final int COMPILED_VERSION = 3;
+
+	/**
+	 * The layout options that select vertical smushing rules.
+	 */
+	private static final int VERTICAL_SMUSHING_RULES = LayoutOptions.VERTICAL_EQUAL_CHARACTER_SMUSHING
+			| LayoutOptions.VERTICAL_UNDERSCORE_SMUSHING | LayoutOptions.VERTICAL_HIERARCHY_SMUSHING
+			| LayoutOptions.VERTICAL_HORIZONTAL_LINE_SMUSHING | LayoutOptions.VERTICAL_VERTICAL_LINE_SMUSHING;
+
 	/**
 	 * The sub-character used to represent hardblanks in the FIGcharacter data.
 	 * <p>
@@ -110,7 +141,13 @@ public class FigFont {
 	 */
 	private int codetagCount;
 
-	private Map<Character, FigCharacter> figCharacters = new HashMap<>();
+	private GlyphTable figCharacters = new GlyphTable();
+
+	/**
+	 * The overlap tables that have been built for this font, keyed by smush mode
+	 * and print direction.
+	 */
+	private final ConcurrentMap<Integer, OverlapTable> overlapTables = new ConcurrentHashMap<>();
 
 	/**
 	 * Returns the sub-character used to represent hardblanks in the FIGcharacter
@@ -211,19 +248,35 @@ public class FigFont {
 		return codetagCount;
 	}
 
+	/**
+	 * Returns the total number of FIGcharacters in this FIGfont, required and
+	 * code-tagged.
+	 * 
+	 * @return The total number of FIGcharacters in this FIGfont.
+	 */
+	public int getGlyphCount() {
+		return figCharacters.size();
+	}
+
 	/**
 	 * Returns the {@link FigCharacter} that represents a character. If the font
 	 * does not have a {@link FigCharacter} for the requested character then
 	 * <code>null</code> is returned.
+	 * <p>
+	 * Characters are identified by their Unicode code points, so characters
+	 * outside of the Basic Multilingual Plane can be looked up, as can the
+	 * negative character codes that some FIGfonts define.
+	 * </p>
 	 * 
-	 * @param character
-	 *            The character for which to return a {@link FigCharacter}.
+	 * @param codePoint
+	 *            The code point of the character for which to return a
+	 *            {@link FigCharacter}.
 	 * @return The {@link FigCharacter} for the requested character or
 	 *         <code>null</code> if the font does not contain a suitable
 	 *         {@link FigCharacter}.
 	 */
-	public FigCharacter getFigCharacter(final char character) {
-		return figCharacters.get(character);
+	public FigCharacter getFigCharacter(final int codePoint) {
+		return figCharacters.get(codePoint);
 	}
 
 	/**
@@ -231,9 +284,9 @@ public class FigFont {
 	 * mode and print direction.
 	 * 
 	 * @param char1
-	 *            The first character to use in the overlap calculation.
+	 *            The code point of the first character to use in the overlap calculation.
 	 * @param char2
-	 *            The second character to use in the overlap calculation.
+	 *            The code point of the second character to use in the overlap calculation.
 	 * @param smushMode
 	 *            The smush mode that determines the nature of the overlap. This
 	 *            value is calculated by combining values specified in
@@ -248,7 +301,7 @@ public class FigFont {
 	 * 
 	 * @see LayoutOptions
 	 */
-	public int calculateOverlapAmount(final char char1, final char char2, final int smushMode,
+	public int calculateOverlapAmount(final int char1, final int char2, final int smushMode,
 			final PrintDirection printDirection) {
 		if (LayoutOptions.islayoutOptionSelected(
 				LayoutOptions.HORIZONTAL_SMUSHING_BY_DEFAULT | LayoutOptions.HORIZONTAL_FITTING_BY_DEFAULT,
@@ -268,6 +321,24 @@ public class FigFont {
 			leftFigChar = getFigCharacter(char2);
 			rightFigChar = getFigCharacter(char1);
 		}
+		return calculateOverlapAmount(leftFigChar, rightFigChar, getSmushTable(smushMode, printDirection));
+	}
+
+	/**
+	 * Calculates the amount that two FigCharacters will overlap when one is placed
+	 * to the right of the other.
+	 * 
+	 * @param leftFigChar
+	 *            The FigCharacter on the left.
+	 * @param rightFigChar
+	 *            The FigCharacter on the right.
+	 * @param smushTable
+	 *            The smushing rules that determine whether the sub-characters that
+	 *            touch can be smushed.
+	 * @return The amount of overlap measured in characters.
+	 */
+	static int calculateOverlapAmount(final FigCharacter leftFigChar, final FigCharacter rightFigChar,
+			final SmushTable smushTable) {
 		if (rightFigChar.getWidth() < 2 || leftFigChar.getWidth() < 2) {
 			return 0;
 		}
@@ -275,27 +346,19 @@ public class FigFont {
 
 		// Calculate the minimum amount that a row of rightFigChar may be smushed into
 		// the corresponding row of leftFigChar
-		for (int row = 0; row < getHeight(); row++) {
+		for (int row = 0; row < leftFigChar.getHeight(); row++) {
 			int rowSmushAmount;
 
-			int leftFigCharRightBoundary = leftFigChar.getWidth() - 1;
-			while (leftFigChar.getCharacterAt(leftFigCharRightBoundary, row) == ' ' && leftFigCharRightBoundary > 0) {
-				leftFigCharRightBoundary--;
-			}
-
-			int rightFigCharLeftBoundary = 0;
-			while (rightFigChar.getCharacterAt(rightFigCharLeftBoundary, row) == ' '
-					&& rightFigCharLeftBoundary < rightFigChar.getWidth() - 1) {
-				rightFigCharLeftBoundary++;
-			}
+			final int leftFigCharRightBoundary = leftFigChar.getRightBoundary(row);
+			final int rightFigCharLeftBoundary = rightFigChar.getLeftBoundary(row);
 
 			rowSmushAmount = Math.min(rightFigChar.getWidth(),
 					(leftFigChar.getWidth() - (leftFigCharRightBoundary + 1)) + rightFigCharLeftBoundary);
 
 			if (leftFigChar.getCharacterAt(leftFigCharRightBoundary, row) == ' ') {
 				rowSmushAmount++;
-			} else if (smushem(leftFigChar.getCharacterAt(leftFigCharRightBoundary, row),
-					rightFigChar.getCharacterAt(rightFigCharLeftBoundary, row), smushMode, printDirection) != '\0') {
+			} else if (smushTable.smush(leftFigChar.getCharacterAt(leftFigCharRightBoundary, row),
+					rightFigChar.getCharacterAt(rightFigCharLeftBoundary, row)) != '\0') {
 				rowSmushAmount++;
 			}
 
@@ -305,6 +368,71 @@ public class FigFont {
 		return smushAmount;
 	}
 
+	/**
+	 * Builds the table of overlap amounts between every pair of printable ASCII
+	 * characters for a smushing mode and print direction, if it has not already
+	 * been built. Tables are otherwise built lazily the first time that text is
+	 * rendered with a given smushing mode and print direction, so calling this
+	 * method at startup moves that cost out of the first render. The table of a
+	 * font whose FIGcharacters are decoded lazily is otherwise filled as pairs
+	 * are rendered, so this also decodes the printable ASCII FIGcharacters.
+	 * 
+	 * @param smushMode
+	 *            The smush mode that determines the nature of the overlap. This
+	 *            value is calculated by combining values specified in
+	 *            {@link LayoutOptions}.
+	 * @param printDirection
+	 *            The print direction that determines whether the second character
+	 *            of a pair will be to the right or the left of the first.
+	 * 
+	 * @see #calculateOverlapAmount(int, int, int, PrintDirection)
+	 */
+	public void prebuildOverlapTable(final int smushMode, final PrintDirection printDirection) {
+		getOverlapTable(smushMode, printDirection).fill();
+	}
+
+	/**
+	 * Builds the table of overlap amounts between every pair of printable ASCII
+	 * characters for the default smushing mode and print direction of this font,
+	 * if it has not already been built.
+	 * 
+	 * @see #prebuildOverlapTable(int, PrintDirection)
+	 */
+	public void prebuildOverlapTable() {
+		prebuildOverlapTable(getFullLayout(), getPrintDirection());
+	}
+
+	/**
+	 * Returns the number of FIGcharacters of this font that are decoded lazily
+	 * and have not yet been decoded.
+	 * 
+	 * @return The number of FIGcharacters left to decode.
+	 */
+	int getUndecodedGlyphCount() {
+		return figCharacters.getUndecodedCount();
+	}
+
+	/**
+	 * Returns the table of overlap amounts for a smushing mode and print
+	 * direction, building it if necessary.
+	 * 
+	 * @param smushMode
+	 *            The smush mode that determines the nature of the overlap.
+	 * @param printDirection
+	 *            The print direction that determines whether the second character
+	 *            of a pair will be to the right or the left of the first.
+	 * @return The overlap table.
+	 */
+	OverlapTable getOverlapTable(final int smushMode, final PrintDirection printDirection) {
+		final Integer key = (smushMode << 1) | printDirection.ordinal();
+		OverlapTable overlapTable = overlapTables.get(key);
+		if (overlapTable == null) {
+			overlapTable = overlapTables.computeIfAbsent(key,
+					k -> OverlapTable.build(this, smushMode, printDirection));
+		}
+		return overlapTable;
+	}
+
 	/**
 	 * Calculates the character that is the result of merging two characters.
 	 * Possible outcomes are a single character to use as the replacement for the
@@ -328,6 +456,46 @@ public class FigFont {
 	 */
 	public char smushem(final char char1, final char char2, final int smushmode,
 			final FigFont.PrintDirection printDirection) {
+		return getSmushTable(smushmode, printDirection).smush(char1, char2);
+	}
+
+	/**
+	 * Returns the compiled smushing rules of this font for a smushing mode and
+	 * print direction.
+	 * 
+	 * @param smushMode
+	 *            The smushmode that determines how smushing occurs.
+	 * @param printDirection
+	 *            The print direction that determines whether the second character
+	 *            is considered to be to the right or the left of the first.
+	 * @return The compiled smushing rules.
+	 */
+	SmushTable getSmushTable(final int smushMode, final PrintDirection printDirection) {
+		return SmushTable.forSmushMode(smushMode, printDirection, hardBlankChar);
+	}
+
+	/**
+	 * Calculates the character that is the result of merging two characters by
+	 * evaluating the smushing rules directly.
+	 * 
+	 * @param char1
+	 *            The first character to smush.
+	 * @param char2
+	 *            The second character to smush.
+	 * @param smushmode
+	 *            The smushmode that determines how smushing occurs.
+	 * @param printDirection
+	 *            The print direction that determines whether the second character
+	 *            is considered to be to the right or the left of the first.
+	 * @param hardBlankChar
+	 *            The sub-character used to represent hardblanks.
+	 * @return The character representing the result of smushing the input
+	 *         characters, or the <code>null</code> character '/0' if the input
+	 *         characters cannot be smushed.
+	 * @see SmushTable
+	 */
+	static char smushem(final char char1, final char char2, final int smushmode,
+			final FigFont.PrintDirection printDirection, final char hardBlankChar) {
 		if (char1 == ' ')
 			return char2;
 		if (char2 == ' ')
@@ -428,14 +596,107 @@ public class FigFont {
 		return '\0';
 	}
 
+	/**
+	 * Calculates the character that is the result of merging two characters that
+	 * are stacked vertically, by evaluating the vertical smushing rules.
+	 * 
+	 * @param upperChar
+	 *            The character from the upper FIGlet line.
+	 * @param lowerChar
+	 *            The character from the lower FIGlet line.
+	 * @param smushmode
+	 *            The smushmode that determines how smushing occurs. This value may
+	 *            be generated by combining values from {@link LayoutOptions}.
+	 * @param hardBlankChar
+	 *            The sub-character used to represent hardblanks.
+	 * @return The character representing the result of smushing the input
+	 *         characters, or the <code>null</code> character '/0' if the input
+	 *         characters cannot be smushed.
+	 * @see LayoutOptions
+	 */
+	static char verticalSmushem(final char upperChar, final char lowerChar, final int smushmode,
+			final char hardBlankChar) {
+		if (upperChar == ' ')
+			return lowerChar;
+		if (lowerChar == ' ')
+			return upperChar;
+
+		if (LayoutOptions.islayoutOptionSelected(LayoutOptions.VERTICAL_SMUSHING_BY_DEFAULT, smushmode) == false)
+			return '\0'; /* fitting */
+
+		if ((smushmode & VERTICAL_SMUSHING_RULES) == 0) {
+			/* This is smushing by universal overlapping. The later line wins, */
+			/* unless it would replace a visible character with a hardblank. */
+			if (lowerChar == hardBlankChar)
+				return upperChar;
+			return lowerChar;
+		}
+
+		if (LayoutOptions.islayoutOptionSelected(LayoutOptions.VERTICAL_VERTICAL_LINE_SMUSHING, smushmode)) {
+			if (upperChar == '|' && lowerChar == '|')
+				return '|';
+		}
+
+		if (upperChar == hardBlankChar || lowerChar == hardBlankChar)
+			return '\0';
+
+		if (LayoutOptions.islayoutOptionSelected(LayoutOptions.VERTICAL_EQUAL_CHARACTER_SMUSHING, smushmode)) {
+			if (upperChar == lowerChar)
+				return upperChar;
+		}
+
+		if (LayoutOptions.islayoutOptionSelected(LayoutOptions.VERTICAL_UNDERSCORE_SMUSHING, smushmode)) {
+			if (upperChar == '_' && "|/\\[]{}()<>".indexOf(lowerChar) != -1)
+				return lowerChar;
+			if (lowerChar == '_' && "|/\\[]{}()<>".indexOf(upperChar) != -1)
+				return upperChar;
+		}
+
+		if (LayoutOptions.islayoutOptionSelected(LayoutOptions.VERTICAL_HIERARCHY_SMUSHING, smushmode)) {
+			if (upperChar == '|' && "/\\[]{}()<>".indexOf(lowerChar) != -1)
+				return lowerChar;
+			if (lowerChar == '|' && "/\\[]{}()<>".indexOf(upperChar) != -1)
+				return upperChar;
+			if ("/\\".indexOf(upperChar) != -1 && "[]{}()<>".indexOf(lowerChar) != -1)
+				return lowerChar;
+			if ("/\\".indexOf(lowerChar) != -1 && "[]{}()<>".indexOf(upperChar) != -1)
+				return upperChar;
+			if ("[]".indexOf(upperChar) != -1 && "{}()<>".indexOf(lowerChar) != -1)
+				return lowerChar;
+			if ("[]".indexOf(lowerChar) != -1 && "{}()<>".indexOf(upperChar) != -1)
+				return upperChar;
+			if ("{}".indexOf(upperChar) != -1 && "()<>".indexOf(lowerChar) != -1)
+				return lowerChar;
+			if ("{}".indexOf(lowerChar) != -1 && "()<>".indexOf(upperChar) != -1)
+				return upperChar;
+			if ("()".indexOf(upperChar) != -1 && "<>".indexOf(lowerChar) != -1)
+				return lowerChar;
+			if ("()".indexOf(lowerChar) != -1 && "<>".indexOf(upperChar) != -1)
+				return upperChar;
+		}
+
+		if (LayoutOptions.islayoutOptionSelected(LayoutOptions.VERTICAL_HORIZONTAL_LINE_SMUSHING, smushmode)) {
+			if ((upperChar == '-' && lowerChar == '_') || (upperChar == '_' && lowerChar == '-'))
+				return '=';
+		}
+
+		return '\0';
+	}
+
 	@Override
 	public String toString() {
 		final StringBuilder stringBuilder = new StringBuilder();
 
-		for (final Map.Entry<Character, FigCharacter> figCharactersEntry : figCharacters.entrySet()) {
-			stringBuilder.append(figCharactersEntry.getKey());
+		for (final int code : figCharacters.getCodes()) {
+			// Codes that are not code points, such as negative code tags, are shown as
+			// numbers.
+			if (Character.isValidCodePoint(code)) {
+				stringBuilder.appendCodePoint(code);
+			} else {
+				stringBuilder.append(code);
+			}
 			stringBuilder.append(":\n");
-			stringBuilder.append(figCharactersEntry.getValue());
+			stringBuilder.append(figCharacters.get(code));
 			stringBuilder.append("\n");
 		}
 
@@ -443,7 +704,9 @@ public class FigFont {
 	}
 
 	/**
-	 * Loads a FigFont from an {@link InputStream}.
+	 * Loads a FigFont from an {@link InputStream}, which is closed once read. The
+	 * charset of the FIGfont data, and whether it is zipped, are detected as for
+	 * {@link #load(Path)}.
 	 * 
 	 * @param inputStream
 	 *            The input stream containing the FIGfont data to load.
@@ -452,10 +715,247 @@ public class FigFont {
 	 *             if there is a problem loading the stream data.
 	 */
 	public static FigFont loadFigFont(final InputStream inputStream) throws IOException {
-		try (final InputStreamReader inputStreamReader = new InputStreamReader(inputStream)) {
-			final FigFontReader fontReader = new FigFontReader(inputStreamReader);
-			return fontReader.readFont();
+		try (final ReadableByteChannel channel = Channels.newChannel(inputStream)) {
+			return load(channel);
+		}
+	}
+
+	/**
+	 * Loads a FigFont from a file, detecting its charset. The file is read as
+	 * UTF-8 if it holds characters outside of ASCII that are all well-formed
+	 * UTF-8, and otherwise as ISO-8859-1, in which most FIGfonts are written.
+	 * Large files are decoded straight from a memory mapping. Zipped FIGfont
+	 * files, as allowed by FIGlet 2.2, are recognised by their magic number and
+	 * decompressed as they are read.
+	 * 
+	 * @param path
+	 *            The path of the FIGfont file to load.
+	 * @return The loaded FigFont instance.
+	 * @throws IOException
+	 *             if there is a problem loading the file.
+	 */
+	public static FigFont load(final Path path) throws IOException {
+		return FigFontReader.readFont(path, null);
+	}
+
+	/**
+	 * Loads a FigFont from a file in a given charset, which may be zipped. Large
+	 * files are decoded straight from a memory mapping.
+	 * 
+	 * @param path
+	 *            The path of the FIGfont file to load.
+	 * @param charset
+	 *            The charset of the file.
+	 * @return The loaded FigFont instance.
+	 * @throws IOException
+	 *             if there is a problem loading the file.
+	 */
+	public static FigFont load(final Path path, final Charset charset) throws IOException {
+		if (charset == null) {
+			throw new IllegalArgumentException("Charset must not be null");
+		}
+		return FigFontReader.readFont(path, charset);
+	}
+
+	/**
+	 * Loads a FigFont from a channel, detecting its charset and whether it is
+	 * zipped as for {@link #load(Path)}. The channel is not closed.
+	 * 
+	 * @param channel
+	 *            The channel from which to load the FIGfont data.
+	 * @return The loaded FigFont instance.
+	 * @throws IOException
+	 *             if there is a problem loading the channel data.
+	 */
+	public static FigFont load(final ReadableByteChannel channel) throws IOException {
+		return FigFontReader.readFont(channel, null, null);
+	}
+
+	/**
+	 * Loads a FigFont from a channel in a given charset, which may be zipped. The
+	 * channel is not closed.
+	 * 
+	 * @param channel
+	 *            The channel from which to load the FIGfont data.
+	 * @param charset
+	 *            The charset of the FIGfont data.
+	 * @return The loaded FigFont instance.
+	 * @throws IOException
+	 *             if there is a problem loading the channel data.
+	 */
+	public static FigFont load(final ReadableByteChannel channel, final Charset charset) throws IOException {
+		if (charset == null) {
+			throw new IllegalArgumentException("Charset must not be null");
+		}
+		return FigFontReader.readFont(channel, charset, null);
+	}
+
+	/**
+	 * Writes this FigFont to an {@link OutputStream} in the compiled binary format,
+	 * which can be read back with {@link #readCompiled(InputStream)} much faster
+	 * than a FIGfont can be parsed. Besides the character data, the compiled format
+	 * holds the width and the row boundaries of every FigCharacter, so that they
+	 * need not be calculated again when the font is read.
+	 * <p>
+	 * The stream is flushed, but not closed.
+	 * </p>
+	 * 
+	 * @param outputStream
+	 *            The output stream to which to write this FigFont.
+	 * @throws IOException
+	 *             if there is a problem writing to the stream.
+	 */
+	public void write(final OutputStream outputStream) throws IOException {
+		write(outputStream, -1);
+	}
+
+	/**
+	 * Writes this FigFont in the compiled binary format, recording the length of
+	 * the FIGfont data from which it was parsed.
+	 * 
+	 * @param outputStream
+	 *            The output stream to which to write this FigFont.
+	 * @param sourceLength
+	 *            The length of the FIGfont data, or -1 if it is not known.
+	 * @throws IOException
+	 *             if there is a problem writing to the stream.
+	 */
+	void write(final OutputStream outputStream, final long sourceLength) throws IOException {
+		final DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(outputStream));
+
+		dataOutputStream.writeInt(COMPILED_MAGIC);
+		dataOutputStream.writeShort(COMPILED_VERSION);
+		dataOutputStream.writeLong(sourceLength);
+
+		dataOutputStream.writeChar(hardBlankChar);
+		dataOutputStream.writeInt(height);
+		dataOutputStream.writeInt(baseline);
+		dataOutputStream.writeInt(maxLength);
+		dataOutputStream.writeInt(oldLayout);
+		dataOutputStream.writeInt(commentLines);
+		dataOutputStream.writeByte(printDirection.ordinal());
+		dataOutputStream.writeInt(fullLayout);
+		dataOutputStream.writeInt(codetagCount);
+
+		final int[] codes = figCharacters.getCodes();
+		dataOutputStream.writeInt(codes.length);
+		for (final int code : codes) {
+			dataOutputStream.writeInt(code);
+			figCharacters.get(code).write(dataOutputStream);
 		}
+
+		dataOutputStream.flush();
+	}
+
+	/**
+	 * Reads a FigFont that was written in the compiled binary format by
+	 * {@link #write(OutputStream)}.
+	 * <p>
+	 * The stream is not closed.
+	 * </p>
+	 * 
+	 * @param inputStream
+	 *            The input stream containing the compiled FigFont data to read.
+	 * @return The read FigFont instance.
+	 * @throws IOException
+	 *             if there is a problem reading the stream data, or if it is not a
+	 *             compiled FigFont of a supported version.
+	 */
+	public static FigFont readCompiled(final InputStream inputStream) throws IOException {
+		final DataInputStream dataInputStream = new DataInputStream(
+				inputStream instanceof BufferedInputStream ? inputStream : new BufferedInputStream(inputStream));
+
+		final int version = readCompiledVersion(dataInputStream);
+		if (version != COMPILED_VERSION) {
+			throw new IOException("Unsupported compiled FIGfont version: " + version);
+		}
+		dataInputStream.readLong();
+
+		return readCompiledFont(dataInputStream);
+	}
+
+	/**
+	 * Reads a FigFont in the compiled binary format, provided that it was
+	 * compiled by the current version of the compiler from FIGfont data of a
+	 * given length.
+	 * <p>
+	 * The stream is not closed.
+	 * </p>
+	 * 
+	 * @param inputStream
+	 *            The input stream containing the compiled FigFont data to read.
+	 * @param sourceLength
+	 *            The length of the FIGfont data, or -1 if it is not known, in
+	 *            which case any length is accepted.
+	 * @return The read FigFont instance, or <code>null</code> if it was compiled
+	 *         by another version of the compiler or from other FIGfont data.
+	 * @throws IOException
+	 *             if there is a problem reading the stream data, or if it is not a
+	 *             compiled FigFont.
+	 */
+	static FigFont readCompiled(final InputStream inputStream, final long sourceLength) throws IOException {
+		final DataInputStream dataInputStream = new DataInputStream(
+				inputStream instanceof BufferedInputStream ? inputStream : new BufferedInputStream(inputStream));
+
+		if (readCompiledVersion(dataInputStream) != COMPILED_VERSION) {
+			return null;
+		}
+		final long compiledSourceLength = dataInputStream.readLong();
+		if (sourceLength >= 0 && compiledSourceLength != sourceLength) {
+			return null;
+		}
+
+		return readCompiledFont(dataInputStream);
+	}
+
+	/**
+	 * Reads the magic number and version that start a compiled FigFont.
+	 * 
+	 * @return The version of the compiled FigFont.
+	 */
+	private static int readCompiledVersion(final DataInputStream dataInputStream) throws IOException {
+		final int magic = dataInputStream.readInt();
+		if (magic != COMPILED_MAGIC) {
+			throw new IOException("Not a compiled FIGfont: bad magic number 0x" + Integer.toHexString(magic));
+		}
+		return dataInputStream.readUnsignedShort();
+	}
+
+	/**
+	 * Reads the header and FigCharacters of a compiled FigFont, which follow its
+	 * version and source.
+	 */
+	private static FigFont readCompiledFont(final DataInputStream dataInputStream) throws IOException {
+		final FigFont font = new FigFont();
+		font.hardBlankChar = dataInputStream.readChar();
+		font.height = dataInputStream.readInt();
+		font.baseline = dataInputStream.readInt();
+		font.maxLength = dataInputStream.readInt();
+		font.oldLayout = dataInputStream.readInt();
+		font.commentLines = dataInputStream.readInt();
+		try {
+			font.printDirection = PrintDirection.ofHeaderValue(dataInputStream.readUnsignedByte());
+		} catch (final IllegalArgumentException e) {
+			throw new IOException("Corrupt compiled FIGfont", e);
+		}
+		font.fullLayout = dataInputStream.readInt();
+		font.codetagCount = dataInputStream.readInt();
+
+		if (font.height < 0) {
+			throw new IOException("Corrupt compiled FIGfont: negative height " + font.height);
+		}
+
+		final int figCharacterCount = dataInputStream.readInt();
+		for (int index = 0; index < figCharacterCount; index++) {
+			final int code = dataInputStream.readInt();
+			try {
+				font.figCharacters.put(code, FigCharacter.read(dataInputStream, font.height));
+			} catch (final IllegalArgumentException e) {
+				throw new IOException("Corrupt compiled FIGfont", e);
+			}
+		}
+
+		return font;
 	}
 
 	public static class Builder extends FigFont {
@@ -518,7 +1018,15 @@ public class FigFont {
 		 */
 		private int codetagCount;
 
-		private Map<Character, String> characterDataMap = new HashMap<>();
+		/**
+		 * The codes and data of the FIGcharacters in the order in which they were
+		 * set, so that a code that is set again replaces the earlier data when the
+		 * font is built.
+		 */
+		private int[] characterCodes = new int[256];
+		private String[] characterData = new String[256];
+		private int characterCount;
+		private GlyphTable figCharacters;
 
 		public char getHardBlankChar() {
 			return hardBlankChar;
@@ -601,9 +1109,40 @@ public class FigFont {
 			return this;
 		}
 
-		public Builder setFigCharacter(final char character, final String characterData) {
-			characterDataMap.put(character, characterData);
+		/**
+		 * Sets the data of the FIGcharacter for a character code. If the code has
+		 * already been set then the new data replaces the old.
+		 * 
+		 * @param code
+		 *            The character code, which is the Unicode code point of the
+		 *            character unless it is negative.
+		 * @param characterData
+		 *            The sub-characters of the FIGcharacter, a row per line.
+		 * @return This builder.
+		 */
+		public Builder setFigCharacter(final int code, final String characterData) {
+			if (characterCount == characterCodes.length) {
+				characterCodes = Arrays.copyOf(characterCodes, characterCount * 2);
+				this.characterData = Arrays.copyOf(this.characterData, characterCount * 2);
+			}
+			characterCodes[characterCount] = code;
+			this.characterData[characterCount] = characterData;
+			characterCount++;
+
+			return this;
+		}
 
+		/**
+		 * Sets the table that holds the FIGcharacters of the font, which replaces
+		 * all of the FIGcharacters set by {@link #setFigCharacter(int, String)}. This
+		 * is used to build fonts whose FIGcharacters are decoded lazily.
+		 * 
+		 * @param figCharacters
+		 *            The table of FIGcharacters to set.
+		 * @return This builder.
+		 */
+		Builder setFigCharacters(final GlyphTable figCharacters) {
+			this.figCharacters = figCharacters;
 			return this;
 		}
 
@@ -620,9 +1159,13 @@ public class FigFont {
 			font.fullLayout = fullLayout;
 			font.codetagCount = codetagCount;
 
-			font.figCharacters = new HashMap<>(characterDataMap.size());
-			for (Map.Entry<Character, String> entry : characterDataMap.entrySet()) {
-				font.figCharacters.put(entry.getKey(), new FigCharacter(font, entry.getValue()));
+			if (figCharacters != null) {
+				font.figCharacters = figCharacters;
+			} else {
+				font.figCharacters = new GlyphTable();
+				for (int index = 0; index < characterCount; index++) {
+					font.figCharacters.put(characterCodes[index], new FigCharacter(height, characterData[index]));
+				}
 			}
 
 			return font;
@@ -631,22 +1174,158 @@ public class FigFont {
 
 	/**
 	 * FigCharacter represents a single FIGlet character from a FIGfont.
+	 * <p>
+	 * The sub-characters of every row are held contiguously in a single array, one
+	 * row after another, so that a row starts at its row number multiplied by the
+	 * width. Characters whose sub-characters all fall within ISO-8859-1 are held in
+	 * a <code>byte[]</code>, and all others in a <code>char[]</code>.
+	 * </p>
 	 */
 	public static class FigCharacter {
-		private final FigFont font;
-		private final String characterData;
+		private final int width;
+		private final int height;
+		private final byte[] latin1Data;
+		private final char[] charData;
+
+		/**
+		 * The column of the leftmost sub-character of each row that is not a blank,
+		 * or of the last sub-character of rows that are entirely blank.
+		 */
+		private final short[] leftBoundaries;
+
+		/**
+		 * The column of the rightmost sub-character of each row that is not a blank,
+		 * or of the first sub-character of rows that are entirely blank.
+		 */
+		private final short[] rightBoundaries;
+
+		/**
+		 * The number of blank sub-characters at the top of each column.
+		 */
+		private final short[] topBlanks;
+
+		/**
+		 * The number of blank sub-characters at the bottom of each column.
+		 */
+		private final short[] bottomBlanks;
 
 		/**
 		 * Constructs a new instance of {@link FigCharacter}.
 		 * 
-		 * @param font
-		 *            The font of which this FigCharacter is a part.
+		 * @param height
+		 *            The height of the font of which this FigCharacter is a part.
 		 * @param characterData
 		 *            The character data that defines this characters appearance.
 		 */
-		private FigCharacter(final FigFont font, final String characterData) {
-			this.font = font;
-			this.characterData = characterData;
+		FigCharacter(final int height, final String characterData) {
+			this(height, characterData.toCharArray(), characterData.length());
+		}
+
+		/**
+		 * Constructs a new instance of {@link FigCharacter} from the start of a
+		 * buffer of character data, which is copied.
+		 * 
+		 * @param height
+		 *            The height of the font of which this FigCharacter is a part.
+		 * @param characterData
+		 *            The buffer that holds the character data.
+		 * @param length
+		 *            The length of the character data in the buffer.
+		 */
+		FigCharacter(final int height, final char[] characterData, final int length) {
+			this.height = height;
+			this.width = height > 0 ? length / height : 0;
+
+			boolean latin1 = true;
+			for (int index = 0; index < length && latin1; index++) {
+				latin1 = characterData[index] <= 0xFF;
+			}
+
+			if (latin1) {
+				latin1Data = new byte[length];
+				for (int index = 0; index < length; index++) {
+					latin1Data[index] = (byte) characterData[index];
+				}
+				charData = null;
+			} else {
+				latin1Data = null;
+				charData = Arrays.copyOf(characterData, length);
+			}
+
+			leftBoundaries = new short[height];
+			rightBoundaries = new short[height];
+			if (width > 0) {
+				for (int row = 0; row < height; row++) {
+					final int rowStart = row * width;
+					int leftBoundary = 0;
+					while (characterData[rowStart + leftBoundary] == ' ' && leftBoundary < width - 1) {
+						leftBoundary++;
+					}
+					leftBoundaries[row] = (short) leftBoundary;
+
+					int rightBoundary = width - 1;
+					while (characterData[rowStart + rightBoundary] == ' ' && rightBoundary > 0) {
+						rightBoundary--;
+					}
+					rightBoundaries[row] = (short) rightBoundary;
+				}
+			}
+
+			topBlanks = new short[width];
+			bottomBlanks = new short[width];
+			calculateBlanks();
+		}
+
+		/**
+		 * Constructs a new instance of {@link FigCharacter} from data that has
+		 * already been decoded.
+		 * 
+		 * @param width
+		 *            The width of the FigCharacter.
+		 * @param height
+		 *            The height of the FigCharacter.
+		 * @param latin1Data
+		 *            The character data, if every sub-character is within ISO-8859-1,
+		 *            or <code>null</code>.
+		 * @param charData
+		 *            The character data, if latin1Data is <code>null</code>.
+		 * @param leftBoundaries
+		 *            The left boundary of each row.
+		 * @param rightBoundaries
+		 *            The right boundary of each row.
+		 */
+		FigCharacter(final int width, final int height, final byte[] latin1Data, final char[] charData,
+				final short[] leftBoundaries, final short[] rightBoundaries) {
+			this.width = width;
+			this.height = height;
+			this.latin1Data = latin1Data;
+			this.charData = charData;
+			this.leftBoundaries = leftBoundaries;
+			this.rightBoundaries = rightBoundaries;
+
+			topBlanks = new short[width];
+			bottomBlanks = new short[width];
+			calculateBlanks();
+		}
+
+		/**
+		 * Counts the blank sub-characters at the top and the bottom of every column.
+		 */
+		private void calculateBlanks() {
+			for (int column = 0; column < width; column++) {
+				int topBlankCount = 0;
+				while (topBlankCount < height && subCharacterAt(topBlankCount * width + column) == ' ') {
+					topBlankCount++;
+				}
+				topBlanks[column] = (short) topBlankCount;
+
+				int bottomBlankCount = 0;
+				while (bottomBlankCount < height
+						&& subCharacterAt((height - (bottomBlankCount + 1)) * width + column) == ' ') {
+					bottomBlankCount++;
+				}
+				bottomBlanks[column] = (short) bottomBlankCount;
+			}
 		}
 
 		/**
@@ -662,8 +1341,8 @@ public class FigFont {
 		 *             FIGcharacter data.
 		 */
 		public char getCharacterAt(final int column, final int row) throws IndexOutOfBoundsException {
-			if (column >= 0 && column < getWidth() && row >= 0 && row < getHeight()) {
-				return characterData.charAt((row * getWidth()) + column);
+			if (column >= 0 && column < width && row >= 0 && row < height) {
+				return subCharacterAt((row * width) + column);
 			} else {
 				throw new IndexOutOfBoundsException("Character index out of bounds: " + column + ", " + row);
 			}
@@ -679,12 +1358,20 @@ public class FigFont {
 		 *             if the requested row does not exist within the FIGcharacter data.
 		 */
 		public String getRow(final int row) throws IndexOutOfBoundsException {
-			if (row >= 0 && row < getHeight()) {
-				int rowStart = row * getWidth();
-				return characterData.substring(rowStart, rowStart + getWidth());
+			if (row >= 0 && row < height) {
+				final int rowStart = row * width;
+				if (latin1Data != null) {
+					final char[] rowData = new char[width];
+					for (int column = 0; column < width; column++) {
+						rowData[column] = (char) (latin1Data[rowStart + column] & 0xFF);
+					}
+					return new String(rowData);
+				} else {
+					return new String(charData, rowStart, width);
+				}
 			} else {
 				throw new IndexOutOfBoundsException(
-						"Character row must be between 0 and " + (getHeight() - 1) + ": " + row);
+						"Character row must be between 0 and " + (height - 1) + ": " + row);
 			}
 		}
 
@@ -694,7 +1381,7 @@ public class FigFont {
 		 * @return The width of the FIGcharacter.
 		 */
 		public int getWidth() {
-			return characterData.length() / font.getHeight();
+			return width;
 		}
 
 		/**
@@ -703,16 +1390,186 @@ public class FigFont {
 		 * @return The height of the FIGcharacter.
 		 */
 		public int getHeight() {
-			return font.getHeight();
+			return height;
+		}
+
+		/**
+		 * Writes this FigCharacter in the compiled binary format.
+		 * 
+		 * @param dataOutputStream
+		 *            The stream to which to write this FigCharacter.
+		 * @throws IOException
+		 *             if there is a problem writing to the stream.
+		 */
+		void write(final DataOutputStream dataOutputStream) throws IOException {
+			dataOutputStream.writeInt(width);
+			if (latin1Data != null) {
+				dataOutputStream.writeBoolean(true);
+				dataOutputStream.write(latin1Data);
+			} else {
+				dataOutputStream.writeBoolean(false);
+				for (final char subCharacter : charData) {
+					dataOutputStream.writeChar(subCharacter);
+				}
+			}
+			for (int row = 0; row < height; row++) {
+				dataOutputStream.writeShort(leftBoundaries[row]);
+				dataOutputStream.writeShort(rightBoundaries[row]);
+			}
+		}
+
+		/**
+		 * Reads a FigCharacter that was written in the compiled binary format by
+		 * {@link #write(DataOutputStream)}.
+		 * 
+		 * @param dataInputStream
+		 *            The stream from which to read the FigCharacter.
+		 * @param height
+		 *            The height of the font of which the FigCharacter is a part.
+		 * @return The read FigCharacter.
+		 * @throws IOException
+		 *             if there is a problem reading from the stream.
+		 * @throws IllegalArgumentException
+		 *             if the FigCharacter data is corrupt.
+		 */
+		static FigCharacter read(final DataInputStream dataInputStream, final int height)
+				throws IOException, IllegalArgumentException {
+			final int width = dataInputStream.readInt();
+			if (width < 0 || width > Short.MAX_VALUE || (long) width * height > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Illegal FigCharacter width: " + width);
+			}
+
+			final int length = width * height;
+			final byte[] latin1Data;
+			final char[] charData;
+			if (dataInputStream.readBoolean()) {
+				latin1Data = new byte[length];
+				dataInputStream.readFully(latin1Data);
+				charData = null;
+			} else {
+				latin1Data = null;
+				charData = new char[length];
+				for (int index = 0; index < length; index++) {
+					charData[index] = dataInputStream.readChar();
+				}
+			}
+
+			final short[] leftBoundaries = new short[height];
+			final short[] rightBoundaries = new short[height];
+			for (int row = 0; row < height; row++) {
+				leftBoundaries[row] = dataInputStream.readShort();
+				rightBoundaries[row] = dataInputStream.readShort();
+				if (leftBoundaries[row] < 0 || rightBoundaries[row] < 0
+						|| (width > 0 && (leftBoundaries[row] >= width || rightBoundaries[row] >= width))) {
+					throw new IllegalArgumentException("Illegal FigCharacter boundary in row " + row);
+				}
+			}
+
+			return new FigCharacter(width, height, latin1Data, charData, leftBoundaries, rightBoundaries);
+		}
+
+		/**
+		 * Returns the column of the leftmost sub-character of a row that is not a
+		 * blank, or of the last sub-character of the row if it is entirely blank.
+		 * 
+		 * @param row
+		 *            The row for which to return the boundary.
+		 * @return The left boundary of the row.
+		 */
+		int getLeftBoundary(final int row) {
+			return leftBoundaries[row];
+		}
+
+		/**
+		 * Returns the column of the rightmost sub-character of a row that is not a
+		 * blank, or of the first sub-character of the row if it is entirely blank.
+		 * 
+		 * @param row
+		 *            The row for which to return the boundary.
+		 * @return The right boundary of the row.
+		 */
+		int getRightBoundary(final int row) {
+			return rightBoundaries[row];
+		}
+
+		/**
+		 * Returns the number of blank sub-characters at the top of a column, which
+		 * is the height of the FigCharacter if the column is entirely blank.
+		 * 
+		 * @param column
+		 *            The column for which to return the number of blanks.
+		 * @return The number of blank sub-characters at the top of the column.
+		 */
+		int getTopBlanks(final int column) {
+			return topBlanks[column];
+		}
+
+		/**
+		 * Returns the number of blank sub-characters at the bottom of a column,
+		 * which is the height of the FigCharacter if the column is entirely blank.
+		 * 
+		 * @param column
+		 *            The column for which to return the number of blanks.
+		 * @return The number of blank sub-characters at the bottom of the column.
+		 */
+		int getBottomBlanks(final int column) {
+			return bottomBlanks[column];
+		}
+
+		/**
+		 * Returns the sub-character at an index of the row-by-row character data.
+		 * 
+		 * @param index
+		 *            The index of the sub-character.
+		 * @return The sub-character at the index.
+		 */
+		char subCharacterAt(final int index) {
+			if (latin1Data != null) {
+				return (char) (latin1Data[index] & 0xFF);
+			} else {
+				return charData[index];
+			}
+		}
+
+		/**
+		 * Copies sub-characters from a row of the FIGcharacter into an array.
+		 * 
+		 * @param row
+		 *            The row from which to copy sub-characters.
+		 * @param column
+		 *            The first column to copy.
+		 * @param destination
+		 *            The array into which to copy sub-characters.
+		 * @param destinationIndex
+		 *            The index of the array at which to start copying.
+		 * @param length
+		 *            The number of sub-characters to copy.
+		 * @throws IndexOutOfBoundsException
+		 *             if the sub-characters to copy do not exist within the
+		 *             FIGcharacter data.
+		 */
+		void copyRow(final int row, final int column, final char[] destination, final int destinationIndex,
+				final int length) throws IndexOutOfBoundsException {
+			if (row < 0 || row >= height || column < 0 || length < 0 || column + length > width) {
+				throw new IndexOutOfBoundsException(
+						"Character row out of bounds: " + row + ", " + column + ", " + length);
+			}
+			final int start = (row * width) + column;
+			if (latin1Data != null) {
+				for (int index = 0; index < length; index++) {
+					destination[destinationIndex + index] = (char) (latin1Data[start + index] & 0xFF);
+				}
+			} else {
+				System.arraycopy(charData, start, destination, destinationIndex, length);
+			}
 		}
 
 		@Override
 		public String toString() {
 			final StringBuilder stringBuilder = new StringBuilder();
 
-			int width = getWidth();
-			for (int y = 0; y < font.getHeight(); y++) {
-				stringBuilder.append(characterData.substring(width * y, (width * y) + width));
+			for (int y = 0; y < height; y++) {
+				stringBuilder.append(getRow(y));
 				stringBuilder.append("\n");
 			}
 
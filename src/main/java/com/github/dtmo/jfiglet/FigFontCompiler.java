@@ -0,0 +1,119 @@
+package com.github.dtmo.jfiglet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+
+/**
+ * FigFontCompiler converts FIGfont files into the compiled binary format that
+ * is read by {@link FigFont#readCompiled(InputStream)}.
+ * <p>
+ * It may be run from the command line with the directory into which to write
+ * the compiled fonts followed by the FIGfont files to compile:
+ * </p>
+ *
+ * <pre>
+ * java com.github.dtmo.jfiglet.FigFontCompiler build/compiled-fonts standard.flf slant.flf
+ * </pre>
+ * <p>
+ * Each compiled font is named after its FIGfont file, with the
+ * <code>.flf</code> extension replaced by
+ * {@value FigFontResources#COMPILED_EXTENSION}. Compiled fonts placed alongside
+ * their FIGfont resources are preferred by
+ * {@link FigFontResources#loadFigFontResource(String)}.
+ * </p>
+ */
+public class FigFontCompiler {
+	private FigFontCompiler() {
+		// Do nothing.
+	}
+
+	/**
+	 * Compiles a FIGfont. The compiled font records the length of the FIGfont
+	 * data, so that it is not used in place of FIGfont data that has since been
+	 * edited.
+	 *
+	 * @param inputStream
+	 *            The input stream containing the FIGfont data to compile.
+	 * @param outputStream
+	 *            The output stream to which to write the compiled font.
+	 * @throws IOException
+	 *             if there is a problem reading the FIGfont or writing the
+	 *             compiled font.
+	 */
+	public static void compile(final InputStream inputStream, final OutputStream outputStream) throws IOException {
+		final byte[] fontData = readFully(inputStream);
+		FigFontReader.readFont(Channels.newChannel(new ByteArrayInputStream(fontData)), null, null)
+				.write(outputStream, fontData.length);
+	}
+
+	/**
+	 * Reads all of the bytes from an input stream, which is not closed.
+	 */
+	static byte[] readFully(final InputStream inputStream) throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[8192];
+		int read;
+		while ((read = inputStream.read(buffer)) >= 0) {
+			outputStream.write(buffer, 0, read);
+		}
+		return outputStream.toByteArray();
+	}
+
+	/**
+	 * Compiles a FIGfont file into a directory.
+	 *
+	 * @param fontFile
+	 *            The FIGfont file to compile.
+	 * @param outputDirectory
+	 *            The directory into which to write the compiled font.
+	 * @return The compiled font file.
+	 * @throws IOException
+	 *             if there is a problem reading the FIGfont or writing the
+	 *             compiled font.
+	 */
+	public static File compile(final File fontFile, final File outputDirectory) throws IOException {
+		final String compiledName = FigFontResources.getCompiledName(fontFile.getName());
+		if (compiledName == null) {
+			throw new IOException("Not a FIGfont file: " + fontFile);
+		}
+
+		final File compiledFile = new File(outputDirectory, compiledName);
+		try (final InputStream inputStream = new FileInputStream(fontFile);
+				final OutputStream outputStream = new FileOutputStream(compiledFile)) {
+			compile(inputStream, outputStream);
+		}
+		return compiledFile;
+	}
+
+	/**
+	 * Compiles FIGfont files from the command line.
+	 *
+	 * @param args
+	 *            The directory into which to write the compiled fonts, followed by
+	 *            the FIGfont files to compile.
+	 * @throws IOException
+	 *             if there is a problem compiling a FIGfont.
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: FigFontCompiler <output directory> <FIGfont file>...");
+			System.exit(1);
+		}
+
+		final File outputDirectory = new File(args[0]);
+		if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+			throw new IOException("Could not create output directory: " + outputDirectory);
+		}
+
+		for (int index = 1; index < args.length; index++) {
+			compile(new File(args[index]), outputDirectory);
+		}
+	}
+}
@@ -0,0 +1,560 @@
+package com.github.dtmo.jfiglet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.github.dtmo.jfiglet.FigFont.PrintDirection;
+import com.github.dtmo.jfiglet.FigFontReader.GlyphIndex;
+
+/**
+ * FigFontIndex is an index of the FIGfont files in a directory tree, which
+ * holds the header of each font and the positions of its FIGcharacters in the
+ * font file, and loads the fonts themselves on demand.
+ * <p>
+ * The directory tree is scanned in parallel for files with the
+ * <code>.flf</code> extension, which may be zipped. Files that are not valid
+ * FIGfonts are left out of the index. The index may be persisted to a cache
+ * file, in which case a font file is only read again while building the index
+ * if its size or modification time differ from those recorded in the cache.
+ * </p>
+ * <p>
+ * Fonts are loaded with their FIGcharacters decoded lazily, as with
+ * {@link FigFontReader#readFontLazily()}, without the font data having to be
+ * indexed again. Since {@link #loadFont(String)} matches
+ * {@link FigFontRegistry.FontLoader}, an index can supply the fonts of a
+ * {@link FigFontRegistry}:
+ * </p>
+ *
+ * <pre>
+ * final FigFontRegistry registry = new FigFontRegistry.Builder().setFontLoader(index::loadFont).build();
+ * </pre>
+ * <p>
+ * FigFontIndex instances are immutable, and so may be shared between threads.
+ * </p>
+ */
+public final class FigFontIndex {
+	/**
+	 * The extension of the FIGfont files that are indexed.
+	 */
+	public static final String FONT_FILE_EXTENSION = ".flf";
+
+	private static final int CACHE_MAGIC_NUMBER = 0x4A464649; // "JFFI"
+	private static final int CACHE_VERSION = 1;
+	private static final String DETECTED_CHARSET_NAME = "auto";
+
+	private final Path directory;
+	private final Charset charset;
+	private final Map<String, Entry> entries;
+	private final int cacheHitCount;
+
+	private FigFontIndex(final Path directory, final Charset charset, final Map<String, Entry> entries,
+			final int cacheHitCount) {
+		this.directory = directory;
+		this.charset = charset;
+		this.entries = Collections.unmodifiableMap(entries);
+		this.cacheHitCount = cacheHitCount;
+	}
+
+	/**
+	 * Returns the directory whose tree is indexed.
+	 *
+	 * @return The directory whose tree is indexed.
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Returns the charset with which font files are read, or <code>null</code>
+	 * if the charset of each file is detected.
+	 *
+	 * @return The charset with which font files are read.
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Returns the entries of the index, in order of their relative paths.
+	 *
+	 * @return An unmodifiable collection of the entries of the index.
+	 */
+	public Collection<Entry> getEntries() {
+		return entries.values();
+	}
+
+	/**
+	 * Returns the entry for a font file.
+	 *
+	 * @param relativePath
+	 *            The path of the font file relative to the indexed directory,
+	 *            with names separated by <code>/</code>.
+	 * @return The entry for the font file, or <code>null</code> if it is not in
+	 *         the index.
+	 */
+	public Entry getEntry(final String relativePath) {
+		return entries.get(relativePath);
+	}
+
+	/**
+	 * Returns the number of entries that were read from the cache file when the
+	 * index was built, rather than from their font files.
+	 *
+	 * @return The number of entries that were read from the cache file.
+	 */
+	public int getCacheHitCount() {
+		return cacheHitCount;
+	}
+
+	/**
+	 * Loads a font in the index. Its FIGcharacters are decoded lazily from the
+	 * positions recorded in the index, unless the size or modification time of
+	 * the font file have changed since it was indexed, in which case it is
+	 * indexed again.
+	 *
+	 * @param relativePath
+	 *            The path of the font file relative to the indexed directory,
+	 *            with names separated by <code>/</code>.
+	 * @return The loaded font.
+	 * @throws IOException
+	 *             if the font is not in the index, or there is a problem reading
+	 *             it.
+	 */
+	public FigFont loadFont(final String relativePath) throws IOException {
+		final Entry entry = entries.get(relativePath);
+		if (entry == null) {
+			throw new NoSuchFileException(relativePath, null, "FIGfont is not in the index");
+		}
+
+		final BasicFileAttributes attributes = Files.readAttributes(entry.path, BasicFileAttributes.class);
+		return FigFontReader.readFontLazily(entry.path, charset, relativePath,
+				entry.isCurrent(attributes) ? entry.glyphIndex : null);
+	}
+
+	@Override
+	public String toString() {
+		return "FigFontIndex [directory=" + directory + ", charset=" + getCharsetName(charset) + ", entries=" + entries.size()
+				+ "]";
+	}
+
+	private static String toRelativePath(final Path directory, final Path path) {
+		final StringBuilder relativePath = new StringBuilder();
+		for (final Path name : directory.relativize(path)) {
+			if (relativePath.length() > 0) {
+				relativePath.append('/');
+			}
+			relativePath.append(name);
+		}
+		return relativePath.toString();
+	}
+
+	/**
+	 * Returns the name of the charset with which font files are read, as it is
+	 * written to the cache file, which is {@value #DETECTED_CHARSET_NAME} if the
+	 * charset of each file is detected.
+	 */
+	private static String getCharsetName(final Charset charset) {
+		return charset != null ? charset.name() : DETECTED_CHARSET_NAME;
+	}
+
+	private static Map<String, Entry> readCache(final Path cacheFile, final Path directory, final Charset charset) {
+		final Map<String, Entry> cachedEntries = new HashMap<>();
+		if (cacheFile == null || !Files.isRegularFile(cacheFile)) {
+			return cachedEntries;
+		}
+
+		try (final DataInputStream inputStream = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+			if (inputStream.readInt() != CACHE_MAGIC_NUMBER || inputStream.readInt() != CACHE_VERSION
+					|| !getCharsetName(charset).equals(inputStream.readUTF())) {
+				return cachedEntries;
+			}
+
+			final int entryCount = inputStream.readInt();
+			for (int entryIndex = 0; entryIndex < entryCount; entryIndex++) {
+				final String relativePath = inputStream.readUTF();
+				final long lastModified = inputStream.readLong();
+				final long size = inputStream.readLong();
+				final String header = inputStream.readUTF();
+				final int glyphCount = inputStream.readInt();
+				if (glyphCount < 0 || glyphCount > size) {
+					throw new IOException("Invalid glyph count: " + glyphCount);
+				}
+				final int[] codes = new int[glyphCount];
+				final int[] positions = new int[glyphCount];
+				for (int glyph = 0; glyph < glyphCount; glyph++) {
+					codes[glyph] = inputStream.readInt();
+					positions[glyph] = inputStream.readInt();
+				}
+
+				final Path path = directory.resolve(relativePath);
+				cachedEntries.put(relativePath, new Entry(path, relativePath, lastModified, size,
+						new GlyphIndex(header, codes, positions)));
+			}
+		} catch (final IOException | IllegalArgumentException e) {
+			// A cache file that cannot be read is ignored, and will be replaced.
+			cachedEntries.clear();
+		}
+		return cachedEntries;
+	}
+
+	private static void writeCache(final Path cacheFile, final Charset charset, final Collection<Entry> entries)
+			throws IOException {
+		final Path cacheDirectory = cacheFile.toAbsolutePath().getParent();
+		Files.createDirectories(cacheDirectory);
+		final Path tempFile = Files.createTempFile(cacheDirectory, cacheFile.getFileName().toString(), ".tmp");
+		try {
+			try (final DataOutputStream outputStream = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+				outputStream.writeInt(CACHE_MAGIC_NUMBER);
+				outputStream.writeInt(CACHE_VERSION);
+				outputStream.writeUTF(getCharsetName(charset));
+				outputStream.writeInt(entries.size());
+				for (final Entry entry : entries) {
+					outputStream.writeUTF(entry.relativePath);
+					outputStream.writeLong(entry.lastModified);
+					outputStream.writeLong(entry.size);
+					outputStream.writeUTF(entry.glyphIndex.getHeader());
+					final int[] codes = entry.glyphIndex.getCodes();
+					final int[] positions = entry.glyphIndex.getPositions();
+					outputStream.writeInt(codes.length);
+					for (int glyph = 0; glyph < codes.length; glyph++) {
+						outputStream.writeInt(codes[glyph]);
+						outputStream.writeInt(positions[glyph]);
+					}
+				}
+			}
+
+			try {
+				Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Entry is the index of a single FIGfont file.
+	 */
+	public static final class Entry {
+		private final Path path;
+		private final String relativePath;
+		private final long lastModified;
+		private final long size;
+		private final GlyphIndex glyphIndex;
+
+		/**
+		 * The values of the header line, which is never modified once parsed.
+		 */
+		private final FigFont.Builder header;
+
+		private Entry(final Path path, final String relativePath, final long lastModified, final long size,
+				final GlyphIndex glyphIndex) throws IOException {
+			this.path = path;
+			this.relativePath = relativePath;
+			this.lastModified = lastModified;
+			this.size = size;
+			this.glyphIndex = glyphIndex;
+			this.header = glyphIndex.parseHeader();
+		}
+
+		private boolean isCurrent(final BasicFileAttributes attributes) {
+			return attributes.size() == size && attributes.lastModifiedTime().toMillis() == lastModified;
+		}
+
+		/**
+		 * Returns the path of the font file.
+		 *
+		 * @return The path of the font file.
+		 */
+		public Path getPath() {
+			return path;
+		}
+
+		/**
+		 * Returns the path of the font file relative to the indexed directory, with
+		 * names separated by <code>/</code>.
+		 *
+		 * @return The relative path of the font file.
+		 */
+		public String getRelativePath() {
+			return relativePath;
+		}
+
+		/**
+		 * Returns the name of the font, which is the name of the font file without
+		 * its extension.
+		 *
+		 * @return The name of the font.
+		 */
+		public String getName() {
+			final String fileName = path.getFileName().toString();
+			return fileName.substring(0, fileName.length() - FONT_FILE_EXTENSION.length());
+		}
+
+		/**
+		 * Returns the modification time of the font file when it was indexed, in
+		 * milliseconds since the epoch.
+		 *
+		 * @return The modification time of the font file.
+		 */
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * Returns the size of the font file when it was indexed, in bytes.
+		 *
+		 * @return The size of the font file.
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * Returns the number of FIGcharacters in the font file, including any whose
+		 * code tags repeat those of earlier FIGcharacters.
+		 *
+		 * @return The number of FIGcharacters in the font file.
+		 */
+		public int getGlyphCount() {
+			return glyphIndex.getCodes().length;
+		}
+
+		/**
+		 * Returns the sub-character used to represent hardblanks in the
+		 * FIGcharacter data.
+		 *
+		 * @return The hardblank character.
+		 */
+		public char getHardBlankChar() {
+			return header.getHardBlankChar();
+		}
+
+		/**
+		 * Returns the number of rows in each FIGcharacter.
+		 *
+		 * @return The height of the font.
+		 */
+		public int getHeight() {
+			return header.getHeight();
+		}
+
+		/**
+		 * Returns the number of rows from the top of a FIGcharacter to its baseline.
+		 *
+		 * @return The baseline of the font.
+		 */
+		public int getBaseline() {
+			return header.getBaseline();
+		}
+
+		/**
+		 * Returns the maximum length of a line of FIGcharacter data.
+		 *
+		 * @return The maximum length of a line.
+		 */
+		public int getMaxLength() {
+			return header.getMaxLength();
+		}
+
+		/**
+		 * Returns the old layout value of the header.
+		 *
+		 * @return The old layout value.
+		 */
+		public int getOldLayout() {
+			return header.getOldLayout();
+		}
+
+		/**
+		 * Returns the full layout value of the header.
+		 *
+		 * @return The full layout value.
+		 */
+		public int getFullLayout() {
+			return header.getFullLayout();
+		}
+
+		/**
+		 * Returns the direction in which the font prints by default.
+		 *
+		 * @return The print direction of the font.
+		 */
+		public PrintDirection getPrintDirection() {
+			return header.getPrintDirection();
+		}
+
+		/**
+		 * Returns the number of comment lines in the font file.
+		 *
+		 * @return The number of comment lines.
+		 */
+		public int getCommentLines() {
+			return header.getCommentLines();
+		}
+
+		/**
+		 * Returns the number of code-tagged FIGcharacters declared by the header.
+		 *
+		 * @return The code tag count of the header.
+		 */
+		public int getCodetagCount() {
+			return header.getCodetagCount();
+		}
+
+		@Override
+		public String toString() {
+			return "Entry [relativePath=" + relativePath + ", lastModified=" + lastModified + ", size=" + size
+					+ ", glyphCount=" + getGlyphCount() + "]";
+		}
+	}
+
+	/**
+	 * Builder builds {@link FigFontIndex} instances by scanning a directory tree.
+	 */
+	public static class Builder {
+		private final Path directory;
+		private Path cacheFile;
+		private Charset charset;
+
+		/**
+		 * Constructs a new Builder for the index of a directory tree.
+		 *
+		 * @param directory
+		 *            The directory whose tree is indexed.
+		 */
+		public Builder(final Path directory) {
+			if (directory == null) {
+				throw new IllegalArgumentException("Directory must not be null");
+			}
+			this.directory = directory;
+		}
+
+		public Path getDirectory() {
+			return directory;
+		}
+
+		public Path getCacheFile() {
+			return cacheFile;
+		}
+
+		/**
+		 * Sets the file to which the index is persisted. If the file exists then the
+		 * entries that it holds for font files that have not changed are used
+		 * rather than reading those font files again, and it is rewritten if any
+		 * font file has been added, changed or removed. A cache file that cannot be
+		 * read is ignored. If not set then the index is not persisted.
+		 *
+		 * @param cacheFile
+		 *            The cache file, or <code>null</code> for none.
+		 * @return This builder.
+		 */
+		public Builder setCacheFile(final Path cacheFile) {
+			this.cacheFile = cacheFile;
+			return this;
+		}
+
+		public Charset getCharset() {
+			return charset;
+		}
+
+		/**
+		 * Sets the charset with which font files are read. If not set, or set to
+		 * <code>null</code>, then the charset of each font file is detected as for
+		 * {@link FigFont#load(Path)}, so that fonts are read from the index as they
+		 * would be loaded from their files.
+		 *
+		 * @param charset
+		 *            The charset with which font files are read, or
+		 *            <code>null</code> to detect the charset of each file.
+		 * @return This builder.
+		 */
+		public Builder setCharset(final Charset charset) {
+			this.charset = charset;
+			return this;
+		}
+
+		/**
+		 * Scans the directory tree and builds the index.
+		 *
+		 * @return The index of the directory tree.
+		 * @throws IOException
+		 *             if the directory tree cannot be scanned, or the cache file
+		 *             cannot be written.
+		 */
+		public FigFontIndex build() throws IOException {
+			final Map<String, Entry> cachedEntries = readCache(cacheFile, directory, charset);
+
+			final List<Entry> scannedEntries;
+			try (final Stream<Path> paths = Files.walk(directory)) {
+				scannedEntries = paths.parallel()
+						.filter(path -> path.getFileName().toString().endsWith(FONT_FILE_EXTENSION))
+						.map(path -> scan(path, cachedEntries.get(toRelativePath(directory, path))))
+						.filter(Objects::nonNull).collect(Collectors.toList());
+			} catch (final UncheckedIOException e) {
+				throw e.getCause();
+			}
+
+			final Map<String, Entry> entries = new TreeMap<>();
+			int cacheHitCount = 0;
+			for (final Entry entry : scannedEntries) {
+				entries.put(entry.relativePath, entry);
+				if (entry == cachedEntries.get(entry.relativePath)) {
+					cacheHitCount++;
+				}
+			}
+
+			if (cacheFile != null && (cacheHitCount != entries.size() || cachedEntries.size() != entries.size())) {
+				writeCache(cacheFile, charset, entries.values());
+			}
+			return new FigFontIndex(directory, charset, entries, cacheHitCount);
+		}
+
+		/**
+		 * Returns the entry for a font file, which is the cached entry if the file
+		 * has not changed since it was cached, or <code>null</code> if the file is
+		 * not a valid FIGfont.
+		 */
+		private Entry scan(final Path path, final Entry cachedEntry) {
+			try {
+				final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+				if (!attributes.isRegularFile()) {
+					return null;
+				}
+				if (cachedEntry != null && cachedEntry.isCurrent(attributes)) {
+					return cachedEntry;
+				}
+
+				final String text = FigFontReader.readText(path, charset);
+				return new Entry(path, toRelativePath(directory, path), attributes.lastModifiedTime().toMillis(),
+						attributes.size(), FigFontReader.indexGlyphs(text));
+			} catch (final IOException e) {
+				// Files that cannot be read, or are not FIGfonts, are left out of the index.
+				return null;
+			}
+		}
+	}
+}
@@ -1,10 +1,25 @@
 package com.github.dtmo.jfiglet;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import com.github.dtmo.jfiglet.FigFont.FigCharacter;
 
 /**
  * FigFontReader reads {@link FigFont} instances from a {@link Reader}.
@@ -18,11 +33,30 @@ public class FigFontReader {
 
 	// Based on http://www.jave.de/docs/figfont.txt
 
-	private static final Pattern CODE_TAG_PATTERN = Pattern.compile("([^\\s]+)\\s*.*");
-
 	private static final int[] deutschCodePoints = new int[] { 196, 214, 220, 228, 246, 252, 223 };
 
+	/**
+	 * The size in bytes from which font files are read through a memory mapping,
+	 * and decoded straight from the mapping rather than read into a buffer.
+	 */
+	static final long MAPPED_READ_THRESHOLD = 1024 * 1024;
+
+	private static final byte[] ZIP_MAGIC_NUMBER = new byte[] { 'P', 'K', 3, 4 };
+
+	/**
+	 * The most bytes that a zipped font file may decompress to. The sizes
+	 * recorded in a zip file cannot be trusted, so this bounds the memory that a
+	 * corrupt or hostile file can take.
+	 */
+	static final int MAX_UNZIPPED_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * The most bytes that are allocated for zipped font data before it is read.
+	 */
+	private static final int UNZIP_BUFFER_SIZE = 64 * 1024;
+
 	private final Reader reader;
+	private final String fontName;
 
 	/**
 	 * Constructs a new instance of FontReader.
@@ -31,7 +65,22 @@ public class FigFontReader {
 	 *            The {@link Reader} from which to read font data.
 	 */
 	public FigFontReader(final Reader reader) {
+		this(reader, null);
+	}
+
+	/**
+	 * Constructs a new instance of FontReader for a named font.
+	 * 
+	 * @param reader
+	 *            The {@link Reader} from which to read font data.
+	 * @param fontName
+	 *            The name of the resource or file from which the font data is
+	 *            read, which is reported to the {@link FigletListener}, or
+	 *            <code>null</code> if it is not known.
+	 */
+	public FigFontReader(final Reader reader, final String fontName) {
 		this.reader = reader;
+		this.fontName = fontName;
 	}
 
 	/**
@@ -42,76 +91,645 @@ public class FigFontReader {
 	 *             if there is a problem reading the font data.
 	 */
 	public FigFont readFont() throws IOException {
+		return readFont(false);
+	}
+
+	/**
+	 * Reads a {@link FigFont} whose FIGcharacters are decoded lazily. The font
+	 * data is read into memory and indexed, and each FIGcharacter is decoded from
+	 * it the first time that it is looked up, rather than every FIGcharacter being
+	 * decoded up front. This makes large fonts faster to load, and keeps the
+	 * FIGcharacters that are never rendered out of memory, at the cost of holding
+	 * the font data itself.
+	 * <p>
+	 * The font behaves just as one read by {@link #readFont()} does, and may be
+	 * shared between threads in the same way.
+	 * </p>
+	 * 
+	 * @return The {@link FigFont} read from the {@link Reader} data.
+	 * @throws IOException
+	 *             if there is a problem reading the font data.
+	 */
+	public FigFont readFontLazily() throws IOException {
+		return readFont(true);
+	}
+
+	private FigFont readFont(final boolean lazy) throws IOException {
+		return loadFont(() -> {
+			try (final Reader fontReader = reader) {
+				return readText(fontReader);
+			}
+		}, fontName, lazy, null);
+	}
+
+	/**
+	 * Reads a {@link FigFont} from a file.
+	 * 
+	 * @param path
+	 *            The path of the file.
+	 * @param charset
+	 *            The charset of the file, or <code>null</code> to detect whether
+	 *            it is UTF-8 or ISO-8859-1.
+	 * @return The {@link FigFont} read from the file.
+	 * @throws IOException
+	 *             if there is a problem reading the font data.
+	 */
+	static FigFont readFont(final Path path, final Charset charset) throws IOException {
+		return loadFont(() -> readText(path, charset), path.toString(), false, null);
+	}
+
+	/**
+	 * Reads a {@link FigFont} from a file whose FIGcharacters are decoded lazily,
+	 * from the positions of a {@link GlyphIndex} that was made from the same font
+	 * data if one is given, so that the font data need not be indexed again.
+	 * 
+	 * @param path
+	 *            The path of the file.
+	 * @param charset
+	 *            The charset of the file, or <code>null</code> to detect whether
+	 *            it is UTF-8 or ISO-8859-1.
+	 * @param fontName
+	 *            The name of the font, which is reported to the
+	 *            {@link FigletListener}.
+	 * @param glyphIndex
+	 *            The index of the font data, or <code>null</code> to index it.
+	 * @return The {@link FigFont} read from the file.
+	 * @throws IOException
+	 *             if there is a problem reading the font data.
+	 */
+	static FigFont readFontLazily(final Path path, final Charset charset, final String fontName,
+			final GlyphIndex glyphIndex) throws IOException {
+		return loadFont(() -> readText(path, charset), fontName, true, glyphIndex);
+	}
+
+	/**
+	 * Reads a {@link FigFont} from a channel, which is not closed.
+	 * 
+	 * @param channel
+	 *            The channel from which to read.
+	 * @param charset
+	 *            The charset of the font data, or <code>null</code> to detect
+	 *            whether it is UTF-8 or ISO-8859-1.
+	 * @param fontName
+	 *            The name of the font, which is reported to the
+	 *            {@link FigletListener}, or <code>null</code> if it is not known.
+	 * @return The {@link FigFont} read from the channel.
+	 * @throws IOException
+	 *             if there is a problem reading the font data.
+	 */
+	static FigFont readFont(final ReadableByteChannel channel, final Charset charset, final String fontName)
+			throws IOException {
+		return loadFont(() -> readText(channel, charset), fontName, false, null);
+	}
+
+	/**
+	 * TextSource supplies the text of the font data that a {@link FigFont} is
+	 * loaded from.
+	 */
+	@FunctionalInterface
+	private interface TextSource {
+		String read() throws IOException;
+	}
+
+	private static FigFont loadFont(final TextSource textSource, final String fontName, final boolean lazy,
+			final GlyphIndex glyphIndex) throws IOException {
+		final FigletListener listener = FigletListeners.getListener();
+		final long startTime = FigletListeners.isActive(listener) ? System.nanoTime() : 0;
+		final Object event = FigletEvents.beginFontLoad();
+
+		final String text = textSource.read();
+		final FigFont figFont;
+		if (!lazy) {
+			figFont = parseFont(text);
+		} else {
+			figFont = buildLazyFont(text, glyphIndex != null ? glyphIndex : indexGlyphs(text));
+		}
+
+		FigletEvents.commitFontLoad(event, fontName, figFont, text.length());
+		if (FigletListeners.isActive(listener)) {
+			listener.fontLoaded(fontName, figFont, System.nanoTime() - startTime);
+		}
+		return figFont;
+	}
+
+	/**
+	 * Parses a {@link FigFont} from font data in a single pass, decoding every
+	 * FIGcharacter.
+	 */
+	static FigFont parseFont(final String text) throws IOException {
 		final FigFont.Builder fontBuilder = new FigFont.Builder();
+		int position = parseHeaderLine(text, fontBuilder);
+
+		// Skip over the comment lines
+		for (int commentCounter = 0; commentCounter < fontBuilder.getCommentLines(); commentCounter++) {
+			position = findNextLine(text, findLineEnd(text, position));
+		}
 
-		try (final BufferedReader bufferedReader = new BufferedReader(reader)) {
-			String header = bufferedReader.readLine();
+		final int height = fontBuilder.getHeight();
+		final CharacterBuffer characterData = new CharacterBuffer();
+		final GlyphTable figCharacters = new GlyphTable();
 
-			try {
-				parseHeader(header, fontBuilder);
-			} catch (final IllegalArgumentException e) {
-				throw new IOException("Could not read font header", e);
+		// A FIGfont is required to have characters for ASCII 32 to 126 inclusive
+		for (int codePoint = 32; codePoint < 127; codePoint++) {
+			position = readCharacter(text, position, height, codePoint, characterData);
+			figCharacters.put(codePoint, characterData.toFigCharacter(height));
+		}
+
+		// Additional required Deutsch FIGcharacters, in order:
+		//
+		// 196 (umlauted "A" -- two dots over letter "A")
+		// 214 (umlauted "O" -- two dots over letter "O")
+		// 220 (umlauted "U" -- two dots over letter "U")
+		// 228 (umlauted "a" -- two dots over letter "a")
+		// 246 (umlauted "o" -- two dots over letter "o")
+		// 252 (umlauted "u" -- two dots over letter "u")
+		// 223 ("ess-zed" -- see FIGcharacter illustration below)
+
+		for (int codePoint : deutschCodePoints) {
+			position = readCharacter(text, position, height, codePoint, characterData);
+			figCharacters.put(codePoint, characterData.toFigCharacter(height));
+		}
+
+		// Now there just remains to parse any code tags that have been defined.
+		while (position < text.length()) {
+			final int lineEnd = findLineEnd(text, position);
+			final int code = parseCodeTag(text, position, lineEnd);
+			position = readCharacter(text, findNextLine(text, lineEnd), height, code, characterData);
+			figCharacters.put(code, characterData.toFigCharacter(height));
+		}
+
+		return fontBuilder.setFigCharacters(figCharacters).build();
+	}
+
+	/**
+	 * Builds a {@link FigFont} whose FIGcharacters are decoded lazily from font
+	 * data at the positions of a {@link GlyphIndex}.
+	 */
+	private static FigFont buildLazyFont(final String text, final GlyphIndex glyphIndex) throws IOException {
+		final FigFont.Builder fontBuilder = glyphIndex.parseHeader();
+
+		final GlyphTable figCharacters = new GlyphTable(
+				new IndexedGlyphs(text, fontBuilder.getHeight(), glyphIndex.positions));
+		for (int glyph = 0; glyph < glyphIndex.codes.length; glyph++) {
+			figCharacters.putGlyph(glyphIndex.codes[glyph], glyph);
+		}
+
+		return fontBuilder.setFigCharacters(figCharacters).build();
+	}
+
+	/**
+	 * Indexes the positions of the FIGcharacters in font data, checking that all
+	 * of their lines are present.
+	 * 
+	 * @param text
+	 *            The font data.
+	 * @return The index of the font data.
+	 * @throws IOException
+	 *             if the font data is not a valid FIGfont.
+	 */
+	static GlyphIndex indexGlyphs(final String text) throws IOException {
+		final FigFont.Builder fontBuilder = new FigFont.Builder();
+		int position = parseHeaderLine(text, fontBuilder);
+		final String header = text.substring(0, findLineEnd(text, 0));
+
+		// Skip over the comment lines
+		for (int commentCounter = 0; commentCounter < fontBuilder.getCommentLines(); commentCounter++) {
+			position = findNextLine(text, findLineEnd(text, position));
+		}
+
+		final int height = fontBuilder.getHeight();
+		int[] codes = new int[128];
+		int[] positions = new int[128];
+		int count = 0;
+
+		// The required FIGcharacters come first, in order, as they do for readFont().
+		// There is room for all of them before the arrays need to grow.
+		for (int codePoint = 32; codePoint < 127; codePoint++) {
+			codes[count] = codePoint;
+			positions[count] = position;
+			position = readCharacter(text, position, height, codePoint, null);
+			count++;
+		}
+		for (int codePoint : deutschCodePoints) {
+			codes[count] = codePoint;
+			positions[count] = position;
+			position = readCharacter(text, position, height, codePoint, null);
+			count++;
+		}
+
+		while (position < text.length()) {
+			final int lineEnd = findLineEnd(text, position);
+			final int code = parseCodeTag(text, position, lineEnd);
+
+			if (count == codes.length) {
+				codes = Arrays.copyOf(codes, count * 2);
+				positions = Arrays.copyOf(positions, count * 2);
+			}
+			codes[count] = code;
+			positions[count] = findNextLine(text, lineEnd);
+			position = readCharacter(text, positions[count], height, code, null);
+			count++;
+		}
+
+		return new GlyphIndex(header, Arrays.copyOf(codes, count), Arrays.copyOf(positions, count));
+	}
+
+	/**
+	 * Reads the lines of the FIGcharacter that starts at a position of the font
+	 * data, checking that all of them are present, and replaces the contents of a
+	 * {@link CharacterBuffer} with its sub-characters if one is given.
+	 * 
+	 * @return The position of the line after the FIGcharacter.
+	 */
+	private static int readCharacter(final String text, final int position, final int height, final int code,
+			final CharacterBuffer characterData) throws IOException {
+		if (characterData != null) {
+			characterData.clear();
+		}
+
+		int lineStart = position;
+		for (int charLine = 0; charLine < height; charLine++) {
+			if (lineStart >= text.length()) {
+				throw new IOException("Font data ends within the FIGcharacter for code " + code);
+			}
+			final int lineEnd = findLineEnd(text, lineStart);
+			int charIndex = lineEnd - 1;
+			while (charIndex >= lineStart && Character.isWhitespace(text.charAt(charIndex))) {
+				charIndex--;
+			}
+			if (charIndex < lineStart) {
+				throw new IOException("Blank line in the FIGcharacter for code " + code);
+			}
+			if (characterData != null) {
+				characterData.appendLine(text, lineStart, lineEnd);
+			}
+			lineStart = findNextLine(text, lineEnd);
+		}
+		return lineStart;
+	}
+
+	/**
+	 * Reads all of the characters from a {@link Reader}.
+	 * 
+	 * @param reader
+	 *            The reader from which to read.
+	 * @return The characters read.
+	 * @throws IOException
+	 *             if there is a problem reading.
+	 */
+	static String readText(final Reader reader) throws IOException {
+		final StringBuilder stringBuilder = new StringBuilder();
+		final char[] buffer = new char[8192];
+		int read;
+		while ((read = reader.read(buffer)) >= 0) {
+			stringBuilder.append(buffer, 0, read);
+		}
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * Reads all of the font data in a file, which may be zipped. Files of at least
+	 * {@link #MAPPED_READ_THRESHOLD} bytes are decoded straight from a memory
+	 * mapping, so that only the decoded characters, and not a byte array of the
+	 * whole file as well, are held on the heap.
+	 * 
+	 * @param path
+	 *            The path of the file.
+	 * @param charset
+	 *            The charset of the file, or <code>null</code> to detect whether
+	 *            it is UTF-8 or ISO-8859-1.
+	 * @return The characters read.
+	 * @throws IOException
+	 *             if there is a problem reading.
+	 */
+	static String readText(final Path path, final Charset charset) throws IOException {
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final ByteBuffer magicNumber = ByteBuffer.allocate(ZIP_MAGIC_NUMBER.length);
+			while (magicNumber.hasRemaining() && channel.read(magicNumber, magicNumber.position()) >= 0) {
+				// Keep reading until the magic number is read or the file ends.
+			}
+			if (isZipped(magicNumber.array(), magicNumber.position())) {
+				return readZippedText(Channels.newInputStream(channel), charset);
+			}
+
+			final long size = channel.size();
+			if (size > Integer.MAX_VALUE - 8) {
+				throw new IOException("FIGfont file is too large: " + path);
+			}
+
+			if (size >= MAPPED_READ_THRESHOLD) {
+				return decodeText(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), charset);
+			}
+
+			final byte[] data = new byte[(int) size];
+			final ByteBuffer buffer = ByteBuffer.wrap(data);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// Keep reading until the buffer is full or the file ends.
+			}
+			return decodeText(data, buffer.position(), charset);
+		}
+	}
+
+	/**
+	 * Reads all of the font data from a channel, which may be zipped.
+	 * 
+	 * @param channel
+	 *            The channel from which to read.
+	 * @param charset
+	 *            The charset of the font data, or <code>null</code> to detect
+	 *            whether it is UTF-8 or ISO-8859-1.
+	 * @return The characters read.
+	 * @throws IOException
+	 *             if there is a problem reading.
+	 */
+	static String readText(final ReadableByteChannel channel, final Charset charset) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(8192);
+		while (buffer.position() < ZIP_MAGIC_NUMBER.length && channel.read(buffer) >= 0) {
+			// Keep reading until the magic number is read or the channel ends.
+		}
+		if (isZipped(buffer.array(), buffer.position())) {
+			// The zipped data is decompressed as it is read from the channel, which
+			// is shielded so that it is not closed along with the ZipInputStream.
+			final InputStream channelInputStream = new FilterInputStream(Channels.newInputStream(channel)) {
+				@Override
+				public void close() {
+					// Do nothing.
+				}
+			};
+			return readZippedText(new SequenceInputStream(
+					new ByteArrayInputStream(buffer.array(), 0, buffer.position()), channelInputStream), charset);
+		}
+
+		while (channel.read(buffer) >= 0) {
+			if (!buffer.hasRemaining()) {
+				final ByteBuffer largerBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
+				buffer.flip();
+				largerBuffer.put(buffer);
+				buffer = largerBuffer;
 			}
+		}
+		return decodeText(buffer.array(), buffer.position(), charset);
+	}
 
-			// Skip over the comment lines
-			for (int commentCounter = 0; commentCounter < fontBuilder.getCommentLines(); commentCounter++) {
-				bufferedReader.readLine();
+	/**
+	 * Returns whether data starts with the magic number of a zip file, as FIGlet
+	 * 2.2 allows FIGfont files to be zipped.
+	 */
+	private static boolean isZipped(final byte[] data, final int length) {
+		if (length < ZIP_MAGIC_NUMBER.length) {
+			return false;
+		}
+		for (int index = 0; index < ZIP_MAGIC_NUMBER.length; index++) {
+			if (data[index] != ZIP_MAGIC_NUMBER[index]) {
+				return false;
 			}
+		}
+		return true;
+	}
 
-			// A FIGfont is required to have characters for ASCII 32 to 126 inclusive
-			for (int codePoint = 32; codePoint < 127; codePoint++) {
-				final String characterData = readCharacterData(fontBuilder.getHeight(), bufferedReader);
-				fontBuilder.setFigCharacter((char) codePoint, characterData);
+	/**
+	 * Reads the font data from the first entry of a zip file, decompressing it as
+	 * it is read. The stream is closed once read.
+	 */
+	private static String readZippedText(final InputStream inputStream, final Charset charset) throws IOException {
+		try (final ZipInputStream zipInputStream = new ZipInputStream(inputStream)) {
+			final ZipEntry zipEntry = zipInputStream.getNextEntry();
+			if (zipEntry == null) {
+				throw new IOException("Zipped FIGfont has no entries");
 			}
 
-			// Additional required Deutsch FIGcharacters, in order:
-			//
-			// 196 (umlauted "A" -- two dots over letter "A")
-			// 214 (umlauted "O" -- two dots over letter "O")
-			// 220 (umlauted "U" -- two dots over letter "U")
-			// 228 (umlauted "a" -- two dots over letter "a")
-			// 246 (umlauted "o" -- two dots over letter "o")
-			// 252 (umlauted "u" -- two dots over letter "u")
-			// 223 ("ess-zed" -- see FIGcharacter illustration below)
+			// The recorded size only hints at how much to allocate, as it may be wrong.
+			final long size = zipEntry.getSize();
+			byte[] data = new byte[size > 0 ? (int) Math.min(size, UNZIP_BUFFER_SIZE) : UNZIP_BUFFER_SIZE];
+			int length = 0;
+			int read;
+			while ((read = zipInputStream.read(data, length, data.length - length)) >= 0) {
+				length += read;
+				if (length == data.length) {
+					final int next = zipInputStream.read();
+					if (next < 0) {
+						break;
+					}
+					if (length >= MAX_UNZIPPED_SIZE) {
+						throw new IOException("Zipped FIGfont is larger than " + MAX_UNZIPPED_SIZE + " bytes: "
+								+ zipEntry.getName());
+					}
+					data = Arrays.copyOf(data, (int) Math.min((long) data.length * 2, MAX_UNZIPPED_SIZE));
+					data[length++] = (byte) next;
+				}
+			}
+			return decodeText(data, length, charset);
+		}
+	}
+
+	/**
+	 * Decodes font data, skipping any UTF-8 byte order mark.
+	 */
+	private static String decodeText(final byte[] data, final int length, final Charset charset) {
+		final Charset textCharset = charset != null ? charset : detectCharset(ByteBuffer.wrap(data, 0, length));
+		final int offset = StandardCharsets.UTF_8.equals(textCharset) && length >= 3 && data[0] == (byte) 0xEF
+				&& data[1] == (byte) 0xBB && data[2] == (byte) 0xBF ? 3 : 0;
+		return new String(data, offset, length - offset, textCharset);
+	}
+
+	/**
+	 * Decodes font data that is held outside of the heap, such as in a memory
+	 * mapping, skipping any UTF-8 byte order mark. The data is decoded in bulk by
+	 * the charset's decoder, without first being copied into a byte array.
+	 */
+	private static String decodeText(final ByteBuffer data, final Charset charset) {
+		final Charset textCharset = charset != null ? charset : detectCharset(data);
+		final int start = data.position();
+		final int offset = StandardCharsets.UTF_8.equals(textCharset) && data.limit() - start >= 3
+				&& data.get(start) == (byte) 0xEF && data.get(start + 1) == (byte) 0xBB
+				&& data.get(start + 2) == (byte) 0xBF ? 3 : 0;
+
+		final ByteBuffer text = data.duplicate();
+		text.position(start + offset);
+		return textCharset.decode(text).toString();
+	}
+
+	/**
+	 * Returns the charset of font data, which is UTF-8 if the data holds
+	 * characters outside of ASCII that are all well-formed UTF-8, and otherwise
+	 * ISO-8859-1. Data that is entirely ASCII is the same in both, and is decoded
+	 * fastest as ISO-8859-1.
+	 * 
+	 * @param data
+	 *            The font data, from its position to its limit, which are left
+	 *            unchanged.
+	 * @return The charset of the font data.
+	 */
+	static Charset detectCharset(final ByteBuffer data) {
+		final int length = data.limit();
+		int index = data.position();
+		while (index < length && data.get(index) >= 0) {
+			index++;
+		}
+		if (index == length) {
+			return StandardCharsets.ISO_8859_1;
+		}
 
-			for (int codePoint : deutschCodePoints) {
-				final String characterData = readCharacterData(fontBuilder.getHeight(), bufferedReader);
-				fontBuilder.setFigCharacter((char) codePoint, characterData);
+		while (index < length) {
+			final int lead = data.get(index) & 0xFF;
+			final int sequenceLength;
+			final int minimum;
+			if (lead < 0x80) {
+				index++;
+				continue;
+			} else if (lead >= 0xC2 && lead <= 0xDF) {
+				sequenceLength = 2;
+				minimum = 0x80;
+			} else if (lead >= 0xE0 && lead <= 0xEF) {
+				sequenceLength = 3;
+				minimum = 0x800;
+			} else if (lead >= 0xF0 && lead <= 0xF4) {
+				sequenceLength = 4;
+				minimum = 0x10000;
+			} else {
+				return StandardCharsets.ISO_8859_1;
+			}
+			if (index + sequenceLength > length) {
+				return StandardCharsets.ISO_8859_1;
 			}
 
-			// Now there just remains to parse any code tags that have been defined.
-			String line;
-			while ((line = bufferedReader.readLine()) != null) {
-				final String characterData = readCharacterData(fontBuilder.getHeight(), bufferedReader);
-				try {
-					fontBuilder.setFigCharacter((char) parseCodeTag(line), characterData);
-				} catch (final IllegalArgumentException e) {
-					throw new IOException("Could not parse code tag", e);
+			int codePoint = lead & (0x7F >> sequenceLength);
+			for (int continuation = 1; continuation < sequenceLength; continuation++) {
+				final int trail = data.get(index + continuation) & 0xFF;
+				if ((trail & 0xC0) != 0x80) {
+					return StandardCharsets.ISO_8859_1;
 				}
+				codePoint = (codePoint << 6) | (trail & 0x3F);
+			}
+			if (codePoint < minimum || codePoint > Character.MAX_CODE_POINT
+					|| (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+				return StandardCharsets.ISO_8859_1;
+			}
+			index += sequenceLength;
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+	/**
+	 * Returns the index of the end of the line of text that starts at an index,
+	 * which is a line feed, a carriage return or the end of the text, as for
+	 * {@link BufferedReader#readLine()}.
+	 */
+	private static int findLineEnd(final String text, final int start) {
+		for (int index = start; index < text.length(); index++) {
+			final char character = text.charAt(index);
+			if (character == '\n' || character == '\r') {
+				return index;
 			}
 		}
+		return text.length();
+	}
 
-		return fontBuilder.build();
+	/**
+	 * Returns the index of the start of the line that follows a line end.
+	 */
+	private static int findNextLine(final String text, final int lineEnd) {
+		if (lineEnd >= text.length()) {
+			return text.length();
+		}
+		if (text.charAt(lineEnd) == '\r' && lineEnd + 1 < text.length() && text.charAt(lineEnd + 1) == '\n') {
+			return lineEnd + 2;
+		}
+		return lineEnd + 1;
 	}
 
 	/**
-	 * Returns the unicode character represented by a code tag.
+	 * Returns the character code represented by a code tag, which is the Unicode
+	 * code point of the character unless it is negative.
 	 * 
 	 * @param codeTagText
 	 *            The code tag text to parse.
-	 * @return The character represented.
+	 * @return The character code represented.
 	 * @throws IllegalArgumentException
 	 *             if the text cannot be parsed as a code tag.
 	 */
-	public static char parseCodeTag(final String codeTagText) throws IllegalArgumentException {
-		final Matcher codeTagMatcher = CODE_TAG_PATTERN.matcher(codeTagText);
-		if (codeTagMatcher.matches()) {
-			final String codePointText = codeTagMatcher.group(1);
-			final int codePoint = Integer.decode(codePointText);
-			return (char) codePoint;
-		} else {
+	public static int parseCodeTag(final String codeTagText) throws IllegalArgumentException {
+		final int tagEnd = findTokenEnd(codeTagText, 0, codeTagText.length());
+		if (tagEnd == 0) {
 			throw new IllegalArgumentException("Could not parse text as a code tag: " + codeTagText);
 		}
+		return parseNumber(codeTagText, 0, tagEnd);
+	}
+
+	/**
+	 * Parses the code tag on a line of font data.
+	 */
+	private static int parseCodeTag(final String text, final int lineStart, final int lineEnd) throws IOException {
+		final int tagEnd = findTokenEnd(text, lineStart, lineEnd);
+		try {
+			if (tagEnd == lineStart) {
+				throw new IllegalArgumentException(
+						"Could not parse text as a code tag: " + text.substring(lineStart, lineEnd));
+			}
+			final int code = parseNumber(text, lineStart, tagEnd);
+			if (code == Integer.MIN_VALUE) {
+				throw new IllegalArgumentException("Illegal code tag: " + code);
+			}
+			return code;
+		} catch (final IllegalArgumentException e) {
+			throw new IOException("Could not parse code tag", e);
+		}
+	}
+
+	/**
+	 * Parses a number as {@link Integer#decode(String)} does, which is in decimal,
+	 * in hexadecimal if prefixed by <code>0x</code>, <code>0X</code> or
+	 * <code>#</code>, or in octal if prefixed by <code>0</code>, optionally
+	 * preceded by a sign.
+	 * 
+	 * @param text
+	 *            The text that holds the number.
+	 * @param start
+	 *            The index of the first character of the number.
+	 * @param end
+	 *            The index after the last character of the number.
+	 * @return The number parsed.
+	 * @throws NumberFormatException
+	 *             if the text is not a number in the range of an int.
+	 */
+	static int parseNumber(final String text, final int start, final int end) throws NumberFormatException {
+		int index = start;
+		boolean negative = false;
+		if (index < end && (text.charAt(index) == '-' || text.charAt(index) == '+')) {
+			negative = text.charAt(index) == '-';
+			index++;
+		}
+
+		int radix = 10;
+		if (index + 1 < end && text.charAt(index) == '0'
+				&& (text.charAt(index + 1) == 'x' || text.charAt(index + 1) == 'X')) {
+			radix = 16;
+			index += 2;
+		} else if (index < end && text.charAt(index) == '#') {
+			radix = 16;
+			index++;
+		} else if (index + 1 < end && text.charAt(index) == '0') {
+			radix = 8;
+			index++;
+		}
+
+		if (index == end) {
+			throw new NumberFormatException("Could not parse text as a number: " + text.substring(start, end));
+		}
+
+		final long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+		long value = 0;
+		for (; index < end; index++) {
+			final int digit = Character.digit(text.charAt(index), radix);
+			if (digit < 0) {
+				throw new NumberFormatException("Could not parse text as a number: " + text.substring(start, end));
+			}
+			value = value * radix + digit;
+			if (value > limit) {
+				throw new NumberFormatException("Number out of range: " + text.substring(start, end));
+			}
+		}
+		return (int) (negative ? -value : value);
 	}
 
 	/**
@@ -130,27 +748,45 @@ public class FigFontReader {
 
 		for (int charLine = 0; charLine < height; charLine++) {
 			final String line = bufferedReader.readLine();
-			int charIndex = line.length() - 1;
+			appendCharacterLine(line, 0, line.length(), stringBuilder);
+		}
 
-			// Skip over any whitespace characters at the end of the line
-			while (charIndex >= 0 && Character.isWhitespace(line.charAt(charIndex))) {
-				charIndex--;
-			}
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * Appends the sub-characters of a line of FIGcharacter data, without its
+	 * end-characters and any whitespace after them, to a {@link StringBuilder}.
+	 */
+	private static void appendCharacterLine(final String text, final int lineStart, final int lineEnd,
+			final StringBuilder stringBuilder) {
+		stringBuilder.append(text, lineStart, findSubCharactersEnd(text, lineStart, lineEnd));
+	}
 
-			// We've found a non-whitespace character that we will interpret as an
-			// end-character.
-			char endChar = line.charAt(charIndex);
+	/**
+	 * Returns the index of the end of the sub-characters of a line of
+	 * FIGcharacter data, which is where its end-characters and any whitespace
+	 * after them start.
+	 */
+	private static int findSubCharactersEnd(final String text, final int lineStart, final int lineEnd) {
+		int charIndex = lineEnd - 1;
 
-			// Skip over any end-characters.
-			while (charIndex >= 0 && line.charAt(charIndex) == endChar) {
-				charIndex--;
-			}
+		// Skip over any whitespace characters at the end of the line
+		while (charIndex >= lineStart && Character.isWhitespace(text.charAt(charIndex))) {
+			charIndex--;
+		}
 
-			// We've found the right-hand edge of the actual character data for this line.
-			stringBuilder.append(line.substring(0, charIndex + 1));
+		// We've found a non-whitespace character that we will interpret as an
+		// end-character.
+		char endChar = text.charAt(charIndex);
+
+		// Skip over any end-characters.
+		while (charIndex >= lineStart && text.charAt(charIndex) == endChar) {
+			charIndex--;
 		}
 
-		return stringBuilder.toString();
+		// We've found the right-hand edge of the actual character data for this line.
+		return charIndex + 1;
 	}
 
 	/**
@@ -165,47 +801,200 @@ public class FigFontReader {
 	 */
 	public static void parseHeader(final String header, final FigFont.Builder fontBuilder)
 			throws IllegalArgumentException {
-		String[] arguments = header.split("\\s+");
-		if (arguments[0].startsWith(FONT_MAGIC_NUMBER)) {
-			fontBuilder.setHardBlankChar(arguments[0].charAt(arguments[0].length() - 1));
+		parseHeader(header, 0, header.length(), fontBuilder);
+	}
 
-			if (arguments.length > 1) {
-				fontBuilder.setHeight(Integer.decode(arguments[1]).intValue());
-			}
+	/**
+	 * Parses the header line of font data into a {@link FigFont.Builder}.
+	 * 
+	 * @return The position of the line after the header.
+	 */
+	private static int parseHeaderLine(final String text, final FigFont.Builder fontBuilder) throws IOException {
+		final int headerEnd = findLineEnd(text, 0);
+		try {
+			parseHeader(text, 0, headerEnd, fontBuilder);
+		} catch (final IllegalArgumentException e) {
+			throw new IOException("Could not read font header", e);
+		}
+		return findNextLine(text, headerEnd);
+	}
 
-			if (arguments.length > 2) {
-				fontBuilder.setBaseline(Integer.decode(arguments[2]).intValue());
-			}
+	private static void parseHeader(final String text, final int start, final int end,
+			final FigFont.Builder fontBuilder) throws IllegalArgumentException {
+		int argumentEnd = findTokenEnd(text, start, end);
+		if (argumentEnd - start < FONT_MAGIC_NUMBER.length() || !text.startsWith(FONT_MAGIC_NUMBER, start)) {
+			throw new IllegalArgumentException("Header does not start with FIGfont magic number "
+					+ FONT_MAGIC_NUMBER + ": " + text.substring(start, end));
+		}
+		fontBuilder.setHardBlankChar(text.charAt(argumentEnd - 1));
 
-			if (arguments.length > 3) {
-				fontBuilder.setMaxLength(Integer.decode(arguments[3]).intValue());
+		// The remaining arguments are numbers, of which any after the ninth are ignored.
+		for (int argument = 1; argument < 9; argument++) {
+			int argumentStart = argumentEnd;
+			while (argumentStart < end && isSpace(text.charAt(argumentStart))) {
+				argumentStart++;
 			}
-
-			if (arguments.length > 4) {
-				final int oldLayout = Integer.decode(arguments[4]).intValue();
-				fontBuilder.setOldLayout(oldLayout);
-				fontBuilder.setFullLayout(LayoutOptions.fullLayoutFromOldLayout(oldLayout));
+			if (argumentStart == end) {
+				break;
 			}
-
-			if (arguments.length > 5) {
-				fontBuilder.setCommentLines(Integer.decode(arguments[5]).intValue());
+			argumentEnd = findTokenEnd(text, argumentStart, end);
+			final int value = parseNumber(text, argumentStart, argumentEnd);
+
+			switch (argument) {
+			case 1:
+				fontBuilder.setHeight(value);
+				break;
+			case 2:
+				fontBuilder.setBaseline(value);
+				break;
+			case 3:
+				fontBuilder.setMaxLength(value);
+				break;
+			case 4:
+				fontBuilder.setOldLayout(value);
+				fontBuilder.setFullLayout(LayoutOptions.fullLayoutFromOldLayout(value));
+				break;
+			case 5:
+				fontBuilder.setCommentLines(value);
+				break;
+			case 6:
+				fontBuilder.setPrintDirection(FigFont.PrintDirection.ofHeaderValue(value));
+				break;
+			case 7:
+				fontBuilder.setFullLayout(value);
+				break;
+			default:
+				fontBuilder.setCodetagCount(value);
+				break;
 			}
+		}
+	}
 
-			if (arguments.length > 6) {
-				fontBuilder.setPrintDirection(
-						FigFont.PrintDirection.ofHeaderValue(Integer.decode(arguments[6]).intValue()));
+	/**
+	 * Returns the index of the end of the token of text that starts at an index,
+	 * which is the first whitespace character or the end.
+	 */
+	private static int findTokenEnd(final String text, final int start, final int end) {
+		int index = start;
+		while (index < end && !isSpace(text.charAt(index))) {
+			index++;
+		}
+		return index;
+	}
+
+	/**
+	 * Returns whether a character separates the tokens of a header or code tag,
+	 * which are the whitespace characters matched by <code>\s</code> in a regular
+	 * expression.
+	 */
+	private static boolean isSpace(final char character) {
+		return character == ' ' || character == '\t' || character == '\n' || character == '\u000B'
+				|| character == '\f' || character == '\r';
+	}
+
+	/**
+	 * CharacterBuffer collects the sub-characters of the lines of a FIGcharacter,
+	 * so that they can be copied straight from the font data into a
+	 * {@link FigCharacter} without an intermediate {@link String}.
+	 */
+	private static final class CharacterBuffer {
+		private char[] data = new char[256];
+		private int length;
+
+		void clear() {
+			length = 0;
+		}
+
+		/**
+		 * Appends the sub-characters of a line of FIGcharacter data, without its
+		 * end-characters and any whitespace after them.
+		 */
+		void appendLine(final String text, final int lineStart, final int lineEnd) {
+			final int subCharactersEnd = findSubCharactersEnd(text, lineStart, lineEnd);
+			final int newLength = length + (subCharactersEnd - lineStart);
+			if (newLength > data.length) {
+				data = Arrays.copyOf(data, Math.max(newLength, data.length * 2));
 			}
+			text.getChars(lineStart, subCharactersEnd, data, length);
+			length = newLength;
+		}
+
+		FigCharacter toFigCharacter(final int height) {
+			return new FigCharacter(height, data, length);
+		}
+	}
+
+	/**
+	 * GlyphIndex holds the header line of a FIGfont, and the code and position in
+	 * the font data of each of its FIGcharacters, in the order in which they
+	 * appear.
+	 */
+	static final class GlyphIndex {
+		private final String header;
+		private final int[] codes;
+		private final int[] positions;
+
+		GlyphIndex(final String header, final int[] codes, final int[] positions) {
+			this.header = header;
+			this.codes = codes;
+			this.positions = positions;
+		}
+
+		String getHeader() {
+			return header;
+		}
+
+		int[] getCodes() {
+			return codes;
+		}
 
-			if (arguments.length > 7) {
-				fontBuilder.setFullLayout(Integer.decode(arguments[7]).intValue());
+		int[] getPositions() {
+			return positions;
+		}
+
+		/**
+		 * Parses the header line into a new {@link FigFont.Builder}.
+		 * 
+		 * @return A new builder that holds the values of the header.
+		 * @throws IOException
+		 *             if the header cannot be parsed.
+		 */
+		FigFont.Builder parseHeader() throws IOException {
+			final FigFont.Builder fontBuilder = new FigFont.Builder();
+			try {
+				FigFontReader.parseHeader(header, fontBuilder);
+			} catch (final IllegalArgumentException e) {
+				throw new IOException("Could not read font header", e);
 			}
+			return fontBuilder;
+		}
+	}
+
+	/**
+	 * IndexedGlyphs holds the data of a FIGfont and the position at which each of
+	 * its FIGcharacters starts, and decodes FIGcharacters from it on demand.
+	 */
+	private static final class IndexedGlyphs implements GlyphTable.GlyphDecoder {
+		private final String text;
+		private final int height;
+		private final int[] positions;
+
+		IndexedGlyphs(final String text, final int height, final int[] positions) {
+			this.text = text;
+			this.height = height;
+			this.positions = positions;
+		}
 
-			if (arguments.length > 8) {
-				fontBuilder.setCodetagCount(Integer.decode(arguments[8]).intValue());
+		@Override
+		public FigCharacter decode(final int glyph) {
+			final CharacterBuffer characterData = new CharacterBuffer();
+			int lineStart = positions[glyph];
+			for (int charLine = 0; charLine < height; charLine++) {
+				final int lineEnd = findLineEnd(text, lineStart);
+				characterData.appendLine(text, lineStart, lineEnd);
+				lineStart = findNextLine(text, lineEnd);
 			}
-		} else {
-			throw new IllegalArgumentException(
-					"Header does not start with FIGfont magic number " + FONT_MAGIC_NUMBER + ": " + header);
+			return characterData.toFigCharacter(height);
 		}
 	}
 }
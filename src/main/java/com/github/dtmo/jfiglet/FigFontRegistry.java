@@ -0,0 +1,405 @@
+package com.github.dtmo.jfiglet;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * FigFontRegistry is a thread-safe cache of loaded {@link FigFont} instances,
+ * keyed by name.
+ * <p>
+ * A font is loaded only once however many threads request it at the same time:
+ * the first thread to request a font loads it, and the others wait for that load
+ * to complete. If fonts are loaded as resources, which they are unless another
+ * font loader is set, then the bundled fonts listed in {@link FigFontResources}
+ * are never evicted once loaded. All other fonts are evicted in
+ * least-recently-used order once there are more than the maximum number of
+ * them, and may optionally be held by soft references so that they can be
+ * reclaimed when memory is short.
+ * </p>
+ * <p>
+ * FigFont instances are never modified once loaded, so they can be shared
+ * freely between threads.
+ * </p>
+ */
+public class FigFontRegistry {
+	/**
+	 * FontLoader loads a {@link FigFont} by name on behalf of a
+	 * {@link FigFontRegistry}.
+	 */
+	@FunctionalInterface
+	public interface FontLoader {
+		/**
+		 * Loads a {@link FigFont}.
+		 *
+		 * @param name
+		 *            The name of the font to load.
+		 * @return The loaded font.
+		 * @throws IOException
+		 *             if there is a problem loading the font.
+		 */
+		FigFont load(String name) throws IOException;
+	}
+
+	/**
+	 * The default maximum number of fonts, other than the bundled fonts, that a
+	 * registry holds.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 64;
+
+	/**
+	 * The default font loader, which loads fonts as resources.
+	 */
+	private static final FontLoader RESOURCE_LOADER = FigFontResources::loadFigFontResource;
+
+	private final FontLoader fontLoader;
+	private final boolean softReferences;
+
+	/**
+	 * Whether the bundled fonts are held without being evicted, which they are
+	 * only if they are loaded by the default loader: a font that another loader
+	 * returns for the same name need not be the bundled font at all.
+	 */
+	private final boolean pinBundledFonts;
+
+	/**
+	 * The bundled fonts, which are never evicted. These are read without locking.
+	 */
+	private final ConcurrentMap<String, FigFont> bundledFonts = new ConcurrentHashMap<>();
+
+	/**
+	 * All other fonts, in least-recently-used order. Values are either
+	 * {@link FigFont} instances or soft references to them. Guarded by itself.
+	 */
+	private final LinkedHashMap<String, Object> fonts;
+
+	/**
+	 * The loads that are in progress.
+	 */
+	private final ConcurrentMap<String, FutureTask<FigFont>> loads = new ConcurrentHashMap<>();
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder loadSuccessCount = new LongAdder();
+	private final LongAdder loadFailureCount = new LongAdder();
+	private final LongAdder totalLoadTime = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+	private FigFontRegistry(final Builder builder) {
+		this.fontLoader = builder.fontLoader;
+		this.softReferences = builder.softReferences;
+		this.pinBundledFonts = builder.fontLoader == RESOURCE_LOADER;
+
+		final int maximumSize = builder.maximumSize;
+		this.fonts = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, Object> eldest) {
+				if (size() > maximumSize) {
+					evictionCount.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns a font, loading it if it is not already held by this registry.
+	 *
+	 * @param name
+	 *            The name of the font to return.
+	 * @return The font.
+	 * @throws IOException
+	 *             if there is a problem loading the font.
+	 */
+	public FigFont getFigFont(final String name) throws IOException {
+		FigFont font = lookup(name);
+		if (font != null) {
+			hitCount.increment();
+			return font;
+		}
+		missCount.increment();
+
+		final FutureTask<FigFont> load = new FutureTask<>(() -> load(name));
+		FutureTask<FigFont> existingLoad = loads.putIfAbsent(name, load);
+		if (existingLoad == null) {
+			try {
+				// The font may have been stored by a load that completed after the lookup.
+				font = lookup(name);
+				if (font != null) {
+					return font;
+				}
+				load.run();
+			} finally {
+				loads.remove(name, load);
+			}
+			existingLoad = load;
+		}
+
+		try {
+			return existingLoad.get();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException("Could not load font: " + name, cause);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for font to load: " + name, e);
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the statistics of this registry.
+	 *
+	 * @return A snapshot of the statistics of this registry.
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(),
+				totalLoadTime.sum(), evictionCount.sum());
+	}
+
+	private FigFont lookup(final String name) {
+		final FigFont bundledFont = bundledFonts.get(name);
+		if (bundledFont != null) {
+			return bundledFont;
+		}
+
+		synchronized (fonts) {
+			final Object value = fonts.get(name);
+			if (value instanceof SoftReference) {
+				@SuppressWarnings("unchecked")
+				final FigFont font = ((SoftReference<FigFont>) value).get();
+				if (font == null) {
+					// The font has been reclaimed by the garbage collector.
+					fonts.remove(name);
+					evictionCount.increment();
+				}
+				return font;
+			}
+			return (FigFont) value;
+		}
+	}
+
+	private FigFont load(final String name) throws IOException {
+		final long startTime = System.nanoTime();
+		final FigFont font;
+		try {
+			font = fontLoader.load(name);
+			if (font == null) {
+				throw new IOException("Font loader did not load a font: " + name);
+			}
+		} catch (final IOException | RuntimeException e) {
+			loadFailureCount.increment();
+			totalLoadTime.add(System.nanoTime() - startTime);
+			throw e;
+		}
+		loadSuccessCount.increment();
+		totalLoadTime.add(System.nanoTime() - startTime);
+
+		if (pinBundledFonts && FigFontResources.isBundledFont(name)) {
+			bundledFonts.put(name, font);
+		} else {
+			synchronized (fonts) {
+				fonts.put(name, softReferences ? new SoftReference<>(font) : font);
+			}
+		}
+
+		return font;
+	}
+
+	/**
+	 * Statistics is a snapshot of the statistics of a {@link FigFontRegistry}.
+	 */
+	public static class Statistics {
+		private final long hitCount;
+		private final long missCount;
+		private final long loadSuccessCount;
+		private final long loadFailureCount;
+		private final long totalLoadTime;
+		private final long evictionCount;
+
+		private Statistics(final long hitCount, final long missCount, final long loadSuccessCount,
+				final long loadFailureCount, final long totalLoadTime, final long evictionCount) {
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.loadSuccessCount = loadSuccessCount;
+			this.loadFailureCount = loadFailureCount;
+			this.totalLoadTime = totalLoadTime;
+			this.evictionCount = evictionCount;
+		}
+
+		/**
+		 * Returns the number of times that a requested font was already held.
+		 *
+		 * @return The number of times that a requested font was already held.
+		 */
+		public long getHitCount() {
+			return hitCount;
+		}
+
+		/**
+		 * Returns the number of times that a requested font was not already held,
+		 * including requests that waited for another thread to load the font.
+		 *
+		 * @return The number of times that a requested font was not already held.
+		 */
+		public long getMissCount() {
+			return missCount;
+		}
+
+		/**
+		 * Returns the ratio of hits to requests, or 1.0 if there have been no
+		 * requests.
+		 *
+		 * @return The ratio of hits to requests.
+		 */
+		public double getHitRate() {
+			final long requestCount = hitCount + missCount;
+			return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+		}
+
+		/**
+		 * Returns the number of fonts that have been loaded successfully.
+		 *
+		 * @return The number of fonts that have been loaded successfully.
+		 */
+		public long getLoadSuccessCount() {
+			return loadSuccessCount;
+		}
+
+		/**
+		 * Returns the number of font loads that have failed.
+		 *
+		 * @return The number of font loads that have failed.
+		 */
+		public long getLoadFailureCount() {
+			return loadFailureCount;
+		}
+
+		/**
+		 * Returns the total time spent loading fonts, in nanoseconds.
+		 *
+		 * @return The total time spent loading fonts, in nanoseconds.
+		 */
+		public long getTotalLoadTime() {
+			return totalLoadTime;
+		}
+
+		/**
+		 * Returns the average time spent loading a font, in nanoseconds, or 0 if no
+		 * fonts have been loaded.
+		 *
+		 * @return The average time spent loading a font, in nanoseconds.
+		 */
+		public double getAverageLoadTime() {
+			final long loadCount = loadSuccessCount + loadFailureCount;
+			return loadCount == 0 ? 0.0 : (double) totalLoadTime / loadCount;
+		}
+
+		/**
+		 * Returns the number of fonts that have been evicted, either to keep within
+		 * the maximum size or because they were reclaimed by the garbage collector.
+		 *
+		 * @return The number of fonts that have been evicted.
+		 */
+		public long getEvictionCount() {
+			return evictionCount;
+		}
+
+		@Override
+		public String toString() {
+			return "Statistics [hitCount=" + hitCount + ", missCount=" + missCount + ", loadSuccessCount="
+					+ loadSuccessCount + ", loadFailureCount=" + loadFailureCount + ", totalLoadTime="
+					+ totalLoadTime + ", evictionCount=" + evictionCount + "]";
+		}
+	}
+
+	/**
+	 * Builder builds {@link FigFontRegistry} instances.
+	 */
+	public static class Builder {
+		private FontLoader fontLoader = RESOURCE_LOADER;
+		private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+		private boolean softReferences;
+
+		public FontLoader getFontLoader() {
+			return fontLoader;
+		}
+
+		/**
+		 * Sets the loader with which fonts are loaded. If not set then fonts are
+		 * loaded as resources with
+		 * {@link FigFontResources#loadFigFontResource(String)}, and the bundled
+		 * fonts are never evicted. Fonts loaded by any other loader are all
+		 * evicted alike, whatever their names.
+		 *
+		 * @param fontLoader
+		 *            The font loader to set.
+		 * @return This builder.
+		 */
+		public Builder setFontLoader(final FontLoader fontLoader) {
+			if (fontLoader == null) {
+				throw new IllegalArgumentException("Font loader must not be null");
+			}
+			this.fontLoader = fontLoader;
+			return this;
+		}
+
+		public int getMaximumSize() {
+			return maximumSize;
+		}
+
+		/**
+		 * Sets the maximum number of fonts, other than bundled fonts loaded as
+		 * resources, that the registry holds. If not set then
+		 * {@value FigFontRegistry#DEFAULT_MAXIMUM_SIZE} is used.
+		 *
+		 * @param maximumSize
+		 *            The maximum number of fonts to set.
+		 * @return This builder.
+		 */
+		public Builder setMaximumSize(final int maximumSize) {
+			if (maximumSize < 0) {
+				throw new IllegalArgumentException("Maximum size must not be negative: " + maximumSize);
+			}
+			this.maximumSize = maximumSize;
+			return this;
+		}
+
+		public boolean isSoftReferences() {
+			return softReferences;
+		}
+
+		/**
+		 * Sets whether fonts, other than bundled fonts loaded as resources, are held
+		 * by soft references so that the garbage collector may reclaim them when
+		 * memory is short.
+		 *
+		 * @param softReferences
+		 *            Whether to hold fonts by soft references.
+		 * @return This builder.
+		 */
+		public Builder setSoftReferences(final boolean softReferences) {
+			this.softReferences = softReferences;
+			return this;
+		}
+
+		public FigFontRegistry build() {
+			return new FigFontRegistry(this);
+		}
+	}
+}
@@ -1,7 +1,16 @@
 package com.github.dtmo.jfiglet;
 
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * FigFontResources contains constants used to identify bundles FIGfont
@@ -299,12 +308,39 @@ Terminal
 	 */
 	public static final String TERM_FLF = "term.flf";
 
+	/**
+	 * The extension of FigFonts that have been compiled by {@link FigFontCompiler}.
+	 */
+	public static final String COMPILED_EXTENSION = ".flfc";
+
+	private static final String FLF_EXTENSION = ".flf";
+
+	private static final Set<String> BUNDLED_FONTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			BANNER_FLF, BIG_FLF, BLOCK_FLF, BUBBLE_FLF, DIGITAL_FLF, IVRIT_FLF, LEAN_FLF, MINI_FLF, MNEMONIC_FLF,
+			SCRIPT_FLF, SHADOW_FLF, SLANT_FLF, SMALL_FLF, SMSCRIPT_FLF, SMSHADOW_FLF, SMSLANT_FLF, STANDARD_FLF,
+			TERM_FLF)));
+
+	/**
+	 * The registry that holds fonts returned by {@link #getFigFont(String)}.
+	 */
+	private static final FigFontRegistry REGISTRY = new FigFontRegistry.Builder().build();
+
 	private FigFontResources() {
 		// Do nothing.
 	}
 
 	/**
-	 * Loads a {@link FigFont} from a resource name.
+	 * Loads a {@link FigFont} from a resource name. Every call loads a new
+	 * instance; use {@link #getFigFont(String)} to share loaded fonts.
+	 * <p>
+	 * If a compiled copy of a <code>.flf</code> resource is present alongside it,
+	 * with the {@value #COMPILED_EXTENSION} extension, then the compiled copy is
+	 * read instead, which is much faster than parsing the FIGfont. The compiled
+	 * copy is only read if it was compiled by the current version of
+	 * {@link FigFontCompiler} from FIGfont data of the same length as the
+	 * resource, which is known without reading the resource; otherwise the
+	 * FIGfont is parsed.
+	 * </p>
 	 * 
 	 * @param resourceName
 	 *            The name of the resource from which to load a {@link FigFont}.
@@ -314,9 +350,160 @@ Terminal
 	 *             resource.
 	 */
 	public static FigFont loadFigFontResource(final String resourceName) throws IOException {
-		try (final InputStream inputStream = FigFontResources.class.getClassLoader()
-				.getResourceAsStream(resourceName)) {
-			return FigFont.loadFigFont(inputStream);
+		return loadFigFontResource(resourceName, FigFontResources.class.getClassLoader());
+	}
+
+	/**
+	 * Loads a {@link FigFont} from a resource name with a class loader, as for
+	 * {@link #loadFigFontResource(String)}.
+	 */
+	static FigFont loadFigFontResource(final String resourceName, final ClassLoader classLoader)
+			throws IOException {
+		final FigletListener listener = FigletListeners.getListener();
+		final long startTime = FigletListeners.isActive(listener) ? System.nanoTime() : 0;
+		final Object event = FigletEvents.beginFontLoad();
+
+		FigFont figFont = null;
+		long size = 0;
+		final String compiledResourceName = getCompiledName(resourceName);
+		if (compiledResourceName != null) {
+			try (final InputStream inputStream = classLoader.getResourceAsStream(compiledResourceName)) {
+				if (inputStream != null) {
+					final CountingInputStream countingInputStream = new CountingInputStream(inputStream);
+					figFont = FigFont.readCompiled(countingInputStream, getResourceLength(classLoader, resourceName));
+					size = countingInputStream.count;
+				}
+			}
+		}
+
+		if (figFont == null) {
+			// There is no compiled copy that is current, so the FIGfont is parsed.
+			try (final InputStream inputStream = classLoader.getResourceAsStream(resourceName)) {
+				if (inputStream == null) {
+					throw new FileNotFoundException("FIGfont resource not found: " + resourceName);
+				}
+				final String text = FigFontReader.readText(Channels.newChannel(inputStream), null);
+				figFont = FigFontReader.parseFont(text);
+				size = text.length();
+			}
+		}
+
+		FigletEvents.commitFontLoad(event, resourceName, figFont, size);
+		if (FigletListeners.isActive(listener)) {
+			listener.fontLoaded(resourceName, figFont, System.nanoTime() - startTime);
+		}
+		return figFont;
+	}
+
+	/**
+	 * Returns the length of a resource without reading it, which for a resource
+	 * in a jar is the size recorded in the jar's directory.
+	 * 
+	 * @return The length of the resource, or -1 if there is no such resource or
+	 *         its length is not known.
+	 */
+	private static long getResourceLength(final ClassLoader classLoader, final String resourceName)
+			throws IOException {
+		final URL url = classLoader.getResource(resourceName);
+		if (url == null) {
+			return -1;
+		}
+		final URLConnection connection = url.openConnection();
+		final long length = connection.getContentLengthLong();
+		// Connecting opens the resource without reading it, so it is closed again.
+		connection.getInputStream().close();
+		return length;
+	}
+
+	/**
+	 * Returns a {@link FigFont} from a resource name, loading it only if it has not
+	 * already been loaded. Fonts are held by a shared {@link FigFontRegistry}, so
+	 * this method is safe to call from any thread, and concurrent requests for a
+	 * font that has not yet been loaded load it only once.
+	 * 
+	 * @param resourceName
+	 *            The name of the resource from which to load a {@link FigFont}.
+	 * @return The {@link FigFont} loaded from the requested resource.
+	 * @throws IOException
+	 *             if there is problem loading a {@link FigFont} from the specified
+	 *             resource.
+	 */
+	public static FigFont getFigFont(final String resourceName) throws IOException {
+		return REGISTRY.getFigFont(resourceName);
+	}
+
+	/**
+	 * Returns the statistics of the registry that holds fonts returned by
+	 * {@link #getFigFont(String)}.
+	 * 
+	 * @return The statistics of the shared font registry.
+	 */
+	public static FigFontRegistry.Statistics getRegistryStatistics() {
+		return REGISTRY.getStatistics();
+	}
+
+	/**
+	 * Returns the name of the compiled copy of a FIGfont.
+	 * 
+	 * @param name
+	 *            The name of a FIGfont file or resource.
+	 * @return The name with its <code>.flf</code> extension replaced by
+	 *         {@value #COMPILED_EXTENSION}, or <code>null</code> if the name does
+	 *         not have a <code>.flf</code> extension.
+	 */
+	static String getCompiledName(final String name) {
+		if (name.endsWith(FLF_EXTENSION)) {
+			return name.substring(0, name.length() - FLF_EXTENSION.length()) + COMPILED_EXTENSION;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns whether a resource name is one of the FIGfonts bundled with JFiglet.
+	 * 
+	 * @param resourceName
+	 *            The resource name to check.
+	 * @return <code>true</code> if the resource name is one of the bundled
+	 *         FIGfonts.
+	 */
+	static boolean isBundledFont(final String resourceName) {
+		return BUNDLED_FONTS.contains(resourceName);
+	}
+
+	/**
+	 * CountingInputStream counts the bytes read from an {@link InputStream},
+	 * which are recorded as the size of a compiled font.
+	 */
+	private static final class CountingInputStream extends FilterInputStream {
+		private long count;
+
+		CountingInputStream(final InputStream inputStream) {
+			super(inputStream);
+		}
+
+		@Override
+		public int read() throws IOException {
+			final int b = super.read();
+			if (b >= 0) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+			final int read = super.read(buffer, offset, length);
+			if (read > 0) {
+				count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(final long n) throws IOException {
+			final long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
 		}
 	}
 }
@@ -0,0 +1,702 @@
+package com.github.dtmo.jfiglet;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * FigletControlFile translates the characters of text before they are
+ * rendered, as a FIGlet control file (<code>.flc</code>) does. A renderer
+ * applies it with
+ * {@link FigletRenderer.Builder#setControlFile(FigletControlFile)}.
+ * <p>
+ * Control files are made up of commands, one to a line:
+ * </p>
+ * <ul>
+ * <li><code>t</code> translates a character, or a range of characters such as
+ * <code>t a-z A-Z</code>, to another. Characters may be written literally or
+ * as escapes: <code>\a</code>, <code>\b</code>, <code>\e</code>,
+ * <code>\f</code>, <code>\n</code>, <code>\r</code>, <code>\t</code>,
+ * <code>\v</code>, or a backslash followed by a decimal, octal (leading
+ * <code>0</code>) or hexadecimal (leading <code>0x</code> or <code>x</code>)
+ * number that may be negative, such as <code>\0x41</code>. Any other character
+ * after a backslash, such as <code>\\</code> or <code>\-</code>, stands for
+ * itself.</li>
+ * <li>A line that starts with a number translates one character code to
+ * another, such as <code>0xA4 0x20AC</code>.</li>
+ * <li><code>f</code> freezes the translations so far, so that the translations
+ * that follow apply to the characters as already translated. Within each
+ * frozen stage, the first translation that matches a character applies.</li>
+ * <li><code>g</code> designates a character set into G0 to G3, such as
+ * <code>g 1 96 M</code>, or invokes one into the left (<code>g L 0</code>) or
+ * right (<code>g R 1</code>) half of the 8-bit characters, as ISO 2022 does.
+ * Characters in a set other than ASCII or the right half of ISO-8859-1 are
+ * coded as the final character of the set shifted left by 16 bits, plus
+ * <code>0x80</code> for sets of 96 characters, plus the character with its top
+ * bit cleared, which is how FIGlet codes them for <code>t</code> commands to
+ * translate.</li>
+ * <li><code>u</code>, <code>b</code>, <code>h</code> and <code>j</code>, which
+ * select UTF-8, DBCS, HZ and Shift-JIS input, turn ISO 2022 decoding off.</li>
+ * <li>Anything else, such as a <code>#</code> comment or the
+ * <code>flc2a</code> signature, is ignored.</li>
+ * </ul>
+ * <p>
+ * Java text has been decoded into Unicode already, so unlike FIGlet this does
+ * not decode bytes: characters up to <code>0xFF</code> are decoded through
+ * the character sets invoked by the control file, but escape sequences and
+ * shifts within the text are not interpreted, and double-byte character sets
+ * are left undecoded. Text in a multi-byte encoding such as Shift-JIS should be
+ * decoded with its {@link java.nio.charset.Charset} instead.
+ * </p>
+ * <p>
+ * The commands are compiled into a table that is indexed by the characters of
+ * the Basic Multilingual Plane, and a sorted table of the few code points
+ * above it that are translated, so that translating a character costs a
+ * single lookup however many commands there are. FigletControlFile instances
+ * are immutable, and so may be shared between threads.
+ * </p>
+ */
+public final class FigletControlFile {
+	/**
+	 * The extension of FIGlet control files.
+	 */
+	public static final String CONTROL_FILE_EXTENSION = ".flc";
+
+	/**
+	 * The number of code points of the Basic Multilingual Plane.
+	 */
+	private static final int BMP_SIZE = Character.MAX_VALUE + 1;
+
+	/**
+	 * The most code points outside of the Basic Multilingual Plane that may be
+	 * translated, which bounds the size of the sparse table.
+	 */
+	static final int MAX_SPARSE_SIZE = 1 << 20;
+
+	/**
+	 * The translation of each code point of the Basic Multilingual Plane.
+	 */
+	private final int[] bmpTable;
+
+	/**
+	 * The translated code points outside of the Basic Multilingual Plane, in
+	 * ascending order, and their translations.
+	 */
+	private final int[] sparseCodes;
+	private final int[] sparseTargets;
+
+	private FigletControlFile(final Builder builder) {
+		final List<int[]> stageTables = new ArrayList<>(builder.stages.size());
+		for (final List<Translation> stage : builder.stages) {
+			stageTables.add(stage.isEmpty() ? null : compileStage(stage));
+		}
+
+		bmpTable = new int[BMP_SIZE];
+		for (int code = 0; code < BMP_SIZE; code++) {
+			bmpTable[code] = builder.decode(code);
+		}
+		for (int stageIndex = 0; stageIndex < builder.stages.size(); stageIndex++) {
+			final int[] stageTable = stageTables.get(stageIndex);
+			if (stageTable != null) {
+				final List<Translation> stage = builder.stages.get(stageIndex);
+				for (int code = 0; code < BMP_SIZE; code++) {
+					bmpTable[code] = translate(stage, stageTable, bmpTable[code]);
+				}
+			}
+		}
+
+		// Only code points that some stage translates can be translated outside of
+		// the Basic Multilingual Plane, since decoding leaves them alone.
+		final long[] spans = findSparseSpans(builder.stages);
+		int[] codes = new int[16];
+		int[] targets = new int[16];
+		int count = 0;
+		for (int spanIndex = 0; spanIndex < spans.length; spanIndex += 2) {
+			for (long code = spans[spanIndex]; code <= spans[spanIndex + 1]; code++) {
+				int target = (int) code;
+				for (int stageIndex = 0; stageIndex < builder.stages.size(); stageIndex++) {
+					final int[] stageTable = stageTables.get(stageIndex);
+					if (stageTable != null) {
+						target = translate(builder.stages.get(stageIndex), stageTable, target);
+					}
+				}
+				if (target != code) {
+					if (count == codes.length) {
+						codes = Arrays.copyOf(codes, count * 2);
+						targets = Arrays.copyOf(targets, count * 2);
+					}
+					codes[count] = (int) code;
+					targets[count] = target;
+					count++;
+				}
+			}
+		}
+		sparseCodes = Arrays.copyOf(codes, count);
+		sparseTargets = Arrays.copyOf(targets, count);
+	}
+
+	/**
+	 * Translates a code point of text.
+	 *
+	 * @param codePoint
+	 *            The code point to translate.
+	 * @return The character code to render in its place, which is the code point
+	 *         itself if the control file does not translate it.
+	 */
+	public int translate(final int codePoint) {
+		if (codePoint >= 0 && codePoint < BMP_SIZE) {
+			return bmpTable[codePoint];
+		}
+		final int index = Arrays.binarySearch(sparseCodes, codePoint);
+		return index >= 0 ? sparseTargets[index] : codePoint;
+	}
+
+	/**
+	 * Loads a control file from a file, which may be zipped. The file is read as
+	 * UTF-8 if it holds characters outside of ASCII that are all well-formed
+	 * UTF-8, and otherwise as ISO-8859-1.
+	 *
+	 * @param path
+	 *            The path of the control file to load.
+	 * @return The loaded control file.
+	 * @throws IOException
+	 *             if there is a problem reading the file or it holds an invalid
+	 *             command.
+	 */
+	public static FigletControlFile load(final Path path) throws IOException {
+		return parse(FigFontReader.readText(path, null));
+	}
+
+	/**
+	 * Loads a control file from a channel, detecting its charset and whether it
+	 * is zipped as for {@link #load(Path)}. The channel is not closed.
+	 *
+	 * @param channel
+	 *            The channel from which to load the control file.
+	 * @return The loaded control file.
+	 * @throws IOException
+	 *             if there is a problem reading the channel or it holds an
+	 *             invalid command.
+	 */
+	public static FigletControlFile load(final ReadableByteChannel channel) throws IOException {
+		return parse(FigFontReader.readText(channel, null));
+	}
+
+	/**
+	 * Reads a control file from a reader. The reader is not closed.
+	 *
+	 * @param reader
+	 *            The reader from which to read the control file.
+	 * @return The control file read.
+	 * @throws IOException
+	 *             if there is a problem reading or the control file holds an
+	 *             invalid command.
+	 */
+	public static FigletControlFile read(final Reader reader) throws IOException {
+		return parse(FigFontReader.readText(reader));
+	}
+
+	/**
+	 * Parses the commands of a control file.
+	 *
+	 * @param text
+	 *            The text of the control file.
+	 * @return The control file.
+	 * @throws IOException
+	 *             if the control file holds an invalid command.
+	 */
+	static FigletControlFile parse(final String text) throws IOException {
+		return new ControlFileParser(text).parse().build();
+	}
+
+	/**
+	 * Builds the table of translations of the Basic Multilingual Plane of a single
+	 * stage. The translations are applied in reverse, so that the first
+	 * translation that matches a character is the one that remains.
+	 */
+	private static int[] compileStage(final List<Translation> stage) {
+		final int[] stageTable = new int[BMP_SIZE];
+		for (int code = 0; code < BMP_SIZE; code++) {
+			stageTable[code] = code;
+		}
+		for (int index = stage.size() - 1; index >= 0; index--) {
+			final Translation translation = stage.get(index);
+			final int last = Math.min(translation.last, BMP_SIZE - 1);
+			for (int code = Math.max(translation.first, 0); code <= last; code++) {
+				stageTable[code] = code + translation.offset;
+			}
+		}
+		return stageTable;
+	}
+
+	/**
+	 * Translates a character code by a single stage.
+	 */
+	private static int translate(final List<Translation> stage, final int[] stageTable, final int code) {
+		if (code >= 0 && code < BMP_SIZE) {
+			return stageTable[code];
+		}
+		for (final Translation translation : stage) {
+			if (code >= translation.first && code <= translation.last) {
+				return code + translation.offset;
+			}
+		}
+		return code;
+	}
+
+	/**
+	 * Finds the code points outside of the Basic Multilingual Plane that any
+	 * stage translates, as ascending and disjoint pairs of first and last code
+	 * points.
+	 */
+	private static long[] findSparseSpans(final List<List<Translation>> stages) {
+		final List<long[]> spans = new ArrayList<>();
+		for (final List<Translation> stage : stages) {
+			for (final Translation translation : stage) {
+				if (translation.first < 0) {
+					spans.add(new long[] { translation.first, Math.min(translation.last, -1) });
+				}
+				if (translation.last >= BMP_SIZE) {
+					spans.add(new long[] { Math.max(translation.first, BMP_SIZE), translation.last });
+				}
+			}
+		}
+		spans.sort((span1, span2) -> Long.compare(span1[0], span2[0]));
+
+		final long[] merged = new long[spans.size() * 2];
+		int count = 0;
+		for (final long[] span : spans) {
+			if (count > 0 && span[0] <= merged[count - 1] + 1) {
+				merged[count - 1] = Math.max(merged[count - 1], span[1]);
+			} else {
+				merged[count++] = span[0];
+				merged[count++] = span[1];
+			}
+		}
+		return Arrays.copyOf(merged, count);
+	}
+
+	/**
+	 * Translation translates a range of character codes by an offset. The offset
+	 * may overflow an <code>int</code>, but adding it to a code of the range
+	 * wraps around to the code that it translates to.
+	 */
+	private static final class Translation {
+		private final int first;
+		private final int last;
+		private final int offset;
+
+		Translation(final int first, final int last, final int offset) {
+			this.first = first;
+			this.last = last;
+			this.offset = offset;
+		}
+	}
+
+	/**
+	 * ControlFileParser parses the commands of a control file into a
+	 * {@link Builder}, in the way that FIGlet 2.2 reads them.
+	 */
+	private static final class ControlFileParser {
+		private final String text;
+		private final Builder builder = new Builder();
+		private int position;
+
+		ControlFileParser(final String text) {
+			this.text = text;
+		}
+
+		Builder parse() throws IOException {
+			while (position < text.length()) {
+				final char command = text.charAt(position++);
+				switch (command) {
+				case 't':
+					parseTranslation();
+					break;
+				case '-':
+				case '0':
+				case '1':
+				case '2':
+				case '3':
+				case '4':
+				case '5':
+				case '6':
+				case '7':
+				case '8':
+				case '9':
+					position--;
+					parseCodeTranslation();
+					break;
+				case 'f':
+					builder.freeze();
+					break;
+				case 'u':
+				case 'b':
+				case 'h':
+				case 'j':
+					builder.setIso2022Decoding(false);
+					break;
+				case 'g':
+					parseCharsetCommand();
+					break;
+				case '\n':
+				case '\r':
+					continue;
+				default:
+					// Comments, and commands that FIGlet does not know, are ignored.
+					break;
+				}
+				skipToEndOfLine();
+			}
+			return builder;
+		}
+
+		private void parseTranslation() throws IOException {
+			skipSpaces();
+			final int first = readCharacter();
+			final int last;
+			if (position < text.length() && text.charAt(position) == '-') {
+				position++;
+				last = readCharacter();
+			} else {
+				last = first;
+			}
+			skipSpaces();
+			addTranslation(first, last, readCharacter());
+		}
+
+		private void parseCodeTranslation() throws IOException {
+			final int code = readNumber();
+			skipSpaces();
+			addTranslation(code, code, readNumber());
+		}
+
+		private void addTranslation(final int first, final int last, final int target) throws IOException {
+			try {
+				builder.addTranslation(first, last, target);
+			} catch (final IllegalArgumentException e) {
+				throw new IOException(e.getMessage() + " on line " + getLineNumber() + " of control file", e);
+			}
+		}
+
+		private void parseCharsetCommand() throws IOException {
+			skipSpaces();
+			final char command = readRawCharacter();
+			if (command >= '0' && command <= '3') {
+				skipSpaces();
+				final int sizeStart = position;
+				while (position < text.length() && !isSpace(text.charAt(position)) && !isLineEnd(text.charAt(position))) {
+					position++;
+				}
+				final String size = text.substring(sizeStart, position);
+				if (!size.equals("94") && !size.equals("96") && !size.equals("94x94")) {
+					throw new IOException(
+							"Invalid character set size " + size + " on line " + getLineNumber() + " of control file");
+				}
+				skipSpaces();
+				builder.designate(command - '0', size.startsWith("96"), size.length() > 2, readRawCharacter());
+			} else if (command == 'L' || command == 'R') {
+				skipSpaces();
+				final char set = readRawCharacter();
+				if (set < '0' || set > '3') {
+					throw new IOException(
+							"Invalid character set " + set + " on line " + getLineNumber() + " of control file");
+				}
+				if (command == 'L') {
+					builder.invokeLeft(set - '0');
+				} else {
+					builder.invokeRight(set - '0');
+				}
+			} else {
+				throw new IOException(
+						"Invalid g command " + command + " on line " + getLineNumber() + " of control file");
+			}
+		}
+
+		/**
+		 * Reads a character of a <code>t</code> command, which may be escaped.
+		 */
+		private int readCharacter() throws IOException {
+			final char character = readRawCharacter();
+			if (character != '\\') {
+				position--;
+				final int codePoint = text.codePointAt(position);
+				position += Character.charCount(codePoint);
+				return codePoint;
+			}
+
+			final char escape = readRawCharacter();
+			switch (escape) {
+			case 'a':
+				return 7;
+			case 'b':
+				return 8;
+			case 'e':
+				return 27;
+			case 'f':
+				return 12;
+			case 'n':
+				return 10;
+			case 'r':
+				return 13;
+			case 't':
+				return 9;
+			case 'v':
+				return 11;
+			default:
+				position--;
+				if (isNumberStart(escape) || (escape == '-' && position + 1 < text.length()
+						&& isNumberStart(text.charAt(position + 1)))) {
+					return readNumber();
+				}
+				final int codePoint = text.codePointAt(position);
+				position += Character.charCount(codePoint);
+				return codePoint;
+			}
+		}
+
+		/**
+		 * Reads a character of a command as it is, which must not end the line.
+		 */
+		private char readRawCharacter() throws IOException {
+			if (position >= text.length() || isLineEnd(text.charAt(position))) {
+				throw new IOException("Missing character on line " + getLineNumber() + " of control file");
+			}
+			return text.charAt(position++);
+		}
+
+		/**
+		 * Reads a decimal, octal or hexadecimal number, which may be negative.
+		 */
+		private int readNumber() throws IOException {
+			skipSpaces();
+			final boolean negative = position < text.length() && text.charAt(position) == '-';
+			if (negative) {
+				position++;
+			}
+
+			int radix = 10;
+			if (position + 1 < text.length() && text.charAt(position) == '0'
+					&& (text.charAt(position + 1) == 'x' || text.charAt(position + 1) == 'X')) {
+				radix = 16;
+				position += 2;
+			} else if (position < text.length() && (text.charAt(position) == 'x' || text.charAt(position) == 'X')) {
+				radix = 16;
+				position++;
+			} else if (position < text.length() && text.charAt(position) == '0') {
+				radix = 8;
+			}
+
+			final int digitsStart = position;
+			long value = 0;
+			int digit;
+			while (position < text.length() && (digit = Character.digit(text.charAt(position), radix)) >= 0
+					&& text.charAt(position) < 128) {
+				value = value * radix + digit;
+				if (value > -(long) Integer.MIN_VALUE) {
+					throw new IOException("Number out of range on line " + getLineNumber() + " of control file");
+				}
+				position++;
+			}
+			if (position == digitsStart) {
+				throw new IOException("Missing number on line " + getLineNumber() + " of control file");
+			}
+
+			value = negative ? -value : value;
+			if (value > Integer.MAX_VALUE) {
+				throw new IOException("Number out of range on line " + getLineNumber() + " of control file");
+			}
+			return (int) value;
+		}
+
+		private static boolean isNumberStart(final char character) {
+			return character == 'x' || character == 'X' || (character >= '0' && character <= '9');
+		}
+
+		private void skipSpaces() {
+			while (position < text.length() && isSpace(text.charAt(position))) {
+				position++;
+			}
+		}
+
+		private void skipToEndOfLine() {
+			while (position < text.length() && !isLineEnd(text.charAt(position))) {
+				position++;
+			}
+		}
+
+		private int getLineNumber() {
+			int lineNumber = 1;
+			for (int index = 0; index < position && index < text.length(); index++) {
+				if (text.charAt(index) == '\n') {
+					lineNumber++;
+				}
+			}
+			return lineNumber;
+		}
+
+		private static boolean isSpace(final char character) {
+			return character == ' ' || character == '\t';
+		}
+
+		private static boolean isLineEnd(final char character) {
+			return character == '\n' || character == '\r';
+		}
+	}
+
+	/**
+	 * Builder builds {@link FigletControlFile} instances from translations, as
+	 * an alternative to chains of {@link String#replace(CharSequence, CharSequence)}
+	 * calls on the text to be rendered.
+	 */
+	public static class Builder {
+		private final List<List<Translation>> stages = new ArrayList<>();
+		private long sparseSize;
+
+		/**
+		 * The code of each of the character sets G0 to G3 from which characters
+		 * are coded, initially ASCII and the right half of ISO-8859-1.
+		 */
+		private final int[] charsetBases = { 0, 0x80, 0, 0 };
+		private final boolean[] doubleByteCharsets = new boolean[4];
+		private int leftCharset = 0;
+		private int rightCharset = 1;
+		private boolean iso2022Decoding = true;
+
+		/**
+		 * Constructs a new instance of Builder, which does not translate any
+		 * characters.
+		 */
+		public Builder() {
+			stages.add(new ArrayList<>());
+		}
+
+		/**
+		 * Adds a translation of a character code to another, as the control file
+		 * command <code>t</code> or a pair of numbers does.
+		 *
+		 * @param code
+		 *            The character code to translate.
+		 * @param target
+		 *            The character code to translate it to.
+		 * @return This builder.
+		 */
+		public Builder addTranslation(final int code, final int target) {
+			return addTranslation(code, code, target);
+		}
+
+		/**
+		 * Adds a translation of a range of character codes to another range of the
+		 * same length, as the control file command <code>t a-z A-Z</code> does. A
+		 * translation that has been added before in the same stage takes
+		 * precedence over this one for the codes of both.
+		 *
+		 * @param first
+		 *            The first character code of the range to translate.
+		 * @param last
+		 *            The last character code of the range to translate.
+		 * @param target
+		 *            The character code to translate the first code to.
+		 * @return This builder.
+		 * @throws IllegalArgumentException
+		 *             if the last code is before the first, if the translated range
+		 *             would extend past {@link Integer#MAX_VALUE}, or if too many
+		 *             code points outside of the Basic Multilingual Plane are
+		 *             translated.
+		 */
+		public Builder addTranslation(final int first, final int last, final int target)
+				throws IllegalArgumentException {
+			if (last < first) {
+				throw new IllegalArgumentException("Invalid translation range: " + first + "-" + last);
+			}
+			final long offset = (long) target - first;
+			if ((long) last + offset > Integer.MAX_VALUE || (long) last + offset < Integer.MIN_VALUE) {
+				throw new IllegalArgumentException("Translation out of range: " + first + "-" + last + " " + target);
+			}
+
+			final long bmpOverlap = Math.max(0, Math.min(last, BMP_SIZE - 1) - Math.max(first, 0) + 1L);
+			sparseSize += (long) last - first + 1 - bmpOverlap;
+			if (sparseSize > MAX_SPARSE_SIZE) {
+				throw new IllegalArgumentException(
+						"Too many code points outside of the Basic Multilingual Plane are translated");
+			}
+
+			stages.get(stages.size() - 1).add(new Translation(first, last, (int) offset));
+			return this;
+		}
+
+		/**
+		 * Freezes the translations added so far, as the control file command
+		 * <code>f</code> does, so that the translations added after them apply to
+		 * the character codes that they translate to.
+		 *
+		 * @return This builder.
+		 */
+		public Builder freeze() {
+			stages.add(new ArrayList<>());
+			return this;
+		}
+
+		/**
+		 * Designates a character set into one of G0 to G3.
+		 */
+		void designate(final int charset, final boolean ninetySix, final boolean doubleByte, final int finalCharacter) {
+			if (!doubleByte && !ninetySix && finalCharacter == 'B') {
+				charsetBases[charset] = 0;
+			} else if (!doubleByte && ninetySix && finalCharacter == 'A') {
+				charsetBases[charset] = 0x80;
+			} else {
+				charsetBases[charset] = (finalCharacter << 16) | (ninetySix ? 0x80 : 0);
+			}
+			doubleByteCharsets[charset] = doubleByte;
+			iso2022Decoding = true;
+		}
+
+		/**
+		 * Invokes one of G0 to G3 into the left half of the 8-bit characters.
+		 */
+		void invokeLeft(final int charset) {
+			leftCharset = charset;
+			iso2022Decoding = true;
+		}
+
+		/**
+		 * Invokes one of G0 to G3 into the right half of the 8-bit characters.
+		 */
+		void invokeRight(final int charset) {
+			rightCharset = charset;
+			iso2022Decoding = true;
+		}
+
+		void setIso2022Decoding(final boolean iso2022Decoding) {
+			this.iso2022Decoding = iso2022Decoding;
+		}
+
+		/**
+		 * Decodes a code point through the character sets invoked into the left
+		 * and right halves of the 8-bit characters.
+		 */
+		int decode(final int codePoint) {
+			final int charset;
+			if (!iso2022Decoding) {
+				return codePoint;
+			} else if (codePoint >= 0x21 && codePoint <= 0x7E) {
+				charset = leftCharset;
+			} else if (codePoint >= 0xA0 && codePoint <= 0xFF) {
+				charset = rightCharset;
+			} else {
+				return codePoint;
+			}
+			// Double-byte characters would need two bytes of text, so they are left as they are.
+			return doubleByteCharsets[charset] ? codePoint : charsetBases[charset] | (codePoint & 0x7F);
+		}
+
+		public FigletControlFile build() {
+			return new FigletControlFile(this);
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package com.github.dtmo.jfiglet;
+
+/**
+ * FigletEvents records the JDK Flight Recorder events of JFiglet, when a
+ * recording has enabled them.
+ * <p>
+ * The events are handed to callers as plain objects, so that JFiglet still runs
+ * on Java runtimes that do not have the Flight Recorder; on those runtimes no
+ * event is ever begun.
+ * </p>
+ */
+final class FigletEvents {
+	private static final boolean AVAILABLE = isFlightRecorderAvailable();
+
+	private FigletEvents() {
+		// Do nothing.
+	}
+
+	/**
+	 * Begins timing a render.
+	 *
+	 * @return The event to pass to
+	 *         {@link #commitRender(Object, FigletRenderer, long, long)}, or
+	 *         <code>null</code> if renders are not being recorded.
+	 */
+	static Object beginRender() {
+		if (!AVAILABLE) {
+			return null;
+		}
+		final RenderEvent event = new RenderEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Ends timing a render, and records it if it took at least the threshold of
+	 * the recording.
+	 *
+	 * @param event
+	 *            The event returned by {@link #beginRender()}.
+	 * @param renderer
+	 *            The renderer that rendered the text.
+	 * @param textLength
+	 *            The number of characters of text rendered.
+	 * @param outputLength
+	 *            The number of characters of FIGlet text produced.
+	 */
+	static void commitRender(final Object event, final FigletRenderer renderer, final long textLength,
+			final long outputLength) {
+		if (event == null) {
+			return;
+		}
+		final RenderEvent renderEvent = (RenderEvent) event;
+		renderEvent.end();
+		if (renderEvent.shouldCommit()) {
+			renderEvent.fontId = System.identityHashCode(renderer.getFigFont());
+			renderEvent.textLength = textLength;
+			renderEvent.outputLength = outputLength;
+			renderEvent.printDirection = renderer.getPrintDirection().name();
+			renderEvent.smushMode = renderer.getSmushMode();
+			renderEvent.commit();
+		}
+	}
+
+	/**
+	 * Begins timing a font load.
+	 *
+	 * @return The event to pass to
+	 *         {@link #commitFontLoad(Object, String, FigFont, long)}, or
+	 *         <code>null</code> if font loads are not being recorded.
+	 */
+	static Object beginFontLoad() {
+		if (!AVAILABLE) {
+			return null;
+		}
+		final FontLoadEvent event = new FontLoadEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Ends timing a font load, and records it if it took at least the threshold
+	 * of the recording.
+	 *
+	 * @param event
+	 *            The event returned by {@link #beginFontLoad()}.
+	 * @param fontName
+	 *            The name of the resource or file from which the font was read,
+	 *            or <code>null</code> if it is not known.
+	 * @param figFont
+	 *            The font that was loaded.
+	 * @param size
+	 *            The amount of font data read.
+	 */
+	static void commitFontLoad(final Object event, final String fontName, final FigFont figFont, final long size) {
+		if (event == null) {
+			return;
+		}
+		final FontLoadEvent fontLoadEvent = (FontLoadEvent) event;
+		fontLoadEvent.end();
+		if (fontLoadEvent.shouldCommit()) {
+			fontLoadEvent.fontName = fontName;
+			fontLoadEvent.fontId = System.identityHashCode(figFont);
+			fontLoadEvent.glyphCount = figFont.getGlyphCount();
+			fontLoadEvent.size = size;
+			fontLoadEvent.commit();
+		}
+	}
+
+	private static boolean isFlightRecorderAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event", false, FigletEvents.class.getClassLoader());
+			return true;
+		} catch (final ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.github.dtmo.jfiglet;
+
+/**
+ * FigletListener is notified of the work done by JFiglet, so that it can be fed
+ * into a metrics system. Every method does nothing by default, so a listener
+ * need only implement the notifications that it is interested in.
+ * <p>
+ * The listener that is notified is the one set with
+ * {@link FigletListeners#setListener(FigletListener)}. Listeners are called by
+ * whichever thread does the work, so they must be thread-safe, and they should
+ * return quickly, as they are called while the work is in progress. While no
+ * listener is set, the work is not timed at all.
+ * </p>
+ */
+public interface FigletListener {
+	/**
+	 * The listener that does nothing, which is notified while no other listener is
+	 * set.
+	 */
+	FigletListener NO_OP = new FigletListener() {
+	};
+
+	/**
+	 * Notifies that a FIGfont has been loaded, either by parsing it with a
+	 * {@link FigFontReader} or by reading a compiled copy of a font resource.
+	 *
+	 * @param fontName
+	 *            The name of the resource or file from which the font was loaded,
+	 *            or <code>null</code> if it is not known.
+	 * @param figFont
+	 *            The loaded font.
+	 * @param durationNanos
+	 *            The time taken to load the font, in nanoseconds.
+	 */
+	default void fontLoaded(final String fontName, final FigFont figFont, final long durationNanos) {
+		// Do nothing.
+	}
+
+	/**
+	 * Notifies that a text has been rendered by a {@link FigletRenderer}. Each text
+	 * of a batch is notified on its own, and text that is streamed is notified once
+	 * the whole of it has been rendered.
+	 *
+	 * @param renderer
+	 *            The renderer by which the text was rendered.
+	 * @param inputLength
+	 *            The length of the text, in characters.
+	 * @param outputLength
+	 *            The length of the rendered FIGlet text, in characters, including
+	 *            the newlines between its rows.
+	 * @param durationNanos
+	 *            The time taken to render the text, in nanoseconds.
+	 */
+	default void textRendered(final FigletRenderer renderer, final long inputLength, final long outputLength,
+			final long durationNanos) {
+		// Do nothing.
+	}
+
+	/**
+	 * Notifies that a character of rendered text is not in the font, and so was
+	 * rendered with the font's FIGcharacter for character code 0, if it has one,
+	 * or not at all.
+	 *
+	 * @param figFont
+	 *            The font that does not contain the character.
+	 * @param character
+	 *            The character code that is not in the font.
+	 */
+	default void glyphMissing(final FigFont figFont, final int character) {
+		// Do nothing.
+	}
+}
@@ -0,0 +1,51 @@
+package com.github.dtmo.jfiglet;
+
+/**
+ * FigletListeners holds the {@link FigletListener} that is notified of the work
+ * done by JFiglet.
+ */
+public final class FigletListeners {
+	private static volatile FigletListener listener = FigletListener.NO_OP;
+
+	private FigletListeners() {
+		// Do nothing.
+	}
+
+	/**
+	 * Returns the listener that is notified of the work done by JFiglet.
+	 *
+	 * @return The listener, which is {@link FigletListener#NO_OP} if none is set.
+	 */
+	public static FigletListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Sets the listener that is notified of the work done by JFiglet. To combine
+	 * several listeners, set a listener that notifies each of them in turn.
+	 *
+	 * @param listener
+	 *            The listener to set, or {@link FigletListener#NO_OP} to stop
+	 *            notifying.
+	 * @throws IllegalArgumentException
+	 *             if the listener is <code>null</code>.
+	 */
+	public static void setListener(final FigletListener listener) throws IllegalArgumentException {
+		if (listener == null) {
+			throw new IllegalArgumentException("Listener must not be null");
+		}
+		FigletListeners.listener = listener;
+	}
+
+	/**
+	 * Returns whether a listener other than {@link FigletListener#NO_OP} is set,
+	 * so that the work that it would be notified of should be measured.
+	 *
+	 * @param listener
+	 *            The listener in effect.
+	 * @return <code>true</code> if the listener must be notified.
+	 */
+	static boolean isActive(final FigletListener listener) {
+		return listener != FigletListener.NO_OP;
+	}
+}
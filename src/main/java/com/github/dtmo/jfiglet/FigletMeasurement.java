@@ -0,0 +1,85 @@
+package com.github.dtmo.jfiglet;
+
+import java.util.Arrays;
+
+/**
+ * FigletMeasurement holds the dimensions that text would have once rendered as
+ * FIGlet text, as measured by {@link FigletRenderer#measure(CharSequence)}.
+ */
+public final class FigletMeasurement {
+	private final int[] lineWidths;
+	private final int width;
+	private final int height;
+
+	FigletMeasurement(final int[] lineWidths, final int height) {
+		this.lineWidths = lineWidths;
+		this.height = height;
+
+		int maxLineWidth = 0;
+		for (final int lineWidth : lineWidths) {
+			maxLineWidth = Math.max(maxLineWidth, lineWidth);
+		}
+		this.width = maxLineWidth;
+	}
+
+	/**
+	 * Returns the number of FIGlet lines that the text is rendered as, which
+	 * includes the lines that it is wrapped into if the width of lines is limited.
+	 *
+	 * @return The number of FIGlet lines.
+	 */
+	public int getLineCount() {
+		return lineWidths.length;
+	}
+
+	/**
+	 * Returns the width of a FIGlet line, which is the length of each of its rows.
+	 *
+	 * @param line
+	 *            The index of the FIGlet line, from zero.
+	 * @return The width of the FIGlet line.
+	 * @throws IndexOutOfBoundsException
+	 *             if there is no such line.
+	 */
+	public int getLineWidth(final int line) throws IndexOutOfBoundsException {
+		if (line < 0 || line >= lineWidths.length) {
+			throw new IndexOutOfBoundsException("Line out of bounds: " + line);
+		}
+		return lineWidths[line];
+	}
+
+	/**
+	 * Returns the widths of all of the FIGlet lines, in order.
+	 *
+	 * @return A new array of the widths of the FIGlet lines.
+	 */
+	public int[] getLineWidths() {
+		return lineWidths.clone();
+	}
+
+	/**
+	 * Returns the width of the widest FIGlet line, which is the length of the
+	 * longest row of the rendered text.
+	 *
+	 * @return The width of the widest FIGlet line.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the number of rows of the rendered text, after any vertical fitting
+	 * or smushing of its FIGlet lines.
+	 *
+	 * @return The number of rows of the rendered text.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public String toString() {
+		return "FigletMeasurement [lineWidths=" + Arrays.toString(lineWidths) + ", width=" + width + ", height="
+				+ height + "]";
+	}
+}
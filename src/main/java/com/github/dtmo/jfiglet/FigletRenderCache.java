@@ -0,0 +1,328 @@
+package com.github.dtmo.jfiglet;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.dtmo.jfiglet.FigFont.PrintDirection;
+
+/**
+ * FigletRenderCache is a thread-safe cache of rendered FIGlet text, so that text
+ * which is rendered again and again is rendered only once.
+ * <p>
+ * Rendered text is keyed by the identity of the font with which it was
+ * rendered, the smushing mode, print direction, maximum width and control file
+ * of the renderer, and the text itself, so a single cache may be shared by any
+ * number of renderers. Entries are evicted in least-recently-used order once
+ * there are more than the maximum number of them, or once their total weight
+ * exceeds the maximum weight. The weight of an entry is the number of characters
+ * in its text and its rendered text, which is roughly half the number of bytes
+ * that they occupy.
+ * </p>
+ * <p>
+ * A text that is not cached is rendered by the calling thread, outside of any
+ * lock, so threads that request the same text at the same time may each render
+ * it.
+ * </p>
+ */
+public class FigletRenderCache {
+	/**
+	 * The default maximum number of rendered texts that a cache holds.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+	/**
+	 * The default maximum total weight of the rendered texts that a cache holds.
+	 */
+	public static final long DEFAULT_MAXIMUM_WEIGHT = 4L * 1024 * 1024;
+
+	private final int maximumSize;
+	private final long maximumWeight;
+
+	/**
+	 * The rendered texts, in least-recently-used order. Guarded by itself, as is
+	 * {@link #weight}.
+	 */
+	private final LinkedHashMap<Key, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long weight;
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+	private FigletRenderCache(final Builder builder) {
+		this.maximumSize = builder.maximumSize;
+		this.maximumWeight = builder.maximumWeight;
+	}
+
+	/**
+	 * Returns text rendered as FIGlet text by a renderer, rendering it if it is not
+	 * already held by this cache.
+	 *
+	 * @param renderer
+	 *            The renderer with which to render the text. It is only used if
+	 *            the text is not already held, by the calling thread.
+	 * @param text
+	 *            The text to render.
+	 * @return The rendered FIGlet text as a multi-line string.
+	 * @see FigletRenderer#renderText(String)
+	 */
+	public String renderText(final FigletRenderer renderer, final String text) {
+		final Key key = new Key(renderer.getFigFont(), renderer.getSmushMode(), renderer.getPrintDirection(),
+				renderer.getMaxWidth(), renderer.getControlFile(), text);
+
+		synchronized (entries) {
+			final String rendered = entries.get(key);
+			if (rendered != null) {
+				hitCount.increment();
+				return rendered;
+			}
+		}
+		missCount.increment();
+
+		final String rendered = renderer.renderText(text);
+		final long entryWeight = (long) text.length() + rendered.length();
+		if (entryWeight <= maximumWeight && maximumSize > 0) {
+			synchronized (entries) {
+				final String previous = entries.put(key, rendered);
+				if (previous != null) {
+					weight -= (long) text.length() + previous.length();
+				}
+				weight += entryWeight;
+				evict();
+			}
+		}
+		return rendered;
+	}
+
+	/**
+	 * Removes all of the rendered texts held by this cache.
+	 */
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+			weight = 0;
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the statistics of this cache.
+	 *
+	 * @return A snapshot of the statistics of this cache.
+	 */
+	public Statistics getStatistics() {
+		final int size;
+		final long currentWeight;
+		synchronized (entries) {
+			size = entries.size();
+			currentWeight = weight;
+		}
+		return new Statistics(hitCount.sum(), missCount.sum(), evictionCount.sum(), size, currentWeight);
+	}
+
+	/**
+	 * Evicts the least recently used entries until the cache is within its
+	 * maximum size and weight. Must be called while holding the lock on
+	 * {@link #entries}.
+	 */
+	private void evict() {
+		final Iterator<Map.Entry<Key, String>> iterator = entries.entrySet().iterator();
+		while ((entries.size() > maximumSize || weight > maximumWeight) && iterator.hasNext()) {
+			final Map.Entry<Key, String> eldest = iterator.next();
+			weight -= (long) eldest.getKey().text.length() + eldest.getValue().length();
+			iterator.remove();
+			evictionCount.increment();
+		}
+	}
+
+	/**
+	 * Key identifies a rendered text by the font and settings with which it was
+	 * rendered. Fonts are compared by identity.
+	 */
+	private static final class Key {
+		private final FigFont figFont;
+		private final int smushMode;
+		private final PrintDirection printDirection;
+		private final int maxWidth;
+		private final FigletControlFile controlFile;
+		private final String text;
+		private final int hashCode;
+
+		Key(final FigFont figFont, final int smushMode, final PrintDirection printDirection, final int maxWidth,
+				final FigletControlFile controlFile, final String text) {
+			this.figFont = figFont;
+			this.smushMode = smushMode;
+			this.printDirection = printDirection;
+			this.maxWidth = maxWidth;
+			this.controlFile = controlFile;
+			this.text = text;
+
+			int hash = System.identityHashCode(figFont);
+			hash = 31 * hash + smushMode;
+			hash = 31 * hash + printDirection.hashCode();
+			hash = 31 * hash + maxWidth;
+			hash = 31 * hash + System.identityHashCode(controlFile);
+			hash = 31 * hash + text.hashCode();
+			this.hashCode = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return figFont == other.figFont && smushMode == other.smushMode && printDirection == other.printDirection
+					&& maxWidth == other.maxWidth && controlFile == other.controlFile && text.equals(other.text);
+		}
+	}
+
+	/**
+	 * Statistics is a snapshot of the statistics of a {@link FigletRenderCache}.
+	 */
+	public static class Statistics {
+		private final long hitCount;
+		private final long missCount;
+		private final long evictionCount;
+		private final int size;
+		private final long weight;
+
+		private Statistics(final long hitCount, final long missCount, final long evictionCount, final int size,
+				final long weight) {
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.evictionCount = evictionCount;
+			this.size = size;
+			this.weight = weight;
+		}
+
+		/**
+		 * Returns the number of times that a requested text was already held.
+		 *
+		 * @return The number of times that a requested text was already held.
+		 */
+		public long getHitCount() {
+			return hitCount;
+		}
+
+		/**
+		 * Returns the number of times that a requested text was not already held,
+		 * and so was rendered.
+		 *
+		 * @return The number of times that a requested text was not already held.
+		 */
+		public long getMissCount() {
+			return missCount;
+		}
+
+		/**
+		 * Returns the ratio of hits to requests, or 1.0 if there have been no
+		 * requests.
+		 *
+		 * @return The ratio of hits to requests.
+		 */
+		public double getHitRate() {
+			final long requestCount = hitCount + missCount;
+			return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+		}
+
+		/**
+		 * Returns the number of rendered texts that have been evicted to keep within
+		 * the maximum size or weight.
+		 *
+		 * @return The number of rendered texts that have been evicted.
+		 */
+		public long getEvictionCount() {
+			return evictionCount;
+		}
+
+		/**
+		 * Returns the number of rendered texts held by the cache.
+		 *
+		 * @return The number of rendered texts held by the cache.
+		 */
+		public int getSize() {
+			return size;
+		}
+
+		/**
+		 * Returns the total weight of the rendered texts held by the cache, which is
+		 * the number of characters in the texts and their rendered texts.
+		 *
+		 * @return The total weight of the rendered texts held by the cache.
+		 */
+		public long getWeight() {
+			return weight;
+		}
+
+		@Override
+		public String toString() {
+			return "Statistics [hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount="
+					+ evictionCount + ", size=" + size + ", weight=" + weight + "]";
+		}
+	}
+
+	/**
+	 * Builder builds {@link FigletRenderCache} instances.
+	 */
+	public static class Builder {
+		private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+		private long maximumWeight = DEFAULT_MAXIMUM_WEIGHT;
+
+		public int getMaximumSize() {
+			return maximumSize;
+		}
+
+		/**
+		 * Sets the maximum number of rendered texts that the cache holds. If not set
+		 * then {@value FigletRenderCache#DEFAULT_MAXIMUM_SIZE} is used.
+		 *
+		 * @param maximumSize
+		 *            The maximum number of rendered texts to set.
+		 * @return This builder.
+		 */
+		public Builder setMaximumSize(final int maximumSize) {
+			if (maximumSize < 0) {
+				throw new IllegalArgumentException("Maximum size must not be negative: " + maximumSize);
+			}
+			this.maximumSize = maximumSize;
+			return this;
+		}
+
+		public long getMaximumWeight() {
+			return maximumWeight;
+		}
+
+		/**
+		 * Sets the maximum total weight of the rendered texts that the cache holds,
+		 * measured in characters. A rendered text that is heavier than this on its
+		 * own is never held. If not set then
+		 * {@value FigletRenderCache#DEFAULT_MAXIMUM_WEIGHT} is used.
+		 *
+		 * @param maximumWeight
+		 *            The maximum total weight to set.
+		 * @return This builder.
+		 */
+		public Builder setMaximumWeight(final long maximumWeight) {
+			if (maximumWeight < 0) {
+				throw new IllegalArgumentException("Maximum weight must not be negative: " + maximumWeight);
+			}
+			this.maximumWeight = maximumWeight;
+			return this;
+		}
+
+		public FigletRenderCache build() {
+			return new FigletRenderCache(this);
+		}
+	}
+}
@@ -1,30 +1,117 @@
 package com.github.dtmo.jfiglet;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+import java.nio.ReadOnlyBufferException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 import com.github.dtmo.jfiglet.FigFont.FigCharacter;
 import com.github.dtmo.jfiglet.FigFont.PrintDirection;
 
 /**
  * FigletRenderer renders text as FIGlet text.
+ * <p>
+ * Text that spans several lines is rendered as several FIGlet lines, one below
+ * another. If the smushing mode selects vertical fitting or smushing then each
+ * FIGlet line is moved up into the one above it, as far as the vertical layout
+ * rules allow; otherwise the FIGlet lines are printed at their full height.
+ * </p>
+ * <p>
+ * A FigletRenderer is immutable, and so may be shared freely between threads:
+ * one instance can serve every thread of an application, including virtual
+ * threads. Renderers with other settings are created with a {@link Builder},
+ * or derived from an existing renderer with {@link #withSmushMode(int)},
+ * {@link #withPrintDirection(PrintDirection)} or {@link #toBuilder()}. The
+ * buffers with which text is composed are taken from a pool for each render
+ * and returned to it afterwards, so concurrent renders neither contend for
+ * them nor allocate them afresh.
+ * </p>
  */
 public class FigletRenderer {
-	private FigFont figFont;
-	private int smushMode;
-	private FigFont.PrintDirection printDirection;
+	/**
+	 * The number of characters that are read from a {@link Reader} at a time.
+	 */
+	private static final int STREAM_BUFFER_SIZE = 8192;
+
+	/**
+	 * The default length of text, in characters, from which text is rendered in
+	 * parallel when parallel rendering is enabled.
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 16384;
+
+	/**
+	 * The character code that stands for a character that is not rendered,
+	 * which no code tag may be.
+	 */
+	private static final int SKIPPED_CHARACTER = Integer.MIN_VALUE;
+
+	private final FigFont figFont;
+	private final int smushMode;
+	private final FigFont.PrintDirection printDirection;
+	private final int maxWidth;
+	private final boolean parallel;
+	private final int parallelThreshold;
+	private final Executor executor;
+	private final FigletControlFile controlFile;
+
+	/**
+	 * The overlap table for the smushing mode and print direction.
+	 */
+	private final OverlapTable overlapTable;
 
 	/**
-	 * Constructs a new instance of FigletRenderer.
+	 * The buffers with which text is rendered, which are shared with every
+	 * renderer derived from this one.
+	 */
+	private final RenderScratchPool scratchPool;
+
+	/**
+	 * Constructs a new instance of FigletRenderer, which renders text with the
+	 * default smushing mode and print direction of a FIGfont.
 	 * 
 	 * @param figFont
 	 *            The FIGlet font with which to render text.
 	 */
 	public FigletRenderer(final FigFont figFont) {
-		this.figFont = figFont;
-		this.smushMode = figFont.getFullLayout();
-		this.printDirection = figFont.getPrintDirection();
+		this(new Builder(figFont));
+	}
+
+	private FigletRenderer(final Builder builder) {
+		this(builder, new RenderScratchPool(builder.figFont));
+	}
+
+	private FigletRenderer(final Builder builder, final RenderScratchPool scratchPool) {
+		this.figFont = builder.figFont;
+		this.smushMode = builder.smushMode;
+		this.printDirection = builder.printDirection;
+		this.maxWidth = builder.maxWidth;
+		this.parallel = builder.parallel;
+		this.parallelThreshold = builder.parallelThreshold;
+		this.executor = builder.executor;
+		this.controlFile = builder.controlFile;
+		this.overlapTable = figFont.getOverlapTable(smushMode, printDirection);
+		this.scratchPool = scratchPool;
+	}
+
+	/**
+	 * Returns the FIGlet font with which text is rendered.
+	 *
+	 * @return The FIGlet font with which text is rendered.
+	 */
+	public FigFont getFigFont() {
+		return figFont;
 	}
 
 	/**
@@ -37,33 +124,107 @@ public class FigletRenderer {
 	}
 
 	/**
-	 * Sets the text smushing mode that will be used when rendering FIGlet text. If
-	 * not set then the default smushing mode specified by the FIGfont will be used.
+	 * Returns the print direction for rendered FIGlet text.
+	 * 
+	 * @return The print direction for rendered FIGlet text.
+	 */
+	public FigFont.PrintDirection getPrintDirection() {
+		return printDirection;
+	}
+
+	/**
+	 * Returns the maximum width of rendered FIGlet lines, or 0 if their width is
+	 * not limited.
+	 * 
+	 * @return The maximum width of rendered FIGlet lines.
+	 * @see Builder#setMaxWidth(int)
+	 */
+	public int getMaxWidth() {
+		return maxWidth;
+	}
+
+	/**
+	 * Returns whether long texts are rendered in parallel.
+	 * 
+	 * @return Whether long texts are rendered in parallel.
+	 * @see Builder#setParallel(boolean)
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Returns the length of text, in characters, from which text is rendered in
+	 * parallel.
+	 * 
+	 * @return The length of text from which text is rendered in parallel.
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * Returns the executor by which text is rendered in parallel.
+	 * 
+	 * @return The executor by which text is rendered in parallel.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Returns the control file by which the characters of text are translated
+	 * before they are rendered, or <code>null</code> if they are not translated.
+	 * 
+	 * @return The control file by which text is translated.
+	 * @see Builder#setControlFile(FigletControlFile)
+	 */
+	public FigletControlFile getControlFile() {
+		return controlFile;
+	}
+
+	/**
+	 * Returns a renderer with the same settings as this one, except for the text
+	 * smushing mode.
 	 * 
 	 * @param smushMode
-	 *            The text smushing mode to set.
+	 *            The text smushing mode of the returned renderer.
+	 * @return A renderer that uses the smushing mode.
 	 */
-	public void setSmushMode(int smushMode) {
-		this.smushMode = smushMode;
+	public FigletRenderer withSmushMode(final int smushMode) {
+		if (smushMode == this.smushMode) {
+			return this;
+		}
+		return new FigletRenderer(toBuilder().setSmushMode(smushMode), scratchPool);
 	}
 
 	/**
-	 * Returns the print direction for rendered FIGlet text.
+	 * Returns a renderer with the same settings as this one, except for the print
+	 * direction.
 	 * 
-	 * @return The print direction for rendered FIGlet text.
+	 * @param printDirection
+	 *            The print direction of the returned renderer.
+	 * @return A renderer that uses the print direction.
+	 * @throws IllegalArgumentException
+	 *             if the print direction is <code>null</code>.
 	 */
-	public FigFont.PrintDirection getPrintDirection() {
-		return printDirection;
+	public FigletRenderer withPrintDirection(final FigFont.PrintDirection printDirection)
+			throws IllegalArgumentException {
+		if (printDirection == this.printDirection) {
+			return this;
+		}
+		return new FigletRenderer(toBuilder().setPrintDirection(printDirection), scratchPool);
 	}
 
 	/**
-	 * Sets the print direction for rendered FIGlet text. If not set then the
-	 * default print direction of the FIGfont will be used.
+	 * Returns a builder that is initialised with the settings of this renderer.
 	 * 
-	 * @param printDirection The print direction to set.
+	 * @return A builder that is initialised with the settings of this renderer.
 	 */
-	public void setPrintDirection(final FigFont.PrintDirection printDirection) {
-		this.printDirection = printDirection;
+	public Builder toBuilder() {
+		return new Builder(figFont).setSmushMode(smushMode).setPrintDirection(printDirection).setMaxWidth(maxWidth)
+				.setParallel(parallel).setParallelThreshold(parallelThreshold).setExecutor(executor)
+				.setControlFile(controlFile);
 	}
 
 	/**
@@ -74,78 +235,1524 @@ public class FigletRenderer {
 	 * @return The rendered FIGlet text as a multi-line string.
 	 */
 	public String renderText(final String text) {
-		final StringBuilder result = new StringBuilder();
+		if (isParallel(text)) {
+			final StringBuilder result = new StringBuilder();
+			try {
+				renderTo(text, result);
+			} catch (final IOException e) {
+				// StringBuilder does not throw IOException.
+				throw new IllegalStateException(e);
+			}
+			return result.toString();
+		}
+
+		final RenderScratch scratch = scratchPool.acquire();
+		try {
+			return render(text, scratch);
+		} finally {
+			scratchPool.release(scratch);
+		}
+	}
+
+	/**
+	 * Renders text as FIGlet text, appending the rendered text to an
+	 * {@link Appendable}. Rows of the rendered text are separated by newline
+	 * characters, and no newline follows the last row.
+	 * <p>
+	 * The buffers used to compose the FIGlet text are pooled by this renderer and
+	 * reused by later renders, so rendering into an existing {@link Appendable}
+	 * allocates nothing once the buffers have grown to the length of the longest
+	 * rendered line.
+	 * </p>
+	 * 
+	 * @param text
+	 *            The text to render.
+	 * @param appendable
+	 *            The {@link Appendable} to which to append the rendered FIGlet
+	 *            text.
+	 * @throws IOException
+	 *             if there is a problem appending to the {@link Appendable}.
+	 * @see Builder#setParallel(boolean)
+	 */
+	public void renderTo(final CharSequence text, final Appendable appendable) throws IOException {
+		final FigletListener listener = FigletListeners.getListener();
+		final long startTime = FigletListeners.isActive(listener) ? System.nanoTime() : 0;
+		final Object event = FigletEvents.beginRender();
+
+		long outputLength = -1;
+		if (isParallel(text)) {
+			final int[] segmentStarts = findSegmentStarts(text, getParallelism(executor));
+			if (segmentStarts.length > 1) {
+				outputLength = renderParallelTo(text, segmentStarts, appendable);
+			}
+		}
+
+		if (outputLength < 0) {
+			final RenderScratch scratch = scratchPool.acquire();
+			try {
+				renderTo(text, appendable, scratch);
+				outputLength = scratch.getOutputLength();
+			} finally {
+				scratchPool.release(scratch);
+			}
+		}
+
+		FigletEvents.commitRender(event, this, text.length(), outputLength);
+		if (FigletListeners.isActive(listener)) {
+			listener.textRendered(this, text.length(), outputLength, System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Renders each of a collection of texts as FIGlet text, as if by
+	 * {@link #renderText(String)}. The buffers used to compose the FIGlet text
+	 * are shared by all of the texts, and the font is consulted for the overlap
+	 * amounts only once, so rendering many short texts this way costs little more
+	 * than rendering their characters. Each text is rendered by the calling
+	 * thread, whether or not parallel rendering is enabled.
+	 * 
+	 * @param texts
+	 *            The texts to render.
+	 * @return The rendered FIGlet texts, in the order in which the collection
+	 *         iterates over the texts.
+	 */
+	public List<String> renderAll(final Collection<? extends CharSequence> texts) {
+		final List<String> results = new ArrayList<>(texts.size());
+
+		final RenderScratch scratch = scratchPool.acquire();
+		try {
+			for (final CharSequence text : texts) {
+				results.add(render(text, scratch));
+			}
+		} finally {
+			scratchPool.release(scratch);
+		}
+
+		return results;
+	}
+
+	/**
+	 * Renders each of a collection of texts as FIGlet text, spreading the texts
+	 * over the threads of an executor. The texts are split into as many runs of
+	 * consecutive texts as the executor is expected to have threads, and each run
+	 * is rendered with buffers of its own that are shared by all of its texts.
+	 * 
+	 * @param texts
+	 *            The texts to render.
+	 * @param executor
+	 *            The executor by which to render the texts.
+	 * @return The rendered FIGlet texts, in the order in which the collection
+	 *         iterates over the texts.
+	 * @throws IllegalArgumentException
+	 *             if the executor is <code>null</code>.
+	 * @see #renderAll(Collection)
+	 */
+	public List<String> renderAll(final Collection<? extends CharSequence> texts, final Executor executor)
+			throws IllegalArgumentException {
+		if (executor == null) {
+			throw new IllegalArgumentException("Executor must not be null");
+		}
+
+		final CharSequence[] inputs = texts.toArray(new CharSequence[0]);
+		final String[] results = new String[inputs.length];
+
+		final int runCount = Math.min(getParallelism(executor), inputs.length);
+		final List<CompletableFuture<Void>> runs = new ArrayList<>(runCount);
+		for (int run = 0; run < runCount; run++) {
+			final int start = (int) ((long) inputs.length * run / runCount);
+			final int end = (int) ((long) inputs.length * (run + 1) / runCount);
+			runs.add(CompletableFuture.runAsync(() -> {
+				final RenderScratch scratch = scratchPool.acquire();
+				try {
+					for (int index = start; index < end; index++) {
+						results[index] = render(inputs[index], scratch);
+					}
+				} finally {
+					scratchPool.release(scratch);
+				}
+			}, executor));
+		}
+
+		for (final CompletableFuture<Void> run : runs) {
+			join(run);
+		}
+		return new ArrayList<>(Arrays.asList(results));
+	}
+
+	/**
+	 * Returns a stream of the FIGlet texts of a stream of texts, in the same
+	 * order. Each text is rendered as the stream is consumed, with buffers taken
+	 * from the renderer's pool, so the stream may be parallel.
+	 * 
+	 * @param texts
+	 *            The texts to render.
+	 * @return A stream of the rendered FIGlet texts.
+	 * @see #renderAll(Collection)
+	 */
+	public Stream<String> renderAll(final Stream<? extends CharSequence> texts) {
+		return texts.map(text -> {
+			final RenderScratch scratch = scratchPool.acquire();
+			try {
+				return render(text, scratch);
+			} finally {
+				scratchPool.release(scratch);
+			}
+		});
+	}
+
+	/**
+	 * Renders text read from a {@link Reader} as FIGlet text, writing each FIGlet
+	 * line to a {@link Writer} as soon as it is finished. A line of text is
+	 * finished when a newline is read or, if the width of lines is limited, when
+	 * enough has been read to decide where it wraps. The writer is flushed after
+	 * every FIGlet line, and when the end of the text has been rendered.
+	 * <p>
+	 * Only the text of the line that is being read is held in memory, so text of
+	 * any size can be rendered, and the output is the same as that of
+	 * {@link #renderText(String)} for the whole of the text. If vertical fitting
+	 * or smushing is in use then the bottom rows of each FIGlet line are written
+	 * once the next line has been placed below them.
+	 * </p>
+	 * 
+	 * @param reader
+	 *            The reader from which to read the text to render. It is read until
+	 *            it is exhausted, but not closed.
+	 * @param writer
+	 *            The writer to which to write the rendered FIGlet text. It is not
+	 *            closed.
+	 * @throws IOException
+	 *             if there is a problem reading the text or writing the FIGlet
+	 *             text.
+	 */
+	public void renderStream(final Reader reader, final Writer writer) throws IOException {
+		final LineStream lineStream = new LineStream(writer);
+		try {
+			final char[] buffer = new char[STREAM_BUFFER_SIZE];
+			int count;
+			while ((count = reader.read(buffer)) != -1) {
+				lineStream.append(buffer, count);
+			}
+
+			lineStream.finish();
+		} finally {
+			lineStream.release();
+		}
+	}
+
+	/**
+	 * Renders lines of text as FIGlet text, writing each FIGlet line to a
+	 * {@link Writer} as soon as it is finished. Each element of the iterator is
+	 * rendered as if it were followed by a newline, except for the last, so the
+	 * output is the same as that of {@link #renderText(String)} for the elements
+	 * joined by newlines. Elements that contain newlines are rendered as several
+	 * lines.
+	 * 
+	 * @param lines
+	 *            The lines of text to render.
+	 * @param writer
+	 *            The writer to which to write the rendered FIGlet text. It is not
+	 *            closed.
+	 * @throws IOException
+	 *             if there is a problem writing the FIGlet text.
+	 * @see #renderStream(Reader, Writer)
+	 */
+	public void renderStream(final Iterator<? extends CharSequence> lines, final Writer writer)
+			throws IOException {
+		final LineStream lineStream = new LineStream(writer);
+		try {
+			boolean firstLine = true;
+			while (lines.hasNext()) {
+				if (!firstLine) {
+					lineStream.append("\n");
+				}
+				lineStream.append(lines.next());
+				firstLine = false;
+			}
+
+			lineStream.finish();
+		} finally {
+			lineStream.release();
+		}
+	}
 
-		final List<StringBuilder> rowBuilders = new ArrayList<>(figFont.getHeight());
-		for (int row = 0; row < figFont.getHeight(); row++) {
-			rowBuilders.add(new StringBuilder());
+	/**
+	 * Renders text as FIGlet text into a character array. Rows of the rendered
+	 * text are separated by newline characters, and no newline follows the last
+	 * row.
+	 * 
+	 * @param text
+	 *            The text to render.
+	 * @param buffer
+	 *            The array into which to write the rendered FIGlet text.
+	 * @param offset
+	 *            The index of the array at which to start writing.
+	 * @return The number of characters written.
+	 * @throws IndexOutOfBoundsException
+	 *             if the rendered FIGlet text does not fit into the array.
+	 * @see #renderTo(CharSequence, Appendable)
+	 */
+	public int renderInto(final CharSequence text, final char[] buffer, final int offset)
+			throws IndexOutOfBoundsException {
+		if (offset < 0 || offset > buffer.length) {
+			throw new IndexOutOfBoundsException("Offset out of bounds: " + offset);
+		}
+		try {
+			return renderInto(text, buffer, offset, buffer.length);
+		} catch (final BufferOverflowException e) {
+			throw new IndexOutOfBoundsException("Rendered text does not fit into the buffer");
+		}
+	}
+
+	/**
+	 * Renders text as FIGlet text into a {@link CharBuffer}, starting at its
+	 * current position. Rows of the rendered text are separated by newline
+	 * characters, and no newline follows the last row. The position of the buffer
+	 * is advanced past the rendered text.
+	 * 
+	 * @param text
+	 *            The text to render.
+	 * @param buffer
+	 *            The buffer into which to write the rendered FIGlet text.
+	 * @throws BufferOverflowException
+	 *             if the rendered FIGlet text does not fit into the remaining
+	 *             space of the buffer.
+	 * @throws ReadOnlyBufferException
+	 *             if the buffer is read-only.
+	 * @see #renderTo(CharSequence, Appendable)
+	 */
+	public void renderInto(final CharSequence text, final CharBuffer buffer)
+			throws BufferOverflowException, ReadOnlyBufferException {
+		if (buffer.hasArray()) {
+			final int start = buffer.arrayOffset() + buffer.position();
+			final int end = buffer.arrayOffset() + buffer.limit();
+			final char[] array = buffer.array();
+
+			final int length = renderInto(text, array, start, end);
+			buffer.position(buffer.position() + length);
+		} else {
+			try {
+				renderTo(text, buffer);
+			} catch (final IOException e) {
+				// CharBuffer does not throw IOException.
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	/**
+	 * Measures the dimensions that text would have once rendered as FIGlet text,
+	 * without rendering it. The width of each FIGlet line is found from the widths
+	 * of its FIGcharacters and the amounts by which they overlap, which is much
+	 * cheaper than composing the rows. Only if vertical fitting or smushing is in
+	 * use are the rows of each line composed, since how far one line moves up into
+	 * another depends on their sub-characters, but even then none of the rendered
+	 * text is written out.
+	 * 
+	 * @param text
+	 *            The text to measure.
+	 * @return The dimensions of the rendered text.
+	 */
+	public FigletMeasurement measure(final CharSequence text) {
+		int[] lineWidths = new int[8];
+		int lineCount = 0;
+		int height = 0;
+
+		if (isVerticalLayout()) {
+			final RenderScratch scratch = scratchPool.acquire();
+			try {
+				final RowBuffer rowBuffer = scratch.getRowBuffer();
+				final VerticalBuffer verticalBuffer = scratch.getVerticalBuffer();
+				verticalBuffer.clear();
+
+				int index = 0;
+				do {
+					index = renderLine(text, index, rowBuffer);
+					final int overlap = verticalBuffer.calculateOverlap(rowBuffer, smushMode);
+					verticalBuffer.add(rowBuffer, overlap, smushMode);
+					height += rowBuffer.getHeight() - overlap;
+
+					if (lineCount == lineWidths.length) {
+						lineWidths = Arrays.copyOf(lineWidths, lineCount * 2);
+					}
+					lineWidths[lineCount++] = rowBuffer.getLength();
+				} while (index >= 0);
+			} finally {
+				scratchPool.release(scratch);
+			}
+		} else {
+			int index = 0;
+			do {
+				final int end = maxWidth > 0 ? findLineEnd(text, index, overlapTable) : findNewline(text, index);
+
+				if (lineCount == lineWidths.length) {
+					lineWidths = Arrays.copyOf(lineWidths, lineCount * 2);
+				}
+				lineWidths[lineCount++] = measureLine(text, index, end);
+				height += figFont.getHeight();
+
+				index = findNextLine(text, end);
+			} while (index >= 0);
+		}
+
+		return new FigletMeasurement(Arrays.copyOf(lineWidths, lineCount), height);
+	}
+
+	/**
+	 * Returns the number of characters at the start of text that fit on a single
+	 * FIGlet line no wider than a number of columns. Counting stops at the first
+	 * character that is interpreted as a newline. The maximum width of this
+	 * renderer plays no part, and nothing is rendered.
+	 * 
+	 * @param text
+	 *            The text to fit.
+	 * @param columns
+	 *            The number of columns into which the characters must fit.
+	 * @return The number of characters at the start of the text that fit.
+	 * @throws IllegalArgumentException
+	 *             if the number of columns is negative.
+	 */
+	public int countFitting(final CharSequence text, final int columns) throws IllegalArgumentException {
+		if (columns < 0) {
+			throw new IllegalArgumentException("Columns must not be negative: " + columns);
+		}
+		return countFitting(text, findNewline(text, 0), columns);
+	}
+
+	/**
+	 * Renders text as FIGlet text into the part of a character array between two
+	 * indexes.
+	 * 
+	 * @return The number of characters written.
+	 * @throws BufferOverflowException
+	 *             if the rendered FIGlet text does not fit between the indexes.
+	 */
+	private int renderInto(final CharSequence text, final char[] buffer, final int start, final int end)
+			throws BufferOverflowException {
+		final FigletListener listener = FigletListeners.getListener();
+		final long startTime = FigletListeners.isActive(listener) ? System.nanoTime() : 0;
+		final Object event = FigletEvents.beginRender();
+
+		final int length;
+		final RenderScratch scratch = scratchPool.acquire();
+		try {
+			length = renderInto(text, buffer, start, end, scratch);
+		} finally {
+			scratchPool.release(scratch);
+		}
+
+		FigletEvents.commitRender(event, this, text.length(), length);
+		if (FigletListeners.isActive(listener)) {
+			listener.textRendered(this, text.length(), length, System.nanoTime() - startTime);
+		}
+		return length;
+	}
+
+	private int renderInto(final CharSequence text, final char[] buffer, final int start, final int end,
+			final RenderScratch scratch) throws BufferOverflowException {
+		final RowBuffer rowBuffer = scratch.getRowBuffer();
+
+		if (isVerticalLayout()) {
+			final VerticalBuffer verticalBuffer = scratch.getVerticalBuffer();
+			verticalBuffer.clear();
+
+			boolean firstRow = true;
+			int position = start;
+			int index = 0;
+			do {
+				index = renderLine(text, index, rowBuffer);
+				final int overlap = verticalBuffer.calculateOverlap(rowBuffer, smushMode);
+				for (int row = 0; row < verticalBuffer.getRowCount() - overlap; row++) {
+					position = copyRow(verticalBuffer.getRow(row), 0, verticalBuffer.getRowLength(row), firstRow,
+							buffer, position, end);
+					firstRow = false;
+				}
+				verticalBuffer.add(rowBuffer, overlap, smushMode);
+			} while (index >= 0);
+
+			for (int row = 0; row < verticalBuffer.getRowCount(); row++) {
+				position = copyRow(verticalBuffer.getRow(row), 0, verticalBuffer.getRowLength(row), firstRow, buffer,
+						position, end);
+				firstRow = false;
+			}
+			return position - start;
+		}
+
+		int position = start;
+		int index = 0;
+		do {
+			index = renderLine(text, index, rowBuffer);
+			if (position + renderedLength(rowBuffer) + (index >= 0 ? 1 : 0) > end) {
+				throw new BufferOverflowException();
+			}
+			position = copyRows(rowBuffer, buffer, position);
+			if (index >= 0) {
+				buffer[position++] = '\n';
+			}
+		} while (index >= 0);
+
+		return position - start;
+	}
+
+	/**
+	 * Renders text as FIGlet text with a set of buffers and an overlap table,
+	 * appending the rendered text to an {@link Appendable}.
+	 */
+	private void renderTo(final CharSequence text, final Appendable appendable, final RenderScratch scratch)
+			throws IOException {
+		final RowBuffer rowBuffer = scratch.getRowBuffer();
+		startLines(scratch);
+
+		boolean firstRow = true;
+		int index = 0;
+		do {
+			index = renderLine(text, index, rowBuffer, overlapTable);
+			firstRow = appendLine(rowBuffer, scratch, firstRow, appendable);
+		} while (index >= 0);
+
+		finishLines(scratch, firstRow, appendable);
+	}
+
+	/**
+	 * Renders text as FIGlet text with a set of buffers and an overlap table.
+	 * 
+	 * @return The rendered FIGlet text as a multi-line string.
+	 */
+	private String render(final CharSequence text, final RenderScratch scratch) {
+		final FigletListener listener = FigletListeners.getListener();
+		final long startTime = FigletListeners.isActive(listener) ? System.nanoTime() : 0;
+		final Object event = FigletEvents.beginRender();
+		final StringBuilder output = scratch.getOutput();
+
+		try {
+			renderTo(text, output, scratch);
+		} catch (final IOException e) {
+			// StringBuilder does not throw IOException.
+			throw new IllegalStateException(e);
+		}
+
+		final String result = output.toString();
+		FigletEvents.commitRender(event, this, text.length(), result.length());
+		if (FigletListeners.isActive(listener)) {
+			listener.textRendered(this, text.length(), result.length(), System.nanoTime() - startTime);
 		}
+		return result;
+	}
+
+	/**
+	 * Renders a single line of text into a {@link RowBuffer}. The line ends at
+	 * the first character that is interpreted as a newline, at the point at which
+	 * it is wrapped if the width of lines is limited, or at the end of the text.
+	 * 
+	 * @param text
+	 *            The text to render.
+	 * @param start
+	 *            The index of the first character of the line.
+	 * @param rowBuffer
+	 *            The buffer into which to render the line.
+	 * @return The index of the first character of the next line, or -1 if the
+	 *         line ended at the end of the text.
+	 */
+	private int renderLine(final CharSequence text, final int start, final RowBuffer rowBuffer) {
+		return renderLine(text, start, rowBuffer, overlapTable);
+	}
+
+	/**
+	 * Renders a single line of text into a {@link RowBuffer} with an overlap
+	 * table. This reads, but does not change, the state of the renderer, so lines
+	 * may be rendered by several threads at once into buffers of their own.
+	 * 
+	 * @param text
+	 *            The text to render.
+	 * @param start
+	 *            The index of the first character of the line.
+	 * @param rowBuffer
+	 *            The buffer into which to render the line.
+	 * @param overlapTable
+	 *            The overlap amounts with which to render the line.
+	 * @return The index of the first character of the next line, or -1 if the
+	 *         line ended at the end of the text.
+	 */
+	private int renderLine(final CharSequence text, final int start, final RowBuffer rowBuffer,
+			final OverlapTable overlapTable) {
+		final SmushTable smushTable = overlapTable.getSmushTable();
+		final int end = maxWidth > 0 ? findLineEnd(text, start, overlapTable) : text.length();
 
-		char prevChar = '\0';
-		for (char character : text.toCharArray()) {
+		rowBuffer.clear();
 
-			// Treat tabs and spaces as spaces, and all other whitespace characters as
-			// newlines.
-			if (Character.isWhitespace(character)) {
-				character = (character == '\t' || character == ' ') ? ' ' : '\n';
+		int prevChar = '\0';
+		int codePoint;
+		for (int index = start; index < end; index += Character.charCount(codePoint)) {
+			codePoint = codePointAt(text, index);
+			int character = normaliseWhitespace(translate(codePoint));
+
+			if (character == '\n') {
+				return index + Character.charCount(codePoint);
 			}
 
 			// Skip over unprintable characters.
-			if ((character > '\0' && character < ' ' && character != '\n') || character == 127)
+			if (isUnprintable(character)) {
 				continue;
+			}
 
-			if (character != '\n') {
-				final int smushAmount = figFont.calculateOverlapAmount(prevChar, character, smushMode, printDirection);
-				final FigCharacter figChar = figFont.getFigCharacter(character);
-
-				for (int row = 0; row < figFont.getHeight(); row++) {
-					final StringBuilder rowBuilder = rowBuilders.get(row);
-
-					if (rowBuilder.length() > 0) {
-						if (printDirection == PrintDirection.LEFT_TO_RIGHT) {
-							// Smush the new FIGcharacter onto the right of the previous FIGcharacter.
-							for (int smushColumn = 0; smushColumn < smushAmount; smushColumn++) {
-								int smushIndex = rowBuilder.length() - (smushColumn + 1);
-								rowBuilder.setCharAt(smushIndex,
-										figFont.smushem(rowBuilder.charAt(smushIndex),
-												figChar.getCharacterAt(smushAmount - (smushColumn + 1), row), smushMode,
-												printDirection));
-							}
-							rowBuilder.append(figChar.getRow(row).substring(smushAmount));
-						} else {
-							// Smush the new FIGcharacter into the left of the previous FIGcharacter.
-							for (int smushColumn = 0; smushColumn < smushAmount; smushColumn++) {
-								rowBuilder.setCharAt(smushColumn,
-										figFont.smushem(rowBuilder.charAt(smushColumn), figChar
-												.getCharacterAt((figChar.getWidth() - smushAmount) + smushColumn, row),
-												smushMode, printDirection));
-							}
-							rowBuilder.insert(0, figChar.getRow(row).substring(0, figChar.getWidth() - smushAmount));
-						}
-					} else {
-						rowBuilder.append(figChar.getRow(row));
-					}
+			final int resolvedChar = resolveCharacter(character);
+			if (resolvedChar != character) {
+				FigletListeners.getListener().glyphMissing(figFont, character);
+				if (resolvedChar == SKIPPED_CHARACTER) {
+					continue;
 				}
+				character = resolvedChar;
+			}
+			final FigCharacter figChar = figFont.getFigCharacter(character);
 
-				prevChar = character;
+			final int smushAmount = overlapTable.getOverlapAmount(prevChar, character);
+			if (printDirection == PrintDirection.LEFT_TO_RIGHT) {
+				// Smush the new FIGcharacter onto the right of the previous FIGcharacter.
+				rowBuffer.append(figChar, smushAmount, smushTable);
 			} else {
-				// We've encountered a newline. We need to render the current buffer and then
-				// start a new one.
-				result.append(rowBuilders.stream().map((rowBuilder) -> rowBuilder.toString())
-						.map(s -> s.replace(figFont.getHardBlankChar(), ' '))
-						.collect(Collectors.joining("\n", "", "\n")));
-
-				for (int row = 0; row < figFont.getHeight(); row++) {
-					rowBuilders.get(row).setLength(0);
-				}
+				// Smush the new FIGcharacter into the left of the previous FIGcharacter.
+				rowBuffer.prepend(figChar, smushAmount, smushTable);
+			}
 
-				prevChar = '\0';
+			prevChar = character;
+		}
+
+		return findNextLine(text, end);
+	}
+
+	/**
+	 * Finds where the line after a line of text starts.
+	 * 
+	 * @param text
+	 *            The text.
+	 * @param end
+	 *            The index at which the line ends.
+	 * @return The index of the first character of the next line, or -1 if the
+	 *         line ended at the end of the text.
+	 */
+	private int findNextLine(final CharSequence text, final int end) {
+		if (end == text.length()) {
+			return -1;
+		}
+		// A line that is wrapped at a space or ends at a newline resumes after it.
+		final int codePoint = codePointAt(text, end);
+		final int endChar = normaliseWhitespace(translate(codePoint));
+		return endChar == ' ' || endChar == '\n' ? end + Character.charCount(codePoint) : end;
+	}
+
+	/**
+	 * Finds the first character of text from an index that is interpreted as a
+	 * newline.
+	 * 
+	 * @return The index of the newline, or the length of the text if there is
+	 *         none.
+	 */
+	private int findNewline(final CharSequence text, final int start) {
+		int codePoint;
+		for (int index = start; index < text.length(); index += Character.charCount(codePoint)) {
+			codePoint = codePointAt(text, index);
+			if (normaliseWhitespace(translate(codePoint)) == '\n') {
+				return index;
+			}
+		}
+		return text.length();
+	}
+
+	/**
+	 * Measures the width of a line of text as it would be rendered, with the same
+	 * overlap amounts that rendering uses.
+	 * 
+	 * @param text
+	 *            The text to measure.
+	 * @param start
+	 *            The index of the first character of the line.
+	 * @param end
+	 *            The index at which the line ends.
+	 * @return The width of the line.
+	 */
+	private int measureLine(final CharSequence text, final int start, final int end) {
+		int lineWidth = 0;
+
+		int prevChar = '\0';
+		int codePoint;
+		for (int index = start; index < end; index += Character.charCount(codePoint)) {
+			codePoint = codePointAt(text, index);
+			int character = normaliseWhitespace(translate(codePoint));
+
+			if (isUnprintable(character)) {
+				continue;
+			}
+
+			character = resolveCharacter(character);
+			if (character == SKIPPED_CHARACTER) {
+				continue;
 			}
+			final FigCharacter figChar = figFont.getFigCharacter(character);
+
+			final int width = figChar.getWidth();
+			lineWidth += width - Math.min(overlapTable.getOverlapAmount(prevChar, character),
+					Math.min(width, lineWidth));
+			prevChar = character;
 		}
 
-		result.append(rowBuilders.stream().map((rowBuilder) -> rowBuilder.toString())
-				.map(s -> s.replace(figFont.getHardBlankChar(), ' ')).collect(Collectors.joining("\n")));
+		return lineWidth;
+	}
 
-		return result.toString();
+	/**
+	 * Counts the characters at the start of a line of text that fit into a number
+	 * of columns once rendered.
+	 * 
+	 * @param text
+	 *            The text to fit.
+	 * @param end
+	 *            The index at which the line ends.
+	 * @param columns
+	 *            The number of columns into which the characters must fit.
+	 * @return The number of characters from the start of the text that fit.
+	 */
+	private int countFitting(final CharSequence text, final int end, final int columns) {
+		int lineWidth = 0;
+
+		int prevChar = '\0';
+		int codePoint;
+		for (int index = 0; index < end; index += Character.charCount(codePoint)) {
+			codePoint = codePointAt(text, index);
+			int character = normaliseWhitespace(translate(codePoint));
+
+			if (isUnprintable(character)) {
+				continue;
+			}
+
+			character = resolveCharacter(character);
+			if (character == SKIPPED_CHARACTER) {
+				continue;
+			}
+			final FigCharacter figChar = figFont.getFigCharacter(character);
+
+			final int width = figChar.getWidth();
+			final int newLineWidth = lineWidth + width
+					- Math.min(overlapTable.getOverlapAmount(prevChar, character), Math.min(width, lineWidth));
+			if (newLineWidth > columns) {
+				return index;
+			}
+			lineWidth = newLineWidth;
+			prevChar = character;
+		}
+
+		return end;
+	}
+
+	/**
+	 * Finds where a line of text ends once it is wrapped to the maximum width, in
+	 * a single pass that measures the line as it would be rendered. The width of
+	 * the line is tracked with the same overlap amounts that rendering uses, so
+	 * no part of the line is rendered to measure it.
+	 * 
+	 * @param text
+	 *            The text to wrap.
+	 * @param start
+	 *            The index of the first character of the line.
+	 * @param overlapTable
+	 *            The overlap amounts with which the line is rendered.
+	 * @return The index of the character at which the line ends: the newline
+	 *         that ends it, the space at which it is wrapped, the first character
+	 *         that does not fit, or the length of the text.
+	 */
+	private int findLineEnd(final CharSequence text, final int start, final OverlapTable overlapTable) {
+		int lineWidth = 0;
+		int spaceIndex = -1;
+
+		int prevChar = '\0';
+		int codePoint;
+		for (int index = start; index < text.length(); index += Character.charCount(codePoint)) {
+			codePoint = codePointAt(text, index);
+			int character = normaliseWhitespace(translate(codePoint));
+
+			if (character == '\n') {
+				return index;
+			}
+
+			if (isUnprintable(character)) {
+				continue;
+			}
+
+			character = resolveCharacter(character);
+			if (character == SKIPPED_CHARACTER) {
+				continue;
+			}
+			final FigCharacter figChar = figFont.getFigCharacter(character);
+
+			// This is how much a RowBuffer grows when the FIGcharacter is added to it.
+			final int width = figChar.getWidth();
+			final int smushAmount = Math.min(overlapTable.getOverlapAmount(prevChar, character),
+					Math.min(width, lineWidth));
+			final int newLineWidth = lineWidth + width - smushAmount;
+
+			if (newLineWidth > maxWidth && lineWidth > 0) {
+				// Wrap at the last space, unless the FIGcharacter that does not fit is a
+				// space itself or there is no space to wrap at.
+				return character != ' ' && spaceIndex >= 0 ? spaceIndex : index;
+			}
+
+			if (character == ' ' && lineWidth > 0) {
+				spaceIndex = index;
+			}
+			lineWidth = newLineWidth;
+			prevChar = character;
+		}
+
+		return text.length();
+	}
+
+	/**
+	 * Returns the character code whose FIGcharacter renders a character. Like
+	 * FIGlet, characters that the font does not contain are rendered with the
+	 * FIGcharacter for character code 0, if the font has one, and skipped
+	 * otherwise. The substitute is not smushed with its neighbours.
+	 * 
+	 * @param character
+	 *            The character to render.
+	 * @return The character itself if the font contains it, 0 if it is rendered
+	 *         with the substitute, or {@link #SKIPPED_CHARACTER} if it is skipped.
+	 */
+	private int resolveCharacter(final int character) {
+		if (figFont.getFigCharacter(character) != null) {
+			return character;
+		}
+		return figFont.getFigCharacter('\0') != null ? '\0' : SKIPPED_CHARACTER;
+	}
+
+	/**
+	 * Returns the code point of text at an index. Only a high surrogate is
+	 * combined with the character after it, so characters of the Basic
+	 * Multilingual Plane are read as cheaply as by {@link CharSequence#charAt(int)}.
+	 */
+	private static int codePointAt(final CharSequence text, final int index) {
+		final char character = text.charAt(index);
+		return Character.isHighSurrogate(character) ? Character.codePointAt(text, index) : character;
+	}
+
+	/**
+	 * Returns a code point of text as translated by the control file, if there is
+	 * one, which is applied before whitespace is normalised as FIGlet applies it
+	 * as each character is read.
+	 */
+	private int translate(final int codePoint) {
+		return controlFile == null ? codePoint : controlFile.translate(codePoint);
+	}
+
+	/**
+	 * Returns a code point of text with tabs and spaces treated as spaces, and
+	 * all other whitespace characters treated as newlines.
+	 */
+	private static int normaliseWhitespace(final int character) {
+		if (Character.isWhitespace(character)) {
+			return (character == '\t' || character == ' ') ? ' ' : '\n';
+		}
+		return character;
+	}
+
+	/**
+	 * Returns whether a code point of text is an unprintable character, which is
+	 * not rendered.
+	 */
+	private static boolean isUnprintable(final int character) {
+		return (character > '\0' && character < ' ') || character == 127;
+	}
+
+	/**
+	 * Prepares to append the FIGlet lines of a new text.
+	 */
+	private void startLines(final RenderScratch scratch) {
+		scratch.resetOutputLength();
+		if (isVerticalLayout()) {
+			scratch.getVerticalBuffer().clear();
+		}
+	}
+
+	/**
+	 * Appends the rows of a FIGlet line that are final, each preceded by a newline
+	 * unless it is the first row of the text, replacing hardblanks with spaces.
+	 * If vertical fitting or smushing is in use then the line is placed below the
+	 * lines before it, and its bottom rows are held back until the next line has
+	 * been placed, or until {@link #finishLines(RenderScratch, boolean, Appendable)}.
+	 * 
+	 * @return Whether the first row of the text is still to be appended.
+	 */
+	private boolean appendLine(final RowBuffer rowBuffer, final RenderScratch scratch, final boolean firstRow,
+			final Appendable appendable) throws IOException {
+		boolean first = firstRow;
+
+		if (isVerticalLayout()) {
+			final VerticalBuffer verticalBuffer = scratch.getVerticalBuffer();
+			final int overlap = verticalBuffer.calculateOverlap(rowBuffer, smushMode);
+			for (int row = 0; row < verticalBuffer.getRowCount() - overlap; row++) {
+				appendRow(verticalBuffer.getRow(row), 0, verticalBuffer.getRowLength(row), first, appendable);
+				scratch.addOutputLength(verticalBuffer.getRowLength(row) + (first ? 0 : 1));
+				first = false;
+			}
+			verticalBuffer.add(rowBuffer, overlap, smushMode);
+		} else {
+			for (int row = 0; row < rowBuffer.getHeight(); row++) {
+				appendRow(rowBuffer.getRow(row), rowBuffer.getStart(), rowBuffer.getLength(), first, appendable);
+				scratch.addOutputLength(rowBuffer.getLength() + (first ? 0 : 1));
+				first = false;
+			}
+		}
+
+		return first;
+	}
+
+	/**
+	 * Appends the rows that are held back by vertical fitting or smushing once the
+	 * last FIGlet line of a text has been appended.
+	 */
+	private void finishLines(final RenderScratch scratch, final boolean firstRow, final Appendable appendable)
+			throws IOException {
+		if (isVerticalLayout()) {
+			final VerticalBuffer verticalBuffer = scratch.getVerticalBuffer();
+			boolean first = firstRow;
+			for (int row = 0; row < verticalBuffer.getRowCount(); row++) {
+				appendRow(verticalBuffer.getRow(row), 0, verticalBuffer.getRowLength(row), first, appendable);
+				scratch.addOutputLength(verticalBuffer.getRowLength(row) + (first ? 0 : 1));
+				first = false;
+			}
+		}
+	}
+
+	/**
+	 * Appends a row, preceded by a newline unless it is the first row, replacing
+	 * hardblanks with spaces.
+	 */
+	private void appendRow(final char[] rowData, final int start, final int length, final boolean firstRow,
+			final Appendable appendable) throws IOException {
+		final char hardBlankChar = figFont.getHardBlankChar();
+		final int end = start + length;
+
+		if (!firstRow) {
+			appendable.append('\n');
+		}
+
+		if (appendable instanceof StringBuilder) {
+			final StringBuilder stringBuilder = (StringBuilder) appendable;
+			int runStart = start;
+			for (int column = start; column < end; column++) {
+				if (rowData[column] == hardBlankChar) {
+					stringBuilder.append(rowData, runStart, column - runStart).append(' ');
+					runStart = column + 1;
+				}
+			}
+			stringBuilder.append(rowData, runStart, end - runStart);
+		} else if (appendable instanceof Writer) {
+			final Writer writer = (Writer) appendable;
+			int runStart = start;
+			for (int column = start; column < end; column++) {
+				if (rowData[column] == hardBlankChar) {
+					writer.write(rowData, runStart, column - runStart);
+					writer.write(' ');
+					runStart = column + 1;
+				}
+			}
+			writer.write(rowData, runStart, end - runStart);
+		} else {
+			for (int column = start; column < end; column++) {
+				final char subCharacter = rowData[column];
+				appendable.append(subCharacter == hardBlankChar ? ' ' : subCharacter);
+			}
+		}
+	}
+
+	/**
+	 * Copies the rows of a {@link RowBuffer} into an array, separated by
+	 * newlines, replacing hardblanks with spaces.
+	 * 
+	 * @return The index of the array after the last copied character.
+	 */
+	private int copyRows(final RowBuffer rowBuffer, final char[] buffer, final int start) {
+		final char hardBlankChar = figFont.getHardBlankChar();
+		final int length = rowBuffer.getLength();
+
+		int position = start;
+		for (int row = 0; row < rowBuffer.getHeight(); row++) {
+			if (row > 0) {
+				buffer[position++] = '\n';
+			}
+
+			System.arraycopy(rowBuffer.getRow(row), rowBuffer.getStart(), buffer, position, length);
+			for (int column = position; column < position + length; column++) {
+				if (buffer[column] == hardBlankChar) {
+					buffer[column] = ' ';
+				}
+			}
+			position += length;
+		}
+
+		return position;
+	}
+
+	/**
+	 * Copies a row into an array, preceded by a newline unless it is the first
+	 * row, replacing hardblanks with spaces.
+	 * 
+	 * @return The index of the array after the last copied character.
+	 * @throws BufferOverflowException
+	 *             if the row does not fit before the end index.
+	 */
+	private int copyRow(final char[] rowData, final int start, final int length, final boolean firstRow,
+			final char[] buffer, final int position, final int end) throws BufferOverflowException {
+		final char hardBlankChar = figFont.getHardBlankChar();
+
+		int rowPosition = position;
+		if (rowPosition + length + (firstRow ? 0 : 1) > end) {
+			throw new BufferOverflowException();
+		}
+		if (!firstRow) {
+			buffer[rowPosition++] = '\n';
+		}
+
+		System.arraycopy(rowData, start, buffer, rowPosition, length);
+		for (int column = rowPosition; column < rowPosition + length; column++) {
+			if (buffer[column] == hardBlankChar) {
+				buffer[column] = ' ';
+			}
+		}
+
+		return rowPosition + length;
+	}
+
+	/**
+	 * Returns the number of characters that the rows of a {@link RowBuffer} occupy
+	 * once they are separated by newlines.
+	 */
+	private static int renderedLength(final RowBuffer rowBuffer) {
+		return rowBuffer.getHeight() == 0 ? 0
+				: (rowBuffer.getHeight() * (rowBuffer.getLength() + 1)) - 1;
+	}
+
+	/**
+	 * Renders text as FIGlet text by rendering segments of it in parallel, and
+	 * appends the rendered segments in order.
+	 * 
+	 * @return The number of characters appended.
+	 */
+	private long renderParallelTo(final CharSequence text, final int[] segmentStarts, final Appendable appendable)
+			throws IOException {
+		final boolean verticalLayout = isVerticalLayout();
+
+		final List<CompletableFuture<RenderedSegment>> segments = new ArrayList<>(segmentStarts.length);
+		for (int segment = 0; segment < segmentStarts.length; segment++) {
+			final int start = segmentStarts[segment];
+			final int end = segment + 1 < segmentStarts.length ? segmentStarts[segment + 1] : -1;
+			segments.add(CompletableFuture.supplyAsync(
+					() -> renderSegment(text, start, end, verticalLayout), executor));
+		}
+
+		final RenderScratch scratch = scratchPool.acquire();
+		try {
+			startLines(scratch);
+			boolean firstRow = true;
+			for (final CompletableFuture<RenderedSegment> segment : segments) {
+				final RenderedSegment renderedSegment = join(segment);
+
+				if (renderedSegment.lines != null) {
+					for (final RowBuffer line : renderedSegment.lines) {
+						firstRow = appendLine(line, scratch, firstRow, appendable);
+					}
+				} else if (!renderedSegment.empty) {
+					if (!firstRow) {
+						appendable.append('\n');
+					}
+					appendable.append(renderedSegment.rows);
+					scratch.addOutputLength(renderedSegment.rows.length() + (firstRow ? 0 : 1));
+					firstRow = false;
+				}
+			}
+			finishLines(scratch, firstRow, appendable);
+			return scratch.getOutputLength();
+		} finally {
+			scratchPool.release(scratch);
+		}
+	}
+
+	/**
+	 * Renders the lines of text between two indexes, each of which is the start
+	 * of a line. Unless vertical fitting or smushing is in use, the rendered rows
+	 * of the lines are appended to one another; otherwise each line is returned in
+	 * a buffer of its own, to be fitted to the lines before it in order.
+	 * 
+	 * @param end
+	 *            The index of the first character after the segment, or -1 if the
+	 *            segment runs to the end of the text.
+	 */
+	private RenderedSegment renderSegment(final CharSequence text, final int start, final int end,
+			final boolean verticalLayout) {
+		final RenderedSegment renderedSegment = new RenderedSegment();
+
+		if (verticalLayout) {
+			renderedSegment.lines = new ArrayList<>();
+			int index = start;
+			do {
+				final RowBuffer rowBuffer = new RowBuffer(figFont.getHeight());
+				index = renderLine(text, index, rowBuffer, overlapTable);
+				renderedSegment.lines.add(rowBuffer);
+			} while (index >= 0 && index != end);
+		} else {
+			renderedSegment.rows = new StringBuilder();
+			final RenderScratch scratch = scratchPool.acquire();
+			try {
+				final RowBuffer rowBuffer = scratch.getRowBuffer();
+				boolean firstRow = true;
+				int index = start;
+				do {
+					index = renderLine(text, index, rowBuffer, overlapTable);
+					firstRow = appendLine(rowBuffer, scratch, firstRow, renderedSegment.rows);
+				} while (index >= 0 && index != end);
+				renderedSegment.empty = firstRow;
+			} catch (final IOException e) {
+				// StringBuilder does not throw IOException.
+				throw new IllegalStateException(e);
+			} finally {
+				scratchPool.release(scratch);
+			}
+		}
+
+		return renderedSegment;
+	}
+
+	/**
+	 * Waits for a future to complete, rethrowing the exception or error with which
+	 * it failed as it was thrown.
+	 */
+	private static <T> T join(final CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (final CompletionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Splits text into at most a number of segments of similar length, each of
+	 * which starts at the start of a line.
+	 * 
+	 * @return The index of the first character of each segment.
+	 */
+	private int[] findSegmentStarts(final CharSequence text, final int segmentCount) {
+		final int[] segmentStarts = new int[segmentCount];
+		int count = 1;
+
+		for (int segment = 1; segment < segmentCount; segment++) {
+			int index = Math.max((int) ((long) text.length() * segment / segmentCount), segmentStarts[count - 1]);
+			// Start the search at a whole code point, rather than the second half of a
+			// surrogate pair.
+			if (index > 0 && index < text.length() && Character.isLowSurrogate(text.charAt(index))
+					&& Character.isHighSurrogate(text.charAt(index - 1))) {
+				index++;
+			}
+			int newlineLength = 0;
+			while (index < text.length()) {
+				final int codePoint = codePointAt(text, index);
+				if (normaliseWhitespace(translate(codePoint)) == '\n') {
+					newlineLength = Character.charCount(codePoint);
+					break;
+				}
+				index += Character.charCount(codePoint);
+			}
+			// A segment must not start at the end of the text, or the empty line that
+			// follows a final newline would be lost.
+			final int segmentStart = index + newlineLength;
+			if (newlineLength == 0 || segmentStart >= text.length()) {
+				break;
+			}
+			if (segmentStart > segmentStarts[count - 1]) {
+				segmentStarts[count++] = segmentStart;
+			}
+		}
+
+		final int[] result = new int[count];
+		System.arraycopy(segmentStarts, 0, result, 0, count);
+		return result;
+	}
+
+	/**
+	 * Returns the number of segments into which to split text to be rendered in
+	 * parallel, which is the number of threads that the executor is expected to
+	 * render with.
+	 */
+	private static int getParallelism(final Executor executor) {
+		if (executor instanceof ForkJoinPool) {
+			return Math.max(1, ((ForkJoinPool) executor).getParallelism());
+		}
+		return Math.max(2, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * RenderedSegment holds a segment of text that has been rendered in parallel.
+	 */
+	private static final class RenderedSegment {
+		/**
+		 * The rendered rows of the segment, separated by newlines, unless vertical
+		 * fitting or smushing is in use.
+		 */
+		private StringBuilder rows;
+
+		/**
+		 * Whether {@link #rows} holds no rows at all, as opposed to a single empty
+		 * row.
+		 */
+		private boolean empty;
+
+		/**
+		 * The rendered lines of the segment, if vertical fitting or smushing is in
+		 * use.
+		 */
+		private List<RowBuffer> lines;
+	}
+
+	/**
+	 * Returns whether a text is long enough to be rendered in parallel, if
+	 * parallel rendering is enabled.
+	 */
+	private boolean isParallel(final CharSequence text) {
+		return parallel && text.length() >= parallelThreshold;
+	}
+
+	/**
+	 * Returns whether the current smushing mode fits or smushes FIGlet lines
+	 * vertically.
+	 * 
+	 * @return <code>true</code> if FIGlet lines are fitted or smushed vertically.
+	 */
+	private boolean isVerticalLayout() {
+		return LayoutOptions.islayoutOptionSelected(
+				LayoutOptions.VERTICAL_FITTING_BY_DEFAULT | LayoutOptions.VERTICAL_SMUSHING_BY_DEFAULT, smushMode);
+	}
+
+	/**
+	 * LineStream renders text that arrives in pieces, rendering and writing out
+	 * each line of text as soon as it is finished. Only the text of the line that
+	 * is not yet finished is held. The buffers with which the lines are rendered
+	 * are held until the LineStream is released.
+	 */
+	private final class LineStream {
+		private final Writer writer;
+		private final StringBuilder text = new StringBuilder();
+
+		/**
+		 * The number of characters at the start of the text that are known not to
+		 * contain a newline. This is only used when the width of lines is not
+		 * limited, so that a long line is not searched again for every piece.
+		 */
+		private int searchedLength;
+
+		private final RenderScratch scratch = scratchPool.acquire();
+		private boolean firstRow = true;
+
+		private final FigletListener listener = FigletListeners.getListener();
+		private final long startTime = FigletListeners.isActive(listener) ? System.nanoTime() : 0;
+		private final Object event = FigletEvents.beginRender();
+		private long inputLength;
+
+		LineStream(final Writer writer) {
+			this.writer = writer;
+			startLines(scratch);
+		}
+
+		void append(final char[] chars, final int count) throws IOException {
+			text.append(chars, 0, count);
+			inputLength += count;
+			renderFinishedLines();
+		}
+
+		void append(final CharSequence chars) throws IOException {
+			text.append(chars);
+			inputLength += chars.length();
+			renderFinishedLines();
+		}
+
+		/**
+		 * Renders the rest of the text, which is its last line.
+		 */
+		void finish() throws IOException {
+			final RowBuffer rowBuffer = scratch.getRowBuffer();
+
+			int index = 0;
+			do {
+				index = renderLine(text, index, rowBuffer);
+				firstRow = appendLine(rowBuffer, scratch, firstRow, writer);
+			} while (index >= 0);
+
+			finishLines(scratch, firstRow, writer);
+			text.setLength(0);
+			writer.flush();
+
+			FigletEvents.commitRender(event, FigletRenderer.this, inputLength, scratch.getOutputLength());
+			if (FigletListeners.isActive(listener)) {
+				listener.textRendered(FigletRenderer.this, inputLength, scratch.getOutputLength(),
+						System.nanoTime() - startTime);
+			}
+		}
+
+		/**
+		 * Returns the buffers with which the lines were rendered to the pool.
+		 */
+		void release() {
+			scratchPool.release(scratch);
+		}
+
+		private void renderFinishedLines() throws IOException {
+			final RowBuffer rowBuffer = scratch.getRowBuffer();
+
+			int start = 0;
+			while (isLineFinished(start)) {
+				start = renderLine(text, start, rowBuffer);
+				firstRow = appendLine(rowBuffer, scratch, firstRow, writer);
+				writer.flush();
+			}
+
+			if (start > 0) {
+				text.delete(0, start);
+				searchedLength = Math.max(0, searchedLength - start);
+			}
+		}
+
+		/**
+		 * Returns whether the line of text that starts at an index is finished, and
+		 * so can be rendered without reading any more text.
+		 */
+		private boolean isLineFinished(final int start) {
+			if (maxWidth > 0) {
+				// A high surrogate at the end of the text may be the first half of a code
+				// point whose second half has not been read yet, so it must not decide
+				// where the line is wrapped.
+				final int length = text.length();
+				if (length > start && Character.isHighSurrogate(text.charAt(length - 1))) {
+					return findLineEnd(text.subSequence(0, length - 1), start, overlapTable) < length - 1;
+				}
+				return findLineEnd(text, start, overlapTable) < length;
+			}
+
+			int index = Math.max(start, searchedLength);
+			int codePoint;
+			for (; index < text.length(); index += Character.charCount(codePoint)) {
+				// A high surrogate at the end of the text is searched again once the
+				// second half of its code point has been read.
+				if (index == text.length() - 1 && Character.isHighSurrogate(text.charAt(index))) {
+					break;
+				}
+				codePoint = codePointAt(text, index);
+				if (normaliseWhitespace(translate(codePoint)) == '\n') {
+					return true;
+				}
+			}
+			searchedLength = index;
+			return false;
+		}
+	}
+
+	/**
+	 * Builder builds {@link FigletRenderer} instances.
+	 */
+	public static class Builder {
+		private final FigFont figFont;
+		private int smushMode;
+		private FigFont.PrintDirection printDirection;
+		private int maxWidth;
+		private boolean parallel;
+		private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+		private Executor executor = ForkJoinPool.commonPool();
+		private FigletControlFile controlFile;
+
+		/**
+		 * Constructs a new instance of Builder, initialised with the default
+		 * smushing mode and print direction of a FIGfont.
+		 * 
+		 * @param figFont
+		 *            The FIGlet font with which to render text.
+		 * @throws IllegalArgumentException
+		 *             if the font is <code>null</code>.
+		 */
+		public Builder(final FigFont figFont) throws IllegalArgumentException {
+			if (figFont == null) {
+				throw new IllegalArgumentException("FIGfont must not be null");
+			}
+			this.figFont = figFont;
+			this.smushMode = figFont.getFullLayout();
+			this.printDirection = figFont.getPrintDirection();
+		}
+
+		public FigFont getFigFont() {
+			return figFont;
+		}
+
+		public int getSmushMode() {
+			return smushMode;
+		}
+
+		/**
+		 * Sets the text smushing mode that will be used when rendering FIGlet text.
+		 * If not set then the default smushing mode specified by the FIGfont will be
+		 * used.
+		 * 
+		 * @param smushMode
+		 *            The text smushing mode to set.
+		 * @return This builder.
+		 */
+		public Builder setSmushMode(final int smushMode) {
+			this.smushMode = smushMode;
+			return this;
+		}
+
+		public FigFont.PrintDirection getPrintDirection() {
+			return printDirection;
+		}
+
+		/**
+		 * Sets the print direction for rendered FIGlet text. If not set then the
+		 * default print direction of the FIGfont will be used.
+		 * 
+		 * @param printDirection
+		 *            The print direction to set.
+		 * @return This builder.
+		 * @throws IllegalArgumentException
+		 *             if the print direction is <code>null</code>.
+		 */
+		public Builder setPrintDirection(final FigFont.PrintDirection printDirection)
+				throws IllegalArgumentException {
+			if (printDirection == null) {
+				throw new IllegalArgumentException("Print direction must not be null");
+			}
+			this.printDirection = printDirection;
+			return this;
+		}
+
+		public int getMaxWidth() {
+			return maxWidth;
+		}
+
+		/**
+		 * Sets the maximum width of rendered FIGlet lines, measured in
+		 * sub-characters. Text that would render wider than this is wrapped onto
+		 * further FIGlet lines, breaking at the last space that fits, which is not
+		 * rendered, or between two characters of a word that is too wide to fit on
+		 * a line of its own. A line always holds at least one character, even if
+		 * that character is wider than the maximum. If not set, or set to 0, then
+		 * the width of FIGlet lines is not limited.
+		 * 
+		 * @param maxWidth
+		 *            The maximum width to set, or 0 to not limit the width.
+		 * @return This builder.
+		 * @throws IllegalArgumentException
+		 *             if the maximum width is negative.
+		 */
+		public Builder setMaxWidth(final int maxWidth) throws IllegalArgumentException {
+			if (maxWidth < 0) {
+				throw new IllegalArgumentException("Maximum width must not be negative: " + maxWidth);
+			}
+			this.maxWidth = maxWidth;
+			return this;
+		}
+
+		public boolean isParallel() {
+			return parallel;
+		}
+
+		/**
+		 * Sets whether long texts are rendered in parallel by
+		 * {@link FigletRenderer#renderText(String)} and
+		 * {@link FigletRenderer#renderTo(CharSequence, Appendable)}. If set, then
+		 * text at least as long as the parallel threshold is split into segments at
+		 * newlines, and the segments are rendered by the executor. The rendered
+		 * segments are joined in order, so the output is the same as if the text
+		 * were rendered by a single thread. If vertical fitting or smushing is in
+		 * use then the FIGlet lines are rendered in parallel, but are fitted
+		 * together by the calling thread. Text that contains few newlines gains
+		 * little. If not set then text is rendered by the calling thread.
+		 * 
+		 * @param parallel
+		 *            Whether to render long texts in parallel.
+		 * @return This builder.
+		 */
+		public Builder setParallel(final boolean parallel) {
+			this.parallel = parallel;
+			return this;
+		}
+
+		public int getParallelThreshold() {
+			return parallelThreshold;
+		}
+
+		/**
+		 * Sets the length of text, in characters, from which text is rendered in
+		 * parallel when parallel rendering is enabled. Shorter text is rendered by
+		 * the calling thread, as it would not gain enough to pay for handing it to
+		 * other threads. If not set then
+		 * {@value FigletRenderer#DEFAULT_PARALLEL_THRESHOLD} is used.
+		 * 
+		 * @param parallelThreshold
+		 *            The length of text from which to render text in parallel.
+		 * @return This builder.
+		 * @throws IllegalArgumentException
+		 *             if the threshold is negative.
+		 */
+		public Builder setParallelThreshold(final int parallelThreshold) throws IllegalArgumentException {
+			if (parallelThreshold < 0) {
+				throw new IllegalArgumentException("Parallel threshold must not be negative: " + parallelThreshold);
+			}
+			this.parallelThreshold = parallelThreshold;
+			return this;
+		}
+
+		public Executor getExecutor() {
+			return executor;
+		}
+
+		/**
+		 * Sets the executor by which text is rendered in parallel. If not set then
+		 * the {@link ForkJoinPool#commonPool() common pool} is used.
+		 * 
+		 * @param executor
+		 *            The executor to set.
+		 * @return This builder.
+		 * @throws IllegalArgumentException
+		 *             if the executor is <code>null</code>.
+		 */
+		public Builder setExecutor(final Executor executor) throws IllegalArgumentException {
+			if (executor == null) {
+				throw new IllegalArgumentException("Executor must not be null");
+			}
+			this.executor = executor;
+			return this;
+		}
+
+		public FigletControlFile getControlFile() {
+			return controlFile;
+		}
+
+		/**
+		 * Sets the control file by which the characters of text are translated
+		 * before they are rendered, as by the <code>-C</code> option of FIGlet. The
+		 * translation is applied to each character as it is rendered, measured or
+		 * wrapped, so the text is not copied. If not set then characters are not
+		 * translated.
+		 * 
+		 * @param controlFile
+		 *            The control file to set, or <code>null</code> to not translate
+		 *            characters.
+		 * @return This builder.
+		 */
+		public Builder setControlFile(final FigletControlFile controlFile) {
+			this.controlFile = controlFile;
+			return this;
+		}
+
+		public FigletRenderer build() {
+			return new FigletRenderer(this);
+		}
 	}
 }
@@ -0,0 +1,32 @@
+package com.github.dtmo.jfiglet;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * FontLoadEvent is the JDK Flight Recorder event that records the loading of a
+ * {@link FigFont}.
+ */
+@Name("com.github.dtmo.jfiglet.FontLoad")
+@Label("FIGfont Load")
+@Description("A FIGfont read from a FIGfont file or a compiled font")
+@Category("JFiglet")
+final class FontLoadEvent extends jdk.jfr.Event {
+	@Label("Font Name")
+	@Description("The name of the resource or file from which the font was read, if known")
+	String fontName;
+
+	@Label("Font Id")
+	@Description("The identity hash code of the font")
+	int fontId;
+
+	@Label("Glyph Count")
+	@Description("The number of FIGcharacters defined by the font")
+	int glyphCount;
+
+	@Label("Size")
+	@Description("The amount of font data read, in characters for a FIGfont file or bytes for a compiled font")
+	long size;
+}
@@ -0,0 +1,362 @@
+package com.github.dtmo.jfiglet;
+
+import java.util.Arrays;
+
+import com.github.dtmo.jfiglet.FigFont.FigCharacter;
+
+/**
+ * GlyphTable maps character codes to the {@link FigCharacter} instances of a
+ * font.
+ * <p>
+ * Character codes 0 to 255, which include all of the FIGcharacters that a
+ * FIGfont is required to define, are looked up directly in an array. All other
+ * code-tagged FIGcharacters are held in an open-addressing hash table keyed by
+ * the primitive code, so lookups never box the code.
+ * </p>
+ * <p>
+ * A table may instead be filled lazily, with the index of each FIGcharacter in
+ * a {@link GlyphDecoder} rather than the FIGcharacter itself. Each
+ * FIGcharacter is then decoded the first time that it is looked up, and
+ * remembered. Once every FIGcharacter has been decoded, the decoder is
+ * released, along with the font data that it decodes from. The codes and
+ * indexes of a lazy table must all be added before it is shared, after which
+ * lookups may be made from any number of threads. Only decoding locks the
+ * table, so that each FIGcharacter is decoded once: as {@link FigCharacter} is
+ * immutable, a lookup that does not lock sees either no FIGcharacter, and
+ * decodes it, or a completely constructed one.
+ * </p>
+ */
+final class GlyphTable {
+	/**
+	 * GlyphDecoder decodes the FIGcharacters of a lazy {@link GlyphTable}.
+	 */
+	interface GlyphDecoder {
+		/**
+		 * Decodes a FIGcharacter. This may be called from any thread.
+		 *
+		 * @param glyph
+		 *            The index of the FIGcharacter to decode.
+		 * @return The decoded FIGcharacter.
+		 */
+		FigCharacter decode(int glyph);
+	}
+
+	/**
+	 * The number of character codes that are looked up directly.
+	 */
+	static final int DIRECT_SIZE = 256;
+
+	/**
+	 * The key that marks an unused slot of the hash table. The FIGfont
+	 * specification does not permit a code tag of -2147483648.
+	 */
+	private static final int EMPTY_KEY = Integer.MIN_VALUE;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final FigCharacter[] directFigCharacters = new FigCharacter[DIRECT_SIZE];
+
+	private int[] keys;
+	private FigCharacter[] values;
+	private int size;
+	private int directCount;
+
+	/**
+	 * The decoder of a lazy table, and the index of the FIGcharacter of every code
+	 * that has one, or -1. These are <code>null</code> if the table is not lazy,
+	 * and the decoder is also <code>null</code> once there are no FIGcharacters
+	 * left to decode.
+	 */
+	private GlyphDecoder decoder;
+	private final int[] directGlyphs;
+	private int[] glyphs;
+
+	/**
+	 * The number of FIGcharacters of a lazy table that have not been decoded.
+	 */
+	private int undecodedCount;
+
+	/**
+	 * Constructs a new, empty instance of GlyphTable.
+	 */
+	GlyphTable() {
+		this(null);
+	}
+
+	/**
+	 * Constructs a new, empty instance of GlyphTable that is filled lazily.
+	 *
+	 * @param decoder
+	 *            The decoder of the FIGcharacters added with
+	 *            {@link #putGlyph(int, int)}, or <code>null</code> if the table
+	 *            is not lazy.
+	 */
+	GlyphTable(final GlyphDecoder decoder) {
+		keys = new int[INITIAL_CAPACITY];
+		Arrays.fill(keys, EMPTY_KEY);
+		values = new FigCharacter[INITIAL_CAPACITY];
+
+		this.decoder = decoder;
+		if (decoder != null) {
+			directGlyphs = new int[DIRECT_SIZE];
+			Arrays.fill(directGlyphs, -1);
+			glyphs = new int[INITIAL_CAPACITY];
+			Arrays.fill(glyphs, -1);
+		} else {
+			directGlyphs = null;
+		}
+	}
+
+	/**
+	 * Returns the {@link FigCharacter} for a character code.
+	 *
+	 * @param code
+	 *            The character code for which to return a {@link FigCharacter}.
+	 * @return The {@link FigCharacter} for the character code, or
+	 *         <code>null</code> if there is none.
+	 */
+	FigCharacter get(final int code) {
+		if ((code & ~(DIRECT_SIZE - 1)) == 0) {
+			final FigCharacter figCharacter = directFigCharacters[code];
+			if (figCharacter != null || directGlyphs == null || directGlyphs[code] < 0) {
+				return figCharacter;
+			}
+			return decodeDirect(code);
+		}
+
+		final int mask = keys.length - 1;
+		for (int slot = hash(code) & mask;; slot = (slot + 1) & mask) {
+			final int key = keys[slot];
+			if (key == code) {
+				final FigCharacter figCharacter = values[slot];
+				if (figCharacter != null || glyphs == null || glyphs[slot] < 0) {
+					return figCharacter;
+				}
+				return decode(slot);
+			} else if (key == EMPTY_KEY) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Decodes the FIGcharacter for a character code that is looked up directly,
+	 * unless another thread has decoded it already.
+	 */
+	private synchronized FigCharacter decodeDirect(final int code) {
+		FigCharacter figCharacter = directFigCharacters[code];
+		if (figCharacter == null) {
+			figCharacter = decoder.decode(directGlyphs[code]);
+			directFigCharacters[code] = figCharacter;
+			decoded();
+		}
+		return figCharacter;
+	}
+
+	/**
+	 * Decodes the FIGcharacter in a slot of the hash table, unless another thread
+	 * has decoded it already.
+	 */
+	private synchronized FigCharacter decode(final int slot) {
+		FigCharacter figCharacter = values[slot];
+		if (figCharacter == null) {
+			figCharacter = decoder.decode(glyphs[slot]);
+			values[slot] = figCharacter;
+			decoded();
+		}
+		return figCharacter;
+	}
+
+	/**
+	 * Counts a FIGcharacter as decoded, releasing the decoder once there are none
+	 * left to decode.
+	 */
+	private void decoded() {
+		if (--undecodedCount == 0) {
+			decoder = null;
+		}
+	}
+
+	/**
+	 * Returns the number of FIGcharacters of a lazy table that have not yet been
+	 * decoded.
+	 *
+	 * @return The number of FIGcharacters left to decode.
+	 */
+	synchronized int getUndecodedCount() {
+		return undecodedCount;
+	}
+
+	/**
+	 * Sets the {@link FigCharacter} for a character code.
+	 *
+	 * @param code
+	 *            The character code to set.
+	 * @param figCharacter
+	 *            The {@link FigCharacter} for the character code.
+	 * @throws IllegalArgumentException
+	 *             if the code is -2147483648, which is not a legal code tag.
+	 */
+	void put(final int code, final FigCharacter figCharacter) throws IllegalArgumentException {
+		if ((code & ~(DIRECT_SIZE - 1)) == 0) {
+			if (!containsDirect(code)) {
+				directCount++;
+			}
+			if (directGlyphs != null) {
+				if (directFigCharacters[code] == null && directGlyphs[code] >= 0) {
+					undecodedCount--;
+				}
+				directGlyphs[code] = -1;
+			}
+			directFigCharacters[code] = figCharacter;
+			return;
+		}
+
+		final int slot = findSlot(code);
+		if (glyphs != null) {
+			if (values[slot] == null && glyphs[slot] >= 0) {
+				undecodedCount--;
+			}
+			glyphs[slot] = -1;
+		}
+		values[slot] = figCharacter;
+	}
+
+	/**
+	 * Sets the index of the FIGcharacter for a character code in a lazy table,
+	 * which is decoded when the code is first looked up.
+	 *
+	 * @param code
+	 *            The character code to set.
+	 * @param glyph
+	 *            The index of the FIGcharacter to pass to the
+	 *            {@link GlyphDecoder}.
+	 * @throws IllegalArgumentException
+	 *             if the code is -2147483648, which is not a legal code tag.
+	 * @throws IllegalStateException
+	 *             if the table is not lazy.
+	 */
+	void putGlyph(final int code, final int glyph) throws IllegalArgumentException, IllegalStateException {
+		if (decoder == null) {
+			throw new IllegalStateException("Glyph table is not lazy");
+		}
+
+		if ((code & ~(DIRECT_SIZE - 1)) == 0) {
+			if (!containsDirect(code)) {
+				directCount++;
+			}
+			if (directFigCharacters[code] != null || directGlyphs[code] < 0) {
+				undecodedCount++;
+			}
+			directFigCharacters[code] = null;
+			directGlyphs[code] = glyph;
+			return;
+		}
+
+		final int slot = findSlot(code);
+		if (values[slot] != null || glyphs[slot] < 0) {
+			undecodedCount++;
+		}
+		values[slot] = null;
+		glyphs[slot] = glyph;
+	}
+
+	/**
+	 * Returns the number of character codes that have a {@link FigCharacter}.
+	 *
+	 * @return The number of character codes that have a {@link FigCharacter}.
+	 */
+	int size() {
+		return directCount + size;
+	}
+
+	/**
+	 * Returns the character codes that have a {@link FigCharacter}, in ascending
+	 * order.
+	 *
+	 * @return The character codes that have a {@link FigCharacter}.
+	 */
+	int[] getCodes() {
+		final int[] codes = new int[DIRECT_SIZE + size];
+		int count = 0;
+
+		for (int code = 0; code < DIRECT_SIZE; code++) {
+			if (containsDirect(code)) {
+				codes[count++] = code;
+			}
+		}
+		for (final int key : keys) {
+			if (key != EMPTY_KEY) {
+				codes[count++] = key;
+			}
+		}
+
+		final int[] result = Arrays.copyOf(codes, count);
+		Arrays.sort(result);
+		return result;
+	}
+
+	private boolean containsDirect(final int code) {
+		return directFigCharacters[code] != null || (directGlyphs != null && directGlyphs[code] >= 0);
+	}
+
+	/**
+	 * Finds the slot of the hash table for a character code, claiming an empty
+	 * slot for it if it does not have one.
+	 */
+	private int findSlot(final int code) throws IllegalArgumentException {
+		if (code == EMPTY_KEY) {
+			throw new IllegalArgumentException("Illegal character code: " + code);
+		}
+
+		// Keep the hash table at most half full.
+		if ((size + 1) * 2 > keys.length) {
+			resize(keys.length * 2);
+		}
+
+		final int mask = keys.length - 1;
+		int slot = hash(code) & mask;
+		while (keys[slot] != EMPTY_KEY && keys[slot] != code) {
+			slot = (slot + 1) & mask;
+		}
+		if (keys[slot] == EMPTY_KEY) {
+			keys[slot] = code;
+			size++;
+		}
+		return slot;
+	}
+
+	private void resize(final int capacity) {
+		final int[] oldKeys = keys;
+		final FigCharacter[] oldValues = values;
+		final int[] oldGlyphs = glyphs;
+
+		keys = new int[capacity];
+		Arrays.fill(keys, EMPTY_KEY);
+		values = new FigCharacter[capacity];
+		if (oldGlyphs != null) {
+			glyphs = new int[capacity];
+			Arrays.fill(glyphs, -1);
+		}
+
+		final int mask = capacity - 1;
+		for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+			if (oldKeys[oldSlot] != EMPTY_KEY) {
+				int slot = hash(oldKeys[oldSlot]) & mask;
+				while (keys[slot] != EMPTY_KEY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[oldSlot];
+				values[slot] = oldValues[oldSlot];
+				if (oldGlyphs != null) {
+					glyphs[slot] = oldGlyphs[oldSlot];
+				}
+			}
+		}
+	}
+
+	private static int hash(final int code) {
+		final int hash = code * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+}
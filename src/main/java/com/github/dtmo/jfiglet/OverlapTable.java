@@ -0,0 +1,164 @@
+package com.github.dtmo.jfiglet;
+
+import java.util.Arrays;
+
+import com.github.dtmo.jfiglet.FigFont.FigCharacter;
+import com.github.dtmo.jfiglet.FigFont.PrintDirection;
+
+/**
+ * OverlapTable holds the precomputed overlap amounts for every pair of
+ * printable ASCII characters of a {@link FigFont}, for a single smush mode and
+ * print direction.
+ * <p>
+ * Pairs that fall outside of the printable ASCII range are delegated to
+ * {@link FigFont#calculateOverlapAmount(int, int, int, PrintDirection)}.
+ * </p>
+ * <p>
+ * The table of a font whose FIGcharacters are decoded lazily is filled as each
+ * pair is first looked up, so that only the FIGcharacters that are rendered are
+ * decoded. Filling an entry without a lock is a benign race, as every thread
+ * calculates the same amount for it.
+ * </p>
+ */
+final class OverlapTable {
+	/**
+	 * The first character covered by the table.
+	 */
+	static final char FIRST_CHAR = ' ';
+
+	/**
+	 * The last character covered by the table.
+	 */
+	static final char LAST_CHAR = '~';
+
+	private static final int SIZE = LAST_CHAR - FIRST_CHAR + 1;
+
+	/**
+	 * The amount of a pair that has not yet been calculated.
+	 */
+	private static final short UNKNOWN = -1;
+
+	private final FigFont font;
+	private final int smushMode;
+	private final PrintDirection printDirection;
+	private final SmushTable smushTable;
+	private final short[] overlapAmounts;
+
+	private OverlapTable(final FigFont font, final int smushMode, final PrintDirection printDirection,
+			final SmushTable smushTable, final short[] overlapAmounts) {
+		this.font = font;
+		this.smushMode = smushMode;
+		this.printDirection = printDirection;
+		this.smushTable = smushTable;
+		this.overlapAmounts = overlapAmounts;
+	}
+
+	/**
+	 * Returns the amount that two FigCharacters will overlap.
+	 *
+	 * @param char1
+	 *            The code point of the first character to use in the overlap
+	 *            calculation.
+	 * @param char2
+	 *            The code point of the second character to use in the overlap
+	 *            calculation.
+	 * @return The amount of overlap measured in characters.
+	 * @see FigFont#calculateOverlapAmount(int, int, int, PrintDirection)
+	 */
+	int getOverlapAmount(final int char1, final int char2) {
+		final int index1 = char1 - FIRST_CHAR;
+		final int index2 = char2 - FIRST_CHAR;
+		if (index1 >= 0 && index1 < SIZE && index2 >= 0 && index2 < SIZE) {
+			final int index = (index1 * SIZE) + index2;
+			final short overlapAmount = overlapAmounts[index];
+			if (overlapAmount != UNKNOWN) {
+				return overlapAmount;
+			}
+			final short calculated = calculateOverlapAmount(index1, index2);
+			overlapAmounts[index] = calculated;
+			return calculated;
+		} else {
+			return font.calculateOverlapAmount(char1, char2, smushMode, printDirection);
+		}
+	}
+
+	int getSmushMode() {
+		return smushMode;
+	}
+
+	PrintDirection getPrintDirection() {
+		return printDirection;
+	}
+
+	/**
+	 * Returns the compiled smushing rules for the smush mode and print direction
+	 * of this table.
+	 *
+	 * @return The compiled smushing rules.
+	 */
+	SmushTable getSmushTable() {
+		return smushTable;
+	}
+
+	/**
+	 * Calculates the overlap amounts of every pair that has not yet been looked
+	 * up.
+	 */
+	void fill() {
+		for (int index1 = 0; index1 < SIZE; index1++) {
+			for (int index2 = 0; index2 < SIZE; index2++) {
+				final int index = (index1 * SIZE) + index2;
+				if (overlapAmounts[index] == UNKNOWN) {
+					overlapAmounts[index] = calculateOverlapAmount(index1, index2);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Calculates the overlap amount of a pair of the table, which is 0 if the
+	 * font has no FIGcharacter for either of them.
+	 */
+	private short calculateOverlapAmount(final int index1, final int index2) {
+		if (!LayoutOptions.islayoutOptionSelected(
+				LayoutOptions.HORIZONTAL_SMUSHING_BY_DEFAULT | LayoutOptions.HORIZONTAL_FITTING_BY_DEFAULT,
+				smushMode)) {
+			return 0;
+		}
+
+		final FigCharacter leftFigChar = font
+				.getFigCharacter(FIRST_CHAR + (printDirection == PrintDirection.LEFT_TO_RIGHT ? index1 : index2));
+		final FigCharacter rightFigChar = font
+				.getFigCharacter(FIRST_CHAR + (printDirection == PrintDirection.LEFT_TO_RIGHT ? index2 : index1));
+		if (leftFigChar == null || rightFigChar == null) {
+			return 0;
+		}
+		return (short) FigFont.calculateOverlapAmount(leftFigChar, rightFigChar, smushTable);
+	}
+
+	/**
+	 * Builds the overlap table of a font for a smush mode and print direction.
+	 * The table is filled at once, unless the font has FIGcharacters that have
+	 * not yet been decoded.
+	 *
+	 * @param font
+	 *            The font for which to build the table.
+	 * @param smushMode
+	 *            The smush mode that determines the nature of the overlap.
+	 * @param printDirection
+	 *            The print direction that determines whether the second character
+	 *            of a pair is to the right or the left of the first.
+	 * @return The built overlap table.
+	 */
+	static OverlapTable build(final FigFont font, final int smushMode, final PrintDirection printDirection) {
+		final short[] overlapAmounts = new short[SIZE * SIZE];
+		Arrays.fill(overlapAmounts, UNKNOWN);
+
+		final OverlapTable overlapTable = new OverlapTable(font, smushMode, printDirection,
+				font.getSmushTable(smushMode, printDirection), overlapAmounts);
+		if (font.getUndecodedGlyphCount() == 0) {
+			overlapTable.fill();
+		}
+		return overlapTable;
+	}
+}
@@ -0,0 +1,37 @@
+package com.github.dtmo.jfiglet;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * RenderEvent is the JDK Flight Recorder event that records a rendering of text
+ * as FIGlet text. Renders that take less than the threshold, which is 1 ms
+ * unless the recording sets another, are not recorded.
+ */
+@Name("com.github.dtmo.jfiglet.Render")
+@Label("FIGlet Render")
+@Description("Text rendered as FIGlet text")
+@Category("JFiglet")
+@Threshold("1 ms")
+final class RenderEvent extends jdk.jfr.Event {
+	@Label("Font Id")
+	@Description("The identity hash code of the font, which matches the Font Id of the font load that read it")
+	int fontId;
+
+	@Label("Text Length")
+	@Description("The number of characters of text rendered")
+	long textLength;
+
+	@Label("Output Length")
+	@Description("The number of characters of FIGlet text produced, including newlines")
+	long outputLength;
+
+	@Label("Print Direction")
+	String printDirection;
+
+	@Label("Smush Mode")
+	int smushMode;
+}
@@ -0,0 +1,102 @@
+package com.github.dtmo.jfiglet;
+
+/**
+ * RenderScratch holds the buffers with which a single thread renders text with
+ * a {@link FigFont}, so that they can be reused from one text to the next.
+ * A RenderScratch must only be used by one thread at a time.
+ */
+final class RenderScratch {
+	/**
+	 * The capacity beyond which the output buffer is not kept for reuse, so that a
+	 * single long text does not hold on to its memory.
+	 */
+	private static final int MAX_RETAINED_OUTPUT = 1 << 16;
+
+	private final FigFont figFont;
+	private final RowBuffer rowBuffer;
+	private final StringBuilder output = new StringBuilder();
+	private VerticalBuffer verticalBuffer;
+	private long outputLength;
+
+	/**
+	 * Constructs a new instance of RenderScratch.
+	 *
+	 * @param figFont
+	 *            The font with which text is rendered.
+	 */
+	RenderScratch(final FigFont figFont) {
+		this.figFont = figFont;
+		this.rowBuffer = new RowBuffer(figFont.getHeight());
+	}
+
+	/**
+	 * Returns the buffer into which lines are rendered.
+	 *
+	 * @return The buffer into which lines are rendered.
+	 */
+	RowBuffer getRowBuffer() {
+		return rowBuffer;
+	}
+
+	/**
+	 * Returns the buffer in which FIGlet lines are stacked when they are fitted or
+	 * smushed vertically, creating it if necessary.
+	 *
+	 * @return The buffer in which FIGlet lines are stacked vertically.
+	 */
+	VerticalBuffer getVerticalBuffer() {
+		if (verticalBuffer == null) {
+			verticalBuffer = new VerticalBuffer(figFont.getHeight(), figFont.getHardBlankChar());
+		}
+		return verticalBuffer;
+	}
+
+	/**
+	 * Returns the empty buffer into which a text is rendered before it is turned
+	 * into a string.
+	 *
+	 * @return The empty output buffer.
+	 */
+	StringBuilder getOutput() {
+		output.setLength(0);
+		return output;
+	}
+
+	/**
+	 * Returns the number of characters of FIGlet text that have been appended
+	 * since the count was last reset.
+	 *
+	 * @return The number of characters appended.
+	 */
+	long getOutputLength() {
+		return outputLength;
+	}
+
+	/**
+	 * Adds to the number of characters of FIGlet text that have been appended.
+	 *
+	 * @param length
+	 *            The number of characters appended.
+	 */
+	void addOutputLength(final long length) {
+		outputLength += length;
+	}
+
+	/**
+	 * Resets the number of characters of FIGlet text that have been appended.
+	 */
+	void resetOutputLength() {
+		outputLength = 0;
+	}
+
+	/**
+	 * Prepares the buffers to be kept for reuse, releasing the output buffer's
+	 * memory if it has grown unusually large.
+	 */
+	void reset() {
+		output.setLength(0);
+		if (output.capacity() > MAX_RETAINED_OUTPUT) {
+			output.trimToSize();
+		}
+	}
+}
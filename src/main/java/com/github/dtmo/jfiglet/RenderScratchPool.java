@@ -0,0 +1,87 @@
+package com.github.dtmo.jfiglet;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * RenderScratchPool holds {@link RenderScratch} instances for reuse by any
+ * number of threads.
+ * <p>
+ * The pool is a small array of slots, each of which holds either an idle
+ * scratch or nothing. A thread takes a scratch by atomically emptying a slot,
+ * starting at a slot chosen by its thread id so that threads seldom contend for
+ * the same slot, and returns it by filling an empty slot. If every slot is empty
+ * then a new scratch is created, and if every slot is full then a returned
+ * scratch is left to the garbage collector. Nothing is ever held per thread, so
+ * the pool suits short-lived and virtual threads as well as thread pools.
+ * </p>
+ */
+final class RenderScratchPool {
+	private final FigFont figFont;
+	private final AtomicReferenceArray<RenderScratch> slots;
+	private final int mask;
+
+	/**
+	 * Constructs a new instance of RenderScratchPool, with about twice as many
+	 * slots as there are processors.
+	 *
+	 * @param figFont
+	 *            The font with which text is rendered.
+	 */
+	RenderScratchPool(final FigFont figFont) {
+		this.figFont = figFont;
+		final int slotCount = Integer.highestOneBit(Math.max(2, Runtime.getRuntime().availableProcessors()) * 4 - 1);
+		this.slots = new AtomicReferenceArray<>(slotCount);
+		this.mask = slotCount - 1;
+	}
+
+	/**
+	 * Returns the font with which text is rendered.
+	 *
+	 * @return The font with which text is rendered.
+	 */
+	FigFont getFigFont() {
+		return figFont;
+	}
+
+	/**
+	 * Takes a scratch from the pool, creating one if the pool is empty. The
+	 * scratch belongs to the calling thread until it is released.
+	 *
+	 * @return The scratch.
+	 */
+	RenderScratch acquire() {
+		final int start = probe();
+		for (int offset = 0; offset <= mask; offset++) {
+			final int slot = (start + offset) & mask;
+			final RenderScratch scratch = slots.get(slot);
+			if (scratch != null && slots.compareAndSet(slot, scratch, null)) {
+				return scratch;
+			}
+		}
+		return new RenderScratch(figFont);
+	}
+
+	/**
+	 * Returns a scratch to the pool, once the calling thread has finished with it.
+	 *
+	 * @param scratch
+	 *            The scratch to return.
+	 */
+	void release(final RenderScratch scratch) {
+		scratch.reset();
+		final int start = probe();
+		for (int offset = 0; offset <= mask; offset++) {
+			final int slot = (start + offset) & mask;
+			if (slots.get(slot) == null && slots.compareAndSet(slot, null, scratch)) {
+				return;
+			}
+		}
+	}
+
+	private static int probe() {
+		// Spread consecutive thread ids over the slots.
+		@SuppressWarnings("deprecation")
+		final long threadId = Thread.currentThread().getId();
+		return (int) (threadId * 0x9E3779B97F4A7C15L >>> 40);
+	}
+}
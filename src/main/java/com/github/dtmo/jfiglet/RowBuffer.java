@@ -0,0 +1,281 @@
+package com.github.dtmo.jfiglet;
+
+import java.util.Arrays;
+
+import com.github.dtmo.jfiglet.FigFont.FigCharacter;
+
+/**
+ * RowBuffer holds the rows of sub-characters of a single FIGlet line while it
+ * is being rendered. Every row always has the same start and length.
+ * <p>
+ * Alongside the rows, the buffer keeps the number of blank sub-characters at
+ * the top and the bottom of every column, which are used to fit FIGlet lines
+ * vertically. These are composed from the precomputed blanks of each
+ * FIGcharacter as it is added, since a column that is smushed from two columns
+ * is blank wherever both of them are.
+ * </p>
+ * <p>
+ * Overlap amounts are calculated between adjacent FIGcharacters, so a narrow
+ * FIGcharacter can be overlapped by more columns than it has. A FIGcharacter
+ * never overlaps by more columns than it or the rows have.
+ * </p>
+ * <p>
+ * FIGcharacters can be added to either end of the rows in time proportional to
+ * their width. A line that is built by prepending, as right-to-left text is,
+ * grows leftwards from the end of the row arrays, and a line that is built by
+ * appending grows rightwards from their start.
+ * </p>
+ * <p>
+ * The buffer is reused from one line to the next, and only grows when a line
+ * is longer than any that it has held before.
+ * </p>
+ */
+final class RowBuffer {
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final char[][] rows;
+	private short[] topBlanks;
+	private short[] bottomBlanks;
+	private int start;
+	private int length;
+
+	/**
+	 * Constructs a new instance of RowBuffer.
+	 *
+	 * @param height
+	 *            The number of rows of the buffer.
+	 */
+	RowBuffer(final int height) {
+		rows = new char[height][INITIAL_CAPACITY];
+		topBlanks = new short[INITIAL_CAPACITY];
+		bottomBlanks = new short[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Returns the number of rows of the buffer.
+	 *
+	 * @return The number of rows of the buffer.
+	 */
+	int getHeight() {
+		return rows.length;
+	}
+
+	/**
+	 * Returns the length of every row of the buffer.
+	 *
+	 * @return The length of every row of the buffer.
+	 */
+	int getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the index of the row arrays at which every row starts.
+	 *
+	 * @return The index of the row arrays at which every row starts.
+	 */
+	int getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the array that holds the sub-characters of a row. Only the
+	 * {@link #getLength()} elements of the array from {@link #getStart()} belong
+	 * to the row.
+	 *
+	 * @param row
+	 *            The row to return.
+	 * @return The array that holds the sub-characters of the row.
+	 */
+	char[] getRow(final int row) {
+		return rows[row];
+	}
+
+	/**
+	 * Returns the number of blank sub-characters at the top of a column.
+	 *
+	 * @param index
+	 *            The index of the row arrays of the column.
+	 * @return The number of blank sub-characters at the top of the column, which
+	 *         is the height of the buffer if the column is entirely blank.
+	 */
+	int getTopBlanks(final int index) {
+		return topBlanks[index];
+	}
+
+	/**
+	 * Returns the number of blank sub-characters at the bottom of a column.
+	 *
+	 * @param index
+	 *            The index of the row arrays of the column.
+	 * @return The number of blank sub-characters at the bottom of the column,
+	 *         which is the height of the buffer if the column is entirely blank.
+	 */
+	int getBottomBlanks(final int index) {
+		return bottomBlanks[index];
+	}
+
+	/**
+	 * Empties the buffer so that it can hold a new line.
+	 */
+	void clear() {
+		start = 0;
+		length = 0;
+	}
+
+	/**
+	 * Smushes a FIGcharacter onto the right of the rows.
+	 *
+	 * @param figChar
+	 *            The FIGcharacter to add.
+	 * @param overlapAmount
+	 *            The number of columns by which the FIGcharacter overlaps the
+	 *            right of the rows.
+	 * @param smushTable
+	 *            The smushing rules with which to merge overlapping
+	 *            sub-characters.
+	 */
+	void append(final FigCharacter figChar, final int overlapAmount, final SmushTable smushTable) {
+		final int width = figChar.getWidth();
+		final int smushAmount = Math.min(overlapAmount, Math.min(width, length));
+
+		if (length > 0) {
+			final int newLength = length + width - smushAmount;
+			ensureCapacityAtEnd(newLength - length);
+			final int end = start + length;
+			for (int row = 0; row < rows.length; row++) {
+				final char[] rowData = rows[row];
+				for (int smushColumn = 0; smushColumn < smushAmount; smushColumn++) {
+					final int smushIndex = end - (smushColumn + 1);
+					rowData[smushIndex] = smushTable.smush(rowData[smushIndex],
+							figChar.getCharacterAt(smushAmount - (smushColumn + 1), row));
+				}
+				figChar.copyRow(row, smushAmount, rowData, end, width - smushAmount);
+			}
+			for (int smushColumn = 0; smushColumn < smushAmount; smushColumn++) {
+				mergeBlanks(end - (smushColumn + 1), figChar, smushAmount - (smushColumn + 1));
+			}
+			copyBlanks(figChar, smushAmount, end, width - smushAmount);
+			length = newLength;
+		} else {
+			start = 0;
+			ensureCapacityAtEnd(width);
+			for (int row = 0; row < rows.length; row++) {
+				figChar.copyRow(row, 0, rows[row], 0, width);
+			}
+			copyBlanks(figChar, 0, 0, width);
+			length = width;
+		}
+	}
+
+	/**
+	 * Smushes a FIGcharacter onto the left of the rows.
+	 *
+	 * @param figChar
+	 *            The FIGcharacter to add.
+	 * @param overlapAmount
+	 *            The number of columns by which the FIGcharacter overlaps the left
+	 *            of the rows.
+	 * @param smushTable
+	 *            The smushing rules with which to merge overlapping
+	 *            sub-characters.
+	 */
+	void prepend(final FigCharacter figChar, final int overlapAmount, final SmushTable smushTable) {
+		final int width = figChar.getWidth();
+		final int smushAmount = Math.min(overlapAmount, Math.min(width, length));
+
+		if (length > 0) {
+			final int insertLength = width - smushAmount;
+			ensureCapacityAtStart(insertLength);
+			final int newStart = start - insertLength;
+			for (int row = 0; row < rows.length; row++) {
+				final char[] rowData = rows[row];
+				for (int smushColumn = 0; smushColumn < smushAmount; smushColumn++) {
+					rowData[start + smushColumn] = smushTable.smush(rowData[start + smushColumn],
+							figChar.getCharacterAt((width - smushAmount) + smushColumn, row));
+				}
+				figChar.copyRow(row, 0, rowData, newStart, insertLength);
+			}
+			for (int smushColumn = 0; smushColumn < smushAmount; smushColumn++) {
+				mergeBlanks(start + smushColumn, figChar, (width - smushAmount) + smushColumn);
+			}
+			copyBlanks(figChar, 0, newStart, insertLength);
+			start = newStart;
+			length += insertLength;
+		} else {
+			start = capacity();
+			ensureCapacityAtStart(width);
+			start -= width;
+			for (int row = 0; row < rows.length; row++) {
+				figChar.copyRow(row, 0, rows[row], start, width);
+			}
+			copyBlanks(figChar, 0, start, width);
+			length = width;
+		}
+	}
+
+	/**
+	 * Copies the blanks of columns of a FIGcharacter into the columns at an index.
+	 */
+	private void copyBlanks(final FigCharacter figChar, final int column, final int index, final int count) {
+		for (int offset = 0; offset < count; offset++) {
+			topBlanks[index + offset] = (short) figChar.getTopBlanks(column + offset);
+			bottomBlanks[index + offset] = (short) figChar.getBottomBlanks(column + offset);
+		}
+	}
+
+	/**
+	 * Merges the blanks of a column of a FIGcharacter that has been smushed into
+	 * the column at an index.
+	 */
+	private void mergeBlanks(final int index, final FigCharacter figChar, final int column) {
+		topBlanks[index] = (short) Math.min(topBlanks[index], figChar.getTopBlanks(column));
+		bottomBlanks[index] = (short) Math.min(bottomBlanks[index], figChar.getBottomBlanks(column));
+	}
+
+	private int capacity() {
+		return topBlanks.length;
+	}
+
+	/**
+	 * Ensures that there is space for a number of sub-characters after the end of
+	 * the rows. The rows keep their start when the row arrays are grown.
+	 */
+	private void ensureCapacityAtEnd(final int space) {
+		final int required = start + length + space;
+		if (required > capacity()) {
+			final int newCapacity = Math.max(required, capacity() * 2);
+			for (int row = 0; row < rows.length; row++) {
+				rows[row] = Arrays.copyOf(rows[row], newCapacity);
+			}
+			topBlanks = Arrays.copyOf(topBlanks, newCapacity);
+			bottomBlanks = Arrays.copyOf(bottomBlanks, newCapacity);
+		}
+	}
+
+	/**
+	 * Ensures that there is space for a number of sub-characters before the start
+	 * of the rows. The rows are moved to the end of the row arrays when the row
+	 * arrays are grown, leaving all of the new space before them.
+	 */
+	private void ensureCapacityAtStart(final int space) {
+		if (space > start) {
+			final int newCapacity = Math.max(length + space, capacity() * 2);
+			final int newStart = newCapacity - length;
+			for (int row = 0; row < rows.length; row++) {
+				final char[] rowData = new char[newCapacity];
+				System.arraycopy(rows[row], start, rowData, newStart, length);
+				rows[row] = rowData;
+			}
+			topBlanks = moveToEnd(topBlanks, newCapacity, newStart);
+			bottomBlanks = moveToEnd(bottomBlanks, newCapacity, newStart);
+			start = newStart;
+		}
+	}
+
+	private short[] moveToEnd(final short[] blanks, final int newCapacity, final int newStart) {
+		final short[] newBlanks = new short[newCapacity];
+		System.arraycopy(blanks, start, newBlanks, newStart, length);
+		return newBlanks;
+	}
+}
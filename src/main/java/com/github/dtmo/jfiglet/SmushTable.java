@@ -0,0 +1,95 @@
+package com.github.dtmo.jfiglet;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.github.dtmo.jfiglet.FigFont.PrintDirection;
+
+/**
+ * SmushTable holds the horizontal smushing rules for a smushing mode, print
+ * direction and hardblank character, compiled into a table of the smushed
+ * result of every pair of ASCII sub-characters.
+ * <p>
+ * Pairs that include a non-ASCII sub-character are smushed by evaluating the
+ * smushing rules directly.
+ * </p>
+ *
+ * @see FigFont#smushem(char, char, int, PrintDirection)
+ */
+final class SmushTable {
+	/**
+	 * The number of sub-characters covered by the table.
+	 */
+	static final int SIZE = 128;
+
+	/**
+	 * Only the horizontal layout options take part in smushing sub-characters, so
+	 * smushing modes that differ in their other options share a table.
+	 */
+	private static final int HORIZONTAL_LAYOUT_MASK = 0xFF;
+
+	private static final ConcurrentMap<Integer, SmushTable> smushTables = new ConcurrentHashMap<>();
+
+	private final int smushMode;
+	private final PrintDirection printDirection;
+	private final char hardBlankChar;
+	private final char[] results;
+
+	private SmushTable(final int smushMode, final PrintDirection printDirection, final char hardBlankChar) {
+		this.smushMode = smushMode;
+		this.printDirection = printDirection;
+		this.hardBlankChar = hardBlankChar;
+
+		results = new char[SIZE * SIZE];
+		for (char char1 = 0; char1 < SIZE; char1++) {
+			for (char char2 = 0; char2 < SIZE; char2++) {
+				results[(char1 * SIZE) + char2] = FigFont.smushem(char1, char2, smushMode, printDirection,
+						hardBlankChar);
+			}
+		}
+	}
+
+	/**
+	 * Returns the compiled smushing rules for a smushing mode, print direction and
+	 * hardblank character. Tables are shared between all fonts.
+	 *
+	 * @param smushMode
+	 *            The smushmode that determines how smushing occurs.
+	 * @param printDirection
+	 *            The print direction that determines whether the second character
+	 *            is considered to be to the right or the left of the first.
+	 * @param hardBlankChar
+	 *            The sub-character used to represent hardblanks.
+	 * @return The compiled smushing rules.
+	 */
+	static SmushTable forSmushMode(final int smushMode, final PrintDirection printDirection,
+			final char hardBlankChar) {
+		final int horizontalSmushMode = smushMode & HORIZONTAL_LAYOUT_MASK;
+		final Integer key = (((horizontalSmushMode << 1) | printDirection.ordinal()) << 16) | hardBlankChar;
+		SmushTable smushTable = smushTables.get(key);
+		if (smushTable == null) {
+			smushTable = smushTables.computeIfAbsent(key,
+					k -> new SmushTable(horizontalSmushMode, printDirection, hardBlankChar));
+		}
+		return smushTable;
+	}
+
+	/**
+	 * Calculates the character that is the result of merging two characters.
+	 *
+	 * @param char1
+	 *            The first character to smush.
+	 * @param char2
+	 *            The second character to smush.
+	 * @return The character representing the result of smushing the input
+	 *         characters, or the <code>null</code> character '/0' if the input
+	 *         characters cannot be smushed.
+	 */
+	char smush(final char char1, final char char2) {
+		if ((char1 | char2) < SIZE) {
+			return results[(char1 * SIZE) + char2];
+		} else {
+			return FigFont.smushem(char1, char2, smushMode, printDirection, hardBlankChar);
+		}
+	}
+}
@@ -0,0 +1,300 @@
+package com.github.dtmo.jfiglet;
+
+import java.util.Arrays;
+
+/**
+ * VerticalBuffer holds the bottom rows of rendered FIGlet text, into which the
+ * next FIGlet line may be vertically fitted or smushed. Rows above those that
+ * the next line could reach are final, and are handed back to the renderer to
+ * be written out as soon as the next line has been placed.
+ * <p>
+ * The buffer holds as many rows as a FIGlet line has, which is the furthest
+ * that one line can overlap another. It keeps the number of blank
+ * sub-characters at the bottom of every column, so that the distance a line
+ * can be moved up is found from the blanks of the columns alone rather than by
+ * comparing every sub-character. Only vertical line supersmushing, which may
+ * move a line further once it touches, compares the rows themselves.
+ * </p>
+ * <p>
+ * Rows that have been merged with a later line are as long as the longer of
+ * the two, and all other rows keep the length of their own line.
+ * </p>
+ */
+final class VerticalBuffer {
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The result of smushing the sub-characters where two lines touch.
+	 */
+	private enum Collision {
+		/**
+		 * No sub-characters touch.
+		 */
+		NONE,
+
+		/**
+		 * Only vertical bars touch, and they are supersmushed, so the lines may be
+		 * moved closer still.
+		 */
+		SUPERSMUSH,
+
+		/**
+		 * The touching sub-characters are smushed, and the lines may be moved no
+		 * closer.
+		 */
+		SMUSH,
+
+		/**
+		 * The touching sub-characters cannot be smushed.
+		 */
+		INVALID
+	}
+
+	private final int height;
+	private final char hardBlankChar;
+	private final char[][] rows;
+	private final int[] rowLengths;
+	private short[] bottomBlanks;
+	private int rowCount;
+	private int width;
+
+	/**
+	 * Constructs a new instance of VerticalBuffer.
+	 *
+	 * @param height
+	 *            The height of the FIGlet lines to stack.
+	 * @param hardBlankChar
+	 *            The sub-character used to represent hardblanks.
+	 */
+	VerticalBuffer(final int height, final char hardBlankChar) {
+		this.height = height;
+		this.hardBlankChar = hardBlankChar;
+		rows = new char[height][INITIAL_CAPACITY];
+		rowLengths = new int[height];
+		bottomBlanks = new short[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Empties the buffer so that it can stack new text.
+	 */
+	void clear() {
+		rowCount = 0;
+		width = 0;
+	}
+
+	/**
+	 * Returns the number of rows held by the buffer, which is either zero or the
+	 * height of a FIGlet line.
+	 *
+	 * @return The number of rows held by the buffer.
+	 */
+	int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Returns the array that holds the sub-characters of a row. Only the first
+	 * {@link #getRowLength(int)} elements of the array belong to the row.
+	 *
+	 * @param row
+	 *            The row to return.
+	 * @return The array that holds the sub-characters of the row.
+	 */
+	char[] getRow(final int row) {
+		return rows[row];
+	}
+
+	/**
+	 * Returns the length of a row.
+	 *
+	 * @param row
+	 *            The row whose length to return.
+	 * @return The length of the row.
+	 */
+	int getRowLength(final int row) {
+		return rowLengths[row];
+	}
+
+	/**
+	 * Calculates the number of rows by which a FIGlet line overlaps the rows of
+	 * the buffer when it is placed below them.
+	 *
+	 * @param line
+	 *            The FIGlet line to place below the rows of the buffer.
+	 * @param smushMode
+	 *            The smushmode that determines whether the line is fitted or
+	 *            smushed, and by which rules.
+	 * @return The number of rows of overlap.
+	 */
+	int calculateOverlap(final RowBuffer line, final int smushMode) {
+		if (rowCount == 0) {
+			return 0;
+		}
+
+		final int lineStart = line.getStart();
+		final int columns = Math.min(width, line.getLength());
+
+		// A column can be moved up by the blanks below it in the buffer and above it
+		// in the line, before its sub-characters touch.
+		int fit = height;
+		for (int column = 0; column < columns; column++) {
+			fit = Math.min(fit, bottomBlanks[column] + line.getTopBlanks(lineStart + column));
+		}
+
+		if (fit == height
+				|| !LayoutOptions.islayoutOptionSelected(LayoutOptions.VERTICAL_SMUSHING_BY_DEFAULT, smushMode)) {
+			return fit;
+		}
+
+		// One row further, only the columns that fitted most tightly touch, each at a
+		// single sub-character.
+		Collision collision = Collision.NONE;
+		for (int column = 0; column < columns && collision != Collision.INVALID; column++) {
+			final int upperBlanks = bottomBlanks[column];
+			final int lowerBlanks = line.getTopBlanks(lineStart + column);
+			if (upperBlanks + lowerBlanks == fit) {
+				collision = combine(collision, smush(rows[height - (upperBlanks + 1)][column],
+						line.getRow(lowerBlanks)[lineStart + column], smushMode));
+			}
+		}
+
+		int overlap = fit;
+		while (collision == Collision.SUPERSMUSH || collision == Collision.NONE) {
+			overlap++;
+			if (overlap == height) {
+				return overlap;
+			}
+			collision = collide(line, overlap + 1, smushMode);
+		}
+
+		return collision == Collision.INVALID ? overlap : overlap + 1;
+	}
+
+	/**
+	 * Places a FIGlet line below the rows of the buffer, merging it into the rows
+	 * that it overlaps. The rows of the buffer that the line does not overlap must
+	 * already have been written out, as they are replaced.
+	 *
+	 * @param line
+	 *            The FIGlet line to place below the rows of the buffer.
+	 * @param overlap
+	 *            The number of rows by which the line overlaps the rows of the
+	 *            buffer, as calculated by {@link #calculateOverlap(RowBuffer, int)}.
+	 * @param smushMode
+	 *            The smushmode that determines how overlapping sub-characters are
+	 *            smushed.
+	 */
+	void add(final RowBuffer line, final int overlap, final int smushMode) {
+		final int lineStart = line.getStart();
+		final int lineLength = line.getLength();
+		final int oldRowCount = rowCount;
+		final int newWidth = Math.max(width, lineLength);
+		ensureCapacity(newWidth);
+
+		// Update the blanks at the bottom of each column before the rows are moved.
+		for (int column = 0; column < newWidth; column++) {
+			final int upperBlanks = column < width ? bottomBlanks[column] : height;
+			final int lowerBlanks = column < lineLength ? line.getBottomBlanks(lineStart + column) : height;
+			bottomBlanks[column] = (short) Math.min(lowerBlanks, (height - overlap) + upperBlanks);
+		}
+
+		// Move the overlapped rows to the top, reusing the arrays of the rows that
+		// have been written out for the rows of the line below them.
+		if (oldRowCount > 0 && overlap < oldRowCount) {
+			rotate(oldRowCount - overlap);
+		}
+
+		for (int row = 0; row < height; row++) {
+			final char[] rowData = rows[row];
+			final char[] lineData = line.getRow(row);
+			if (row < overlap) {
+				final int rowLength = rowLengths[row];
+				for (int column = 0; column < lineLength; column++) {
+					final char lowerChar = lineData[lineStart + column];
+					rowData[column] = column < rowLength
+							? FigFont.verticalSmushem(rowData[column], lowerChar, smushMode, hardBlankChar)
+							: lowerChar;
+				}
+				rowLengths[row] = Math.max(rowLength, lineLength);
+			} else {
+				System.arraycopy(lineData, lineStart, rowData, 0, lineLength);
+				rowLengths[row] = lineLength;
+			}
+		}
+
+		rowCount = height;
+		width = newWidth;
+	}
+
+	/**
+	 * Finds how the rows of the buffer and a line collide when they overlap by a
+	 * number of rows.
+	 */
+	private Collision collide(final RowBuffer line, final int overlap, final int smushMode) {
+		final int lineStart = line.getStart();
+		Collision collision = Collision.NONE;
+		for (int lineRow = 0; lineRow < overlap && collision != Collision.INVALID; lineRow++) {
+			final int row = height - overlap + lineRow;
+			final char[] rowData = rows[row];
+			final char[] lineData = line.getRow(lineRow);
+			final int columns = Math.min(rowLengths[row], line.getLength());
+			for (int column = 0; column < columns && collision != Collision.INVALID; column++) {
+				final char upperChar = rowData[column];
+				final char lowerChar = lineData[lineStart + column];
+				if (upperChar != ' ' && lowerChar != ' ') {
+					collision = combine(collision, smush(upperChar, lowerChar, smushMode));
+				}
+			}
+		}
+		return collision;
+	}
+
+	/**
+	 * Classifies the smushing of two touching sub-characters.
+	 */
+	private Collision smush(final char upperChar, final char lowerChar, final int smushMode) {
+		if (upperChar == '|' && lowerChar == '|'
+				&& LayoutOptions.islayoutOptionSelected(LayoutOptions.VERTICAL_VERTICAL_LINE_SMUSHING, smushMode)) {
+			return Collision.SUPERSMUSH;
+		}
+		return FigFont.verticalSmushem(upperChar, lowerChar, smushMode, hardBlankChar) == '\0' ? Collision.INVALID
+				: Collision.SMUSH;
+	}
+
+	private static Collision combine(final Collision collision1, final Collision collision2) {
+		return collision1.compareTo(collision2) >= 0 ? collision1 : collision2;
+	}
+
+	/**
+	 * Moves the rows of the buffer up by a number of rows, moving the top rows to
+	 * the bottom. The rows are rotated in place by reversing them in two parts and
+	 * then as a whole.
+	 */
+	private void rotate(final int distance) {
+		reverse(0, distance);
+		reverse(distance, height);
+		reverse(0, height);
+	}
+
+	private void reverse(final int from, final int to) {
+		for (int row1 = from, row2 = to - 1; row1 < row2; row1++, row2--) {
+			final char[] rowData = rows[row1];
+			rows[row1] = rows[row2];
+			rows[row2] = rowData;
+
+			final int rowLength = rowLengths[row1];
+			rowLengths[row1] = rowLengths[row2];
+			rowLengths[row2] = rowLength;
+		}
+	}
+
+	private void ensureCapacity(final int capacity) {
+		if (capacity > bottomBlanks.length) {
+			final int newCapacity = Math.max(capacity, bottomBlanks.length * 2);
+			for (int row = 0; row < height; row++) {
+				rows[row] = Arrays.copyOf(rows[row], newCapacity);
+			}
+			bottomBlanks = Arrays.copyOf(bottomBlanks, newCapacity);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.github.dtmo.jfiglet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.github.dtmo.jfiglet.FigFont.FigCharacter;
+
+public class FigFontCompilerTest {
+	static final String[] BUNDLED_FONTS = { FigFontResources.BANNER_FLF, FigFontResources.BIG_FLF,
+			FigFontResources.BLOCK_FLF, FigFontResources.BUBBLE_FLF, FigFontResources.DIGITAL_FLF,
+			FigFontResources.IVRIT_FLF, FigFontResources.LEAN_FLF, FigFontResources.MINI_FLF,
+			FigFontResources.MNEMONIC_FLF, FigFontResources.SCRIPT_FLF, FigFontResources.SHADOW_FLF,
+			FigFontResources.SLANT_FLF, FigFontResources.SMALL_FLF, FigFontResources.SMSCRIPT_FLF,
+			FigFontResources.SMSHADOW_FLF, FigFontResources.SMSLANT_FLF, FigFontResources.STANDARD_FLF,
+			FigFontResources.TERM_FLF };
+
+	@Test
+	public void testCompiledFontsMatchParsedFonts() throws IOException {
+		for (final String fontName : BUNDLED_FONTS) {
+			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			try (final InputStream inputStream = FigFontCompilerTest.class.getClassLoader()
+					.getResourceAsStream(fontName)) {
+				FigFontCompiler.compile(inputStream, outputStream);
+			}
+
+			final FigFont parsedFont = FigFontResources.loadFigFontResource(fontName);
+			final FigFont compiledFont = FigFont
+					.readCompiled(new ByteArrayInputStream(outputStream.toByteArray()));
+
+			assertEquals(fontName, parsedFont.getHardBlankChar(), compiledFont.getHardBlankChar());
+			assertEquals(fontName, parsedFont.getHeight(), compiledFont.getHeight());
+			assertEquals(fontName, parsedFont.getBaseline(), compiledFont.getBaseline());
+			assertEquals(fontName, parsedFont.getMaxLength(), compiledFont.getMaxLength());
+			assertEquals(fontName, parsedFont.getOldLayout(), compiledFont.getOldLayout());
+			assertEquals(fontName, parsedFont.getCommentLines(), compiledFont.getCommentLines());
+			assertEquals(fontName, parsedFont.getPrintDirection(), compiledFont.getPrintDirection());
+			assertEquals(fontName, parsedFont.getFullLayout(), compiledFont.getFullLayout());
+			assertEquals(fontName, parsedFont.getCodetagCount(), compiledFont.getCodetagCount());
+			assertEquals(fontName, parsedFont.toString(), compiledFont.toString());
+
+			for (char character = 0; character < 256; character++) {
+				final FigCharacter parsedFigChar = parsedFont.getFigCharacter(character);
+				final FigCharacter compiledFigChar = compiledFont.getFigCharacter(character);
+				if (parsedFigChar == null) {
+					assertNull(fontName, compiledFigChar);
+					continue;
+				}
+				assertEquals(fontName, parsedFigChar.getWidth(), compiledFigChar.getWidth());
+				for (int row = 0; row < parsedFigChar.getHeight(); row++) {
+					assertEquals(fontName, parsedFigChar.getLeftBoundary(row), compiledFigChar.getLeftBoundary(row));
+					assertEquals(fontName, parsedFigChar.getRightBoundary(row),
+							compiledFigChar.getRightBoundary(row));
+				}
+			}
+
+			final String text = "Hello, World!";
+			assertEquals(fontName, new FigletRenderer(parsedFont).renderText(text),
+					new FigletRenderer(compiledFont).renderText(text));
+		}
+	}
+
+	@Test
+	public void testLoadCompiledResource() throws IOException {
+		final Path directory = Files.createTempDirectory("jfiglet-compiled");
+		try {
+			final byte[] fontData = readResource(FigFontResources.STANDARD_FLF);
+			Files.write(directory.resolve("test.flf"), fontData);
+			final FigFont slantFont = FigFontResources.loadFigFontResource(FigFontResources.SLANT_FLF);
+			final FigFont standardFont = FigFontResources.loadFigFontResource(FigFontResources.STANDARD_FLF);
+
+			// A compiled copy that records the FIGfont data is read in place of it, which shows in the
+			// glyphs of the font that it was really compiled from.
+			writeCompiled(slantFont, directory.resolve("test.flfc"), fontData.length);
+			assertEquals(slantFont.toString(), loadTestFont(directory).toString());
+
+			// A compiled copy of FIGfont data of another length is ignored.
+			writeCompiled(slantFont, directory.resolve("test.flfc"), fontData.length + 1);
+			assertEquals(standardFont.toString(), loadTestFont(directory).toString());
+
+			// A compiled copy written by another version of the compiler is ignored.
+			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			slantFont.write(outputStream, fontData.length);
+			final byte[] compiledData = outputStream.toByteArray();
+			compiledData[5] = (byte) (FigFont.COMPILED_VERSION - 1);
+			Files.write(directory.resolve("test.flfc"), compiledData);
+			assertEquals(standardFont.toString(), loadTestFont(directory).toString());
+
+			// A compiled copy made by FigFontCompiler is current.
+			FigFontCompiler.compile(directory.resolve("test.flf").toFile(), directory.toFile());
+			assertEquals(standardFont.toString(), loadTestFont(directory).toString());
+			assertEquals(standardFont.toString(),
+					FigFont.readCompiled(new ByteArrayInputStream(Files.readAllBytes(directory.resolve("test.flfc"))),
+							fontData.length).toString());
+		} finally {
+			try (final Stream<Path> paths = Files.walk(directory)) {
+				paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+			}
+		}
+	}
+
+	private static FigFont loadTestFont(final Path directory) throws IOException {
+		try (final URLClassLoader classLoader = new URLClassLoader(new URL[] { directory.toUri().toURL() }, null)) {
+			return FigFontResources.loadFigFontResource("test.flf", classLoader);
+		}
+	}
+
+	private static void writeCompiled(final FigFont figFont, final Path path, final long sourceLength)
+			throws IOException {
+		try (final OutputStream outputStream = Files.newOutputStream(path)) {
+			figFont.write(outputStream, sourceLength);
+		}
+	}
+
+	private static byte[] readResource(final String resourceName) throws IOException {
+		try (final InputStream inputStream = FigFontCompilerTest.class.getClassLoader()
+				.getResourceAsStream(resourceName)) {
+			return FigFontCompiler.readFully(inputStream);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadCompiledRejectsFigFont() throws IOException {
+		try (final InputStream inputStream = FigFontCompilerTest.class.getClassLoader()
+				.getResourceAsStream(FigFontResources.STANDARD_FLF)) {
+			FigFont.readCompiled(inputStream);
+		}
+	}
+
+	@Test
+	public void testGetCompiledName() {
+		assertEquals("standard.flfc", FigFontResources.getCompiledName(FigFontResources.STANDARD_FLF));
+		assertNull(FigFontResources.getCompiledName("standard.txt"));
+	}
+}
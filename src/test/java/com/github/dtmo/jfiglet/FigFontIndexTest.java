@@ -0,0 +1,217 @@
+package com.github.dtmo.jfiglet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FigFontIndexTest {
+	private Path directory;
+	private Path cacheFile;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("jfiglet-index");
+		cacheFile = directory.resolve("index.cache");
+		Files.createDirectories(directory.resolve("more"));
+		copyFont(FigFontResources.STANDARD_FLF, directory.resolve("standard.flf"));
+		copyFont(FigFontResources.BANNER_FLF, directory.resolve("banner.flf"));
+		copyFont(FigFontResources.SLANT_FLF, directory.resolve("more/slant.flf"));
+		Files.write(directory.resolve("more/broken.flf"), "not a font".getBytes(StandardCharsets.ISO_8859_1));
+		Files.write(directory.resolve("readme.txt"), "flf2a$ 6 5 16 15 0".getBytes(StandardCharsets.ISO_8859_1));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (final Stream<Path> paths = Files.walk(directory)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Test
+	public void testIndexHoldsFontHeaders() throws IOException {
+		final FigFontIndex index = new FigFontIndex.Builder(directory).build();
+
+		assertEquals(3, index.getEntries().size());
+		assertEquals("banner.flf", index.getEntries().iterator().next().getRelativePath());
+		assertNull(index.getEntry("more/broken.flf"));
+
+		final FigFontIndex.Entry entry = index.getEntry("more/slant.flf");
+		final FigFont slantFont = FigFontResources.loadFigFontResource(FigFontResources.SLANT_FLF);
+		assertEquals("slant", entry.getName());
+		assertEquals(directory.resolve("more/slant.flf"), entry.getPath());
+		assertEquals(Files.size(entry.getPath()), entry.getSize());
+		assertEquals(slantFont.getHeight(), entry.getHeight());
+		assertEquals(slantFont.getBaseline(), entry.getBaseline());
+		assertEquals(slantFont.getFullLayout(), entry.getFullLayout());
+		assertEquals(slantFont.getPrintDirection(), entry.getPrintDirection());
+		assertEquals(slantFont.getCodetagCount(), entry.getCodetagCount());
+		// The index counts every FIGcharacter in the file, including those whose code tags repeat.
+		assertTrue(entry.getGlyphCount() >= slantFont.getGlyphCount());
+	}
+
+	@Test
+	public void testLoadFontMatchesReadFont() throws IOException {
+		final FigFontIndex index = new FigFontIndex.Builder(directory).build();
+
+		for (final FigFontIndex.Entry entry : index.getEntries()) {
+			final FigFont figFont;
+			try (final InputStream inputStream = Files.newInputStream(entry.getPath())) {
+				figFont = new FigFontReader(new InputStreamReader(inputStream, StandardCharsets.ISO_8859_1))
+						.readFont();
+			}
+			final FigFont indexedFont = index.loadFont(entry.getRelativePath());
+
+			assertEquals(figFont.toString(), indexedFont.toString());
+			assertEquals(new FigletRenderer(figFont).renderText("Hello \u00C4"),
+					new FigletRenderer(indexedFont).renderText("Hello \u00C4"));
+		}
+	}
+
+	@Test
+	public void testCacheIsReused() throws IOException {
+		assertEquals(0, new FigFontIndex.Builder(directory).setCacheFile(cacheFile).build().getCacheHitCount());
+		assertTrue(Files.exists(cacheFile));
+
+		final FigFontIndex index = new FigFontIndex.Builder(directory).setCacheFile(cacheFile).build();
+
+		assertEquals(3, index.getCacheHitCount());
+		assertEquals(new FigletRenderer(FigFontResources.loadFigFontResource(FigFontResources.SLANT_FLF))
+				.renderText("Hello"), new FigletRenderer(index.loadFont("more/slant.flf")).renderText("Hello"));
+	}
+
+	@Test
+	public void testChangedFontIsIndexedAgain() throws IOException {
+		new FigFontIndex.Builder(directory).setCacheFile(cacheFile).build();
+		final Path fontFile = directory.resolve("standard.flf");
+		copyFont(FigFontResources.SMALL_FLF, fontFile);
+		Files.setLastModifiedTime(fontFile,
+				FileTime.fromMillis(Files.getLastModifiedTime(fontFile).toMillis() + 2000));
+
+		final FigFontIndex index = new FigFontIndex.Builder(directory).setCacheFile(cacheFile).build();
+
+		assertEquals(2, index.getCacheHitCount());
+		assertEquals(FigFontResources.loadFigFontResource(FigFontResources.SMALL_FLF).toString(),
+				index.loadFont("standard.flf").toString());
+	}
+
+	@Test
+	public void testFontChangedAfterIndexingIsIndexedAgain() throws IOException {
+		final FigFontIndex index = new FigFontIndex.Builder(directory).build();
+		final Path fontFile = directory.resolve("standard.flf");
+		copyFont(FigFontResources.SMALL_FLF, fontFile);
+
+		assertEquals(FigFontResources.loadFigFontResource(FigFontResources.SMALL_FLF).toString(),
+				index.loadFont("standard.flf").toString());
+	}
+
+	@Test
+	public void testCorruptCacheIsIgnored() throws IOException {
+		Files.write(cacheFile, new byte[] { 'J', 'F', 'F', 'I', 0, 0 });
+
+		final FigFontIndex index = new FigFontIndex.Builder(directory).setCacheFile(cacheFile).build();
+
+		assertEquals(0, index.getCacheHitCount());
+		assertEquals(3, index.getEntries().size());
+		assertEquals(3, new FigFontIndex.Builder(directory).setCacheFile(cacheFile).build().getCacheHitCount());
+	}
+
+	@Test
+	public void testRemovedFontIsDropped() throws IOException {
+		new FigFontIndex.Builder(directory).setCacheFile(cacheFile).build();
+		Files.delete(directory.resolve("banner.flf"));
+
+		final FigFontIndex index = new FigFontIndex.Builder(directory).setCacheFile(cacheFile).build();
+
+		assertEquals(2, index.getEntries().size());
+		assertNull(index.getEntry("banner.flf"));
+		assertNotNull(index.getEntry("standard.flf"));
+	}
+
+	@Test
+	public void testZippedFontIsIndexed() throws IOException {
+		final Path fontFile = directory.resolve("more/zipped.flf");
+		try (final ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(fontFile))) {
+			zipOutputStream.putNextEntry(new ZipEntry("small.flf"));
+			copyFont(FigFontResources.SMALL_FLF, zipOutputStream);
+		}
+
+		final FigFontIndex index = new FigFontIndex.Builder(directory).setCacheFile(cacheFile).build();
+
+		assertEquals(4, index.getEntries().size());
+		final String expected = FigFontResources.loadFigFontResource(FigFontResources.SMALL_FLF).toString();
+		assertEquals(expected, index.loadFont("more/zipped.flf").toString());
+		assertEquals(expected, new FigFontIndex.Builder(directory).setCacheFile(cacheFile).build()
+				.loadFont("more/zipped.flf").toString());
+	}
+
+	@Test
+	public void testUtf8FontIsDetected() throws IOException {
+		final Path latin1File = directory.resolve("more/latin1.flf");
+		copyFont(FigFontResources.TERM_FLF, latin1File);
+		final Path fontFile = directory.resolve("more/utf8.flf");
+		Files.write(fontFile, new String(Files.readAllBytes(latin1File), StandardCharsets.ISO_8859_1)
+				.getBytes(StandardCharsets.UTF_8));
+
+		final FigFontIndex index = new FigFontIndex.Builder(directory).setCacheFile(cacheFile).build();
+
+		final String expected = FigFont.load(fontFile).toString();
+		assertEquals("\u00C4", index.loadFont("more/utf8.flf").getFigCharacter(0xC4).getRow(0));
+		assertEquals(expected, index.loadFont("more/utf8.flf").toString());
+		assertEquals(expected, index.loadFont("more/latin1.flf").toString());
+		assertEquals(expected, new FigFontIndex.Builder(directory).setCacheFile(cacheFile).build()
+				.loadFont("more/utf8.flf").toString());
+	}
+
+	@Test(expected = NoSuchFileException.class)
+	public void testLoadFontNotInIndex() throws IOException {
+		new FigFontIndex.Builder(directory).build().loadFont("more/broken.flf");
+	}
+
+	@Test
+	public void testIndexSuppliesRegistry() throws IOException {
+		final FigFontIndex index = new FigFontIndex.Builder(directory).build();
+		final FigFontRegistry registry = new FigFontRegistry.Builder().setFontLoader(index::loadFont).build();
+
+		final FigFont figFont = registry.getFigFont("more/slant.flf");
+
+		assertSame(figFont, registry.getFigFont("more/slant.flf"));
+		assertEquals(1, registry.getStatistics().getLoadSuccessCount());
+	}
+
+	private static void copyFont(final String fontName, final OutputStream outputStream) throws IOException {
+		try (final InputStream inputStream = FigFontIndexTest.class.getClassLoader().getResourceAsStream(fontName)) {
+			final byte[] buffer = new byte[8192];
+			int count;
+			while ((count = inputStream.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, count);
+			}
+		}
+	}
+
+	private static void copyFont(final String fontName, final Path target) throws IOException {
+		try (final InputStream inputStream = FigFontIndexTest.class.getClassLoader().getResourceAsStream(fontName)) {
+			Files.copy(inputStream, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
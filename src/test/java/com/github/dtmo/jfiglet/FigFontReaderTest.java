@@ -1,6 +1,21 @@
 package com.github.dtmo.jfiglet;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
@@ -9,6 +24,30 @@ import com.github.dtmo.jfiglet.FigFontReader;
 
 public class FigFontReaderTest {
 
+	@Test
+	public void testReadFontMatchesLegacyParser() throws IOException {
+		for (final String fontName : FigFontCompilerTest.BUNDLED_FONTS) {
+			final FigFont legacyFont;
+			try (final InputStream inputStream = FigFontReaderTest.class.getClassLoader()
+					.getResourceAsStream(fontName)) {
+				legacyFont = LegacyFigFontParser.parseFont(new InputStreamReader(inputStream, "ISO-8859-1"));
+			}
+			final FigFont figFont;
+			try (final InputStream inputStream = FigFontReaderTest.class.getClassLoader()
+					.getResourceAsStream(fontName)) {
+				figFont = new FigFontReader(new InputStreamReader(inputStream, "ISO-8859-1")).readFont();
+			}
+
+			assertEquals(fontName, legacyFont.toString(), figFont.toString());
+			final ByteArrayOutputStream legacyOutputStream = new ByteArrayOutputStream();
+			legacyFont.write(legacyOutputStream);
+			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			figFont.write(outputStream);
+			assertEquals(fontName, Arrays.toString(legacyOutputStream.toByteArray()),
+					Arrays.toString(outputStream.toByteArray()));
+		}
+	}
+
 	@Test
 	public void testParseHeader() {
 		FigFont.Builder fontBuilder = new FigFont.Builder();
@@ -43,4 +82,156 @@ public class FigFontReaderTest {
 		assertEquals(0, fontBuilder.getCodetagCount());
 	}
 
+	@Test
+	public void testParseCodeTag() {
+		assertEquals(196, FigFontReader.parseCodeTag("196"));
+		assertEquals(0x1F600, FigFontReader.parseCodeTag("0x1F600  GRINNING FACE"));
+		assertEquals(-4, FigFontReader.parseCodeTag("-0x0004  KATAMAP"));
+	}
+
+	@Test
+	public void testParseCodeTagMatchesIntegerDecode() {
+		final String[] codeTags = { "0", "-0", "+65", "065", "0101", "0x41", "0X41", "#41", "-0x0004", "0x7FFFFFFF",
+				"2147483647", "-2147483648", "2147483648", "-2147483649", "0x80000000", "08", "0x", "#", "-", "+",
+				"--1", "+-1", "0x-1", "1a", "\u0661\u0662", "0x1F600\tGRINNING FACE" };
+
+		for (final String codeTag : codeTags) {
+			final String number = codeTag.split("\\s+")[0];
+			Integer expected = null;
+			try {
+				expected = Integer.decode(number);
+			} catch (final NumberFormatException e) {
+				// Expected below
+			}
+
+			Integer actual = null;
+			try {
+				actual = FigFontReader.parseCodeTag(codeTag);
+			} catch (final IllegalArgumentException e) {
+				// Compared below
+			}
+			assertEquals(codeTag, expected, actual);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseCodeTagWithLeadingWhitespace() {
+		FigFontReader.parseCodeTag(" 65");
+	}
+
+	@Test
+	public void testParseHeaderWithIrregularWhitespace() {
+		FigFont.Builder fontBuilder = new FigFont.Builder();
+
+		FigFontReader.parseHeader("flf2a# 6\t5  16 15 \t11 0 24463 229 extra  ", fontBuilder);
+
+		assertEquals('#', fontBuilder.getHardBlankChar());
+		assertEquals(6, fontBuilder.getHeight());
+		assertEquals(5, fontBuilder.getBaseline());
+		assertEquals(16, fontBuilder.getMaxLength());
+		assertEquals(15, fontBuilder.getOldLayout());
+		assertEquals(11, fontBuilder.getCommentLines());
+		assertEquals(24463, fontBuilder.getFullLayout());
+		assertEquals(229, fontBuilder.getCodetagCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseHeaderWithoutMagicNumber() {
+		FigFontReader.parseHeader("flf 6 5 16 15 11", new FigFont.Builder());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseHeaderWithInvalidNumber() {
+		FigFontReader.parseHeader("flf2a$ 6 5 sixteen 15 11", new FigFont.Builder());
+	}
+
+	@Test
+	public void testNegativeCodeTagsDoNotCollide() throws IOException {
+		final FigFont bannerFont = FigFontResources.loadFigFontResource(FigFontResources.BANNER_FLF);
+
+		assertNotNull(bannerFont.getFigCharacter(-4));
+		assertNull(bannerFont.getFigCharacter(0xFFFC));
+	}
+
+	@Test
+	public void testReadFontLazilyMatchesReadFont() throws IOException {
+		for (final String fontName : FigFontCompilerTest.BUNDLED_FONTS) {
+			final FigFont figFont = readFont(fontName, false);
+			final FigFont lazyFont = readFont(fontName, true);
+
+			assertEquals(fontName, figFont.getGlyphCount(), lazyFont.getGlyphCount());
+			assertEquals(fontName, figFont.toString(), lazyFont.toString());
+
+			final ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+			figFont.write(compiled);
+			final ByteArrayOutputStream lazyCompiled = new ByteArrayOutputStream();
+			lazyFont.write(lazyCompiled);
+			assertEquals(fontName, compiled.toString("ISO-8859-1"), lazyCompiled.toString("ISO-8859-1"));
+		}
+	}
+
+	@Test
+	public void testLazyFontDecodesEachCharacterOnce() throws IOException {
+		final FigFont lazyFont = readFont(FigFontResources.STANDARD_FLF, true);
+
+		assertNotNull(lazyFont.getFigCharacter('A'));
+		assertSame(lazyFont.getFigCharacter('A'), lazyFont.getFigCharacter('A'));
+		assertNotNull(lazyFont.getFigCharacter(0x02DD));
+		assertSame(lazyFont.getFigCharacter(0x02DD), lazyFont.getFigCharacter(0x02DD));
+		assertNull(lazyFont.getFigCharacter(0x02DE));
+	}
+
+	@Test
+	public void testRenderLazyFontDecodesOnlyRenderedCharacters() throws IOException {
+		final FigFont lazyFont = readFont(FigFontResources.STANDARD_FLF, true);
+		final int glyphCount = lazyFont.getGlyphCount();
+		assertEquals(glyphCount, lazyFont.getUndecodedGlyphCount());
+
+		final FigletRenderer renderer = new FigletRenderer(lazyFont);
+		assertEquals(glyphCount, lazyFont.getUndecodedGlyphCount());
+		assertEquals(new FigletRenderer(readFont(FigFontResources.STANDARD_FLF, false)).renderText("Hi"),
+				renderer.renderText("Hi"));
+		assertEquals(glyphCount - 2, lazyFont.getUndecodedGlyphCount());
+
+		lazyFont.toString();
+		assertEquals(0, lazyFont.getUndecodedGlyphCount());
+		assertEquals(readFont(FigFontResources.STANDARD_FLF, false).toString(), lazyFont.toString());
+	}
+
+	@Test
+	public void testRenderLazyFontConcurrently() throws Exception {
+		final String text = "The quick brown fox jumps over the lazy dog \u00C4\u00D6\u00DC";
+		final String expected = new FigletRenderer(readFont(FigFontResources.MNEMONIC_FLF, false)).renderText(text);
+		final FigletRenderer renderer = new FigletRenderer(readFont(FigFontResources.MNEMONIC_FLF, true));
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<String>> futures = new ArrayList<>();
+			for (int task = 0; task < 8; task++) {
+				futures.add(executor.submit(() -> renderer.renderText(text)));
+			}
+			for (final Future<String> future : futures) {
+				assertEquals(expected, future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadFontLazilyTruncated() throws IOException {
+		new FigFontReader(new StringReader("flf2a$ 2 1 4 0 0\n a@\n")).readFontLazily();
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadFontTruncated() throws IOException {
+		new FigFontReader(new StringReader("flf2a$ 2 1 4 0 0\n a@\n")).readFont();
+	}
+
+	private static FigFont readFont(final String fontName, final boolean lazy) throws IOException {
+		try (final InputStream inputStream = FigFontReaderTest.class.getClassLoader().getResourceAsStream(fontName)) {
+			final FigFontReader figFontReader = new FigFontReader(new InputStreamReader(inputStream, "ISO-8859-1"));
+			return lazy ? figFontReader.readFontLazily() : figFontReader.readFont();
+		}
+	}
 }
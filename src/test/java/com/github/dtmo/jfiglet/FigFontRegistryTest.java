@@ -0,0 +1,125 @@
+package com.github.dtmo.jfiglet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class FigFontRegistryTest {
+
+	@Test
+	public void testFontIsLoadedOnce() throws Exception {
+		final AtomicInteger loadCount = new AtomicInteger();
+		final FigFontRegistry registry = new FigFontRegistry.Builder().setFontLoader(name -> {
+			loadCount.incrementAndGet();
+			return FigFontResources.loadFigFontResource(name);
+		}).build();
+
+		final FigFont font = registry.getFigFont(FigFontResources.STANDARD_FLF);
+
+		assertSame(font, registry.getFigFont(FigFontResources.STANDARD_FLF));
+		assertEquals(1, loadCount.get());
+		assertEquals(1, registry.getStatistics().getHitCount());
+		assertEquals(1, registry.getStatistics().getMissCount());
+		assertEquals(1, registry.getStatistics().getLoadSuccessCount());
+	}
+
+	@Test
+	public void testConcurrentRequestsLoadOnce() throws Exception {
+		final AtomicInteger loadCount = new AtomicInteger();
+		final CountDownLatch loading = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final FigFontRegistry registry = new FigFontRegistry.Builder().setFontLoader(name -> {
+			loadCount.incrementAndGet();
+			loading.countDown();
+			try {
+				release.await();
+			} catch (final InterruptedException e) {
+				throw new IOException(e);
+			}
+			return FigFontResources.loadFigFontResource(name);
+		}).build();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final Future<FigFont> first = executor.submit(() -> registry.getFigFont(FigFontResources.SLANT_FLF));
+			loading.await(10, TimeUnit.SECONDS);
+			final Future<FigFont> second = executor.submit(() -> registry.getFigFont(FigFontResources.SLANT_FLF));
+			final Future<FigFont> third = executor.submit(() -> registry.getFigFont(FigFontResources.SLANT_FLF));
+			release.countDown();
+
+			assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+			assertSame(first.get(), third.get(10, TimeUnit.SECONDS));
+			assertEquals(1, loadCount.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testLeastRecentlyUsedFontIsEvicted() throws Exception {
+		final FigFontRegistry registry = new FigFontRegistry.Builder().setMaximumSize(1)
+				.setFontLoader(name -> FigFontResources.loadFigFontResource(name.substring(1))).build();
+
+		final FigFont standardFont = registry.getFigFont("/" + FigFontResources.STANDARD_FLF);
+		registry.getFigFont("/" + FigFontResources.SLANT_FLF);
+
+		assertEquals(1, registry.getStatistics().getEvictionCount());
+		assertNotSame(standardFont, registry.getFigFont("/" + FigFontResources.STANDARD_FLF));
+	}
+
+	@Test
+	public void testBundledFontsAreNotEvicted() throws Exception {
+		final FigFontRegistry registry = new FigFontRegistry.Builder().setMaximumSize(0).build();
+
+		final FigFont standardFont = registry.getFigFont(FigFontResources.STANDARD_FLF);
+		registry.getFigFont(FigFontResources.SLANT_FLF);
+
+		assertSame(standardFont, registry.getFigFont(FigFontResources.STANDARD_FLF));
+		assertEquals(0, registry.getStatistics().getEvictionCount());
+	}
+
+	@Test
+	public void testBundledFontNamesFromOtherLoadersAreEvicted() throws Exception {
+		final FigFontRegistry registry = new FigFontRegistry.Builder().setMaximumSize(0)
+				.setFontLoader(name -> FigFontResources.loadFigFontResource(FigFontResources.SLANT_FLF)).build();
+
+		final FigFont standardFont = registry.getFigFont(FigFontResources.STANDARD_FLF);
+
+		assertNotSame(standardFont, registry.getFigFont(FigFontResources.STANDARD_FLF));
+		assertEquals(2, registry.getStatistics().getEvictionCount());
+	}
+
+	@Test
+	public void testFailedLoadIsNotCached() throws Exception {
+		final FigFontRegistry registry = new FigFontRegistry.Builder().build();
+
+		for (int attempt = 0; attempt < 2; attempt++) {
+			try {
+				registry.getFigFont("missing.flf");
+				fail("Expected FileNotFoundException");
+			} catch (final FileNotFoundException e) {
+				// Expected.
+			}
+		}
+
+		assertEquals(2, registry.getStatistics().getLoadFailureCount());
+	}
+
+	@Test
+	public void testGetFigFont() throws Exception {
+		assertSame(FigFontResources.getFigFont(FigFontResources.STANDARD_FLF),
+				FigFontResources.getFigFont(FigFontResources.STANDARD_FLF));
+	}
+}
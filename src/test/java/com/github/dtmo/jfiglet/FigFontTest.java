@@ -1,6 +1,26 @@
 package com.github.dtmo.jfiglet;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -71,4 +91,246 @@ o:      :
 	public void testCalculateSmushAmountHollywoodOSpaceLeftToRght() {
 		assertEquals(2, slantFont.calculateOverlapAmount('o', ' ', slantFont.getFullLayout(), PrintDirection.LEFT_TO_RIGHT));
 	}
+
+	@Test
+	public void testOverlapTableMatchesCalculateOverlapAmount() {
+		for (final FigFont font : new FigFont[] { standardFont, slantFont }) {
+			for (final PrintDirection printDirection : PrintDirection.values()) {
+				for (final int smushMode : new int[] { font.getFullLayout(), 0, LayoutOptions.HORIZONTAL_FITTING_BY_DEFAULT,
+						LayoutOptions.HORIZONTAL_SMUSHING_BY_DEFAULT }) {
+					final OverlapTable overlapTable = font.getOverlapTable(smushMode, printDirection);
+					for (char char1 = OverlapTable.FIRST_CHAR; char1 <= OverlapTable.LAST_CHAR; char1++) {
+						for (char char2 = OverlapTable.FIRST_CHAR; char2 <= OverlapTable.LAST_CHAR; char2++) {
+							assertEquals(font.calculateOverlapAmount(char1, char2, smushMode, printDirection),
+									overlapTable.getOverlapAmount(char1, char2));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testPrebuildOverlapTable() {
+		standardFont.prebuildOverlapTable();
+
+		assertSame(standardFont.getOverlapTable(standardFont.getFullLayout(), standardFont.getPrintDirection()),
+				standardFont.getOverlapTable(standardFont.getFullLayout(), standardFont.getPrintDirection()));
+		assertEquals(0, standardFont.getOverlapTable(standardFont.getFullLayout(), PrintDirection.LEFT_TO_RIGHT)
+				.getOverlapAmount('\0', 'e'));
+	}
+
+	@Test
+	public void testToStringShowsCodeTags() {
+		final FigFont figFont = new FigFont.Builder().setHeight(1).setFigCharacter('a', "a")
+				.setFigCharacter(0x1F600, "@@").setFigCharacter(-4, "-").build();
+
+		assertEquals("-4:\n-\n\na:\na\n\n\uD83D\uDE00:\n@@\n\n", figFont.toString());
+	}
+
+	@Test
+	public void testLoadDetectsLatin1() throws IOException {
+		final FigFont termFont = FigFont.load(Channels.newChannel(new ByteArrayInputStream(readTermFont())));
+
+		assertEquals("\u00C4", termFont.getFigCharacter(0xC4).getRow(0));
+		assertEquals("\u00DF", termFont.getFigCharacter(0xDF).getRow(0));
+	}
+
+	@Test
+	public void testLoadDetectsUtf8() throws IOException {
+		final byte[] latin1Data = readTermFont();
+		final byte[] utf8Data = new String(latin1Data, StandardCharsets.ISO_8859_1).getBytes(StandardCharsets.UTF_8);
+		final ByteArrayOutputStream bomData = new ByteArrayOutputStream();
+		bomData.write(new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF });
+		bomData.write(utf8Data);
+
+		final String expected = FigFont.load(Channels.newChannel(new ByteArrayInputStream(latin1Data)),
+				StandardCharsets.ISO_8859_1).toString();
+		assertEquals(expected, FigFont.load(Channels.newChannel(new ByteArrayInputStream(utf8Data))).toString());
+		assertEquals(expected,
+				FigFont.load(Channels.newChannel(new ByteArrayInputStream(bomData.toByteArray()))).toString());
+		assertEquals(expected, FigFont.load(Channels.newChannel(new ByteArrayInputStream(utf8Data)),
+				StandardCharsets.UTF_8).toString());
+	}
+
+	@Test
+	public void testDetectCharset() {
+		assertSame(StandardCharsets.ISO_8859_1, detectCharset(new byte[] { 'a', 'b' }));
+		assertSame(StandardCharsets.UTF_8, detectCharset(new byte[] { 'a', (byte) 0xC3, (byte) 0x84 }));
+		assertSame(StandardCharsets.UTF_8,
+				detectCharset(new byte[] { (byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x80 }));
+		// Latin-1 text, an overlong encoding, a surrogate and a truncated sequence
+		assertSame(StandardCharsets.ISO_8859_1, detectCharset(new byte[] { 'a', (byte) 0xC4, 'b' }));
+		assertSame(StandardCharsets.ISO_8859_1, detectCharset(new byte[] { (byte) 0xE0, (byte) 0x81, (byte) 0x81 }));
+		assertSame(StandardCharsets.ISO_8859_1, detectCharset(new byte[] { (byte) 0xED, (byte) 0xA0, (byte) 0x80 }));
+		assertSame(StandardCharsets.ISO_8859_1, detectCharset(new byte[] { 'a', (byte) 0xE2, (byte) 0x82 }));
+	}
+
+	@Test
+	public void testLoadPath() throws IOException {
+		final Path fontFile = Files.createTempFile("jfiglet", ".flf");
+		try {
+			Files.write(fontFile, readTermFont());
+
+			assertEquals(FigFont.load(Channels.newChannel(new ByteArrayInputStream(readTermFont()))).toString(),
+					FigFont.load(fontFile).toString());
+			assertEquals(FigFont.load(fontFile).toString(),
+					FigFont.load(fontFile, StandardCharsets.ISO_8859_1).toString());
+		} finally {
+			Files.delete(fontFile);
+		}
+	}
+
+	@Test
+	public void testLoadMappedPath() throws IOException {
+		final StringBuilder fontData = new StringBuilder(new String(readTermFont(), StandardCharsets.ISO_8859_1));
+		int code = 0x4E00;
+		while (fontData.length() < FigFontReader.MAPPED_READ_THRESHOLD) {
+			fontData.append(code++).append("\n#@\n");
+		}
+		final Path fontFile = Files.createTempFile("jfiglet", ".flf");
+		try {
+			Files.write(fontFile, fontData.toString().getBytes(StandardCharsets.ISO_8859_1));
+
+			final FigFont figFont = FigFont.load(fontFile);
+
+			assertEquals("\u00C4", figFont.getFigCharacter(0xC4).getRow(0));
+			assertEquals("#", figFont.getFigCharacter(code - 1).getRow(0));
+		} finally {
+			Files.delete(fontFile);
+		}
+	}
+
+	@Test
+	public void testLoadMappedUtf8Path() throws IOException {
+		final StringBuilder fontData = new StringBuilder("\uFEFF")
+				.append(new String(readTermFont(), StandardCharsets.ISO_8859_1));
+		int code = 0x4E00;
+		while (fontData.length() < FigFontReader.MAPPED_READ_THRESHOLD) {
+			fontData.append(code++).append("\n\u4E00@\n");
+		}
+		final Path fontFile = Files.createTempFile("jfiglet", ".flf");
+		try {
+			Files.write(fontFile, fontData.toString().getBytes(StandardCharsets.UTF_8));
+
+			final FigFont figFont = FigFont.load(fontFile);
+
+			assertEquals("\u00C4", figFont.getFigCharacter(0xC4).getRow(0));
+			assertEquals("\u4E00", figFont.getFigCharacter(code - 1).getRow(0));
+		} finally {
+			Files.delete(fontFile);
+		}
+	}
+
+	@Test
+	public void testLoadZipped() throws IOException {
+		final byte[] zippedData = zip("term.flf", readTermFont());
+		final String expected = FigFont.load(Channels.newChannel(new ByteArrayInputStream(readTermFont())))
+				.toString();
+
+		assertEquals(expected, FigFont.load(Channels.newChannel(new ByteArrayInputStream(zippedData))).toString());
+		assertEquals(expected, FigFont.loadFigFont(new ByteArrayInputStream(zippedData)).toString());
+
+		final Path fontFile = Files.createTempFile("jfiglet", ".flf");
+		try {
+			Files.write(fontFile, zippedData);
+
+			assertEquals(expected, FigFont.load(fontFile).toString());
+			assertEquals(expected, FigFont.load(fontFile, StandardCharsets.ISO_8859_1).toString());
+		} finally {
+			Files.delete(fontFile);
+		}
+	}
+
+	@Test
+	public void testLoadZippedLeavesChannelOpen() throws IOException {
+		final ReadableByteChannel channel = Channels
+				.newChannel(new ByteArrayInputStream(zip("term.flf", readTermFont())));
+
+		FigFont.load(channel);
+
+		assertTrue(channel.isOpen());
+	}
+
+	@Test(expected = IOException.class)
+	public void testLoadEmptyZip() throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (final ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+			zipOutputStream.putNextEntry(new ZipEntry("empty.flf"));
+		}
+		FigFont.load(Channels.newChannel(new ByteArrayInputStream(outputStream.toByteArray())));
+	}
+
+	@Test
+	public void testLoadZipWithWrongEntrySize() throws IOException {
+		final byte[] fontData = readTermFont();
+		final CRC32 crc = new CRC32();
+		crc.update(fontData);
+		final ZipEntry zipEntry = new ZipEntry("term.flf");
+		zipEntry.setMethod(ZipEntry.STORED);
+		zipEntry.setSize(fontData.length);
+		zipEntry.setCrc(crc.getValue());
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (final ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+			zipOutputStream.putNextEntry(zipEntry);
+			zipOutputStream.write(fontData);
+		}
+
+		// Claim, in the local file header, that the entry is nearly 2 GB long.
+		final byte[] zippedData = outputStream.toByteArray();
+		ByteBuffer.wrap(zippedData).order(ByteOrder.LITTLE_ENDIAN).putInt(22, Integer.MAX_VALUE - 16);
+
+		try {
+			FigFont.load(Channels.newChannel(new ByteArrayInputStream(zippedData)));
+			fail("Expected IOException");
+		} catch (final IOException e) {
+			// Expected, without the claimed size having been allocated.
+		}
+	}
+
+	@Test
+	public void testLoadZipLargerThanMaximum() throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (final ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+			zipOutputStream.putNextEntry(new ZipEntry("large.flf"));
+			final byte[] blanks = new byte[1024 * 1024];
+			Arrays.fill(blanks, (byte) ' ');
+			for (int count = 0; count <= FigFontReader.MAX_UNZIPPED_SIZE / blanks.length; count++) {
+				zipOutputStream.write(blanks);
+			}
+		}
+
+		try {
+			FigFont.load(Channels.newChannel(new ByteArrayInputStream(outputStream.toByteArray())));
+			fail("Expected IOException");
+		} catch (final IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("larger than"));
+		}
+	}
+
+	private static byte[] zip(final String entryName, final byte[] data) throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (final ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+			zipOutputStream.putNextEntry(new ZipEntry(entryName));
+			zipOutputStream.write(data);
+		}
+		return outputStream.toByteArray();
+	}
+
+	private static Charset detectCharset(final byte[] data) {
+		return FigFontReader.detectCharset(ByteBuffer.wrap(data));
+	}
+
+	private static byte[] readTermFont() throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (final InputStream inputStream = FigFontTest.class.getClassLoader()
+				.getResourceAsStream(FigFontResources.TERM_FLF)) {
+			final byte[] buffer = new byte[8192];
+			int count;
+			while ((count = inputStream.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, count);
+			}
+		}
+		return outputStream.toByteArray();
+	}
 }
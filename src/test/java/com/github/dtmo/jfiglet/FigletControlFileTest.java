@@ -0,0 +1,178 @@
+package com.github.dtmo.jfiglet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FigletControlFileTest {
+	private FigFont standardFont;
+
+	@Before
+	public void before() throws Exception {
+		standardFont = FigFontResources.loadFigFontResource(FigFontResources.STANDARD_FLF);
+	}
+
+	@Test
+	public void testTranslateRange() throws IOException {
+		final FigletControlFile controlFile = FigletControlFile.parse("flc2a\n# Upper case\nt a-z A-Z\n");
+
+		assertEquals('H', controlFile.translate('h'));
+		assertEquals('Z', controlFile.translate('z'));
+		assertEquals('1', controlFile.translate('1'));
+		assertEquals(0x1F600, controlFile.translate(0x1F600));
+	}
+
+	@Test
+	public void testTranslateEscapesAndNumbers() throws IOException {
+		final FigletControlFile controlFile = FigletControlFile
+				.parse("t \\0x41-\\x43 \\97\r\nt \\t \\\\\n0xE4 0101\nt \\- _\n-5 27\n");
+
+		assertEquals('a', controlFile.translate('A'));
+		assertEquals('c', controlFile.translate('C'));
+		assertEquals('\\', controlFile.translate('\t'));
+		assertEquals('A', controlFile.translate(0xE4));
+		assertEquals('_', controlFile.translate('-'));
+		assertEquals(27, controlFile.translate(-5));
+	}
+
+	@Test
+	public void testFirstTranslationInStageApplies() throws IOException {
+		final FigletControlFile controlFile = FigletControlFile.parse("t a b\nt a c\nt b c\n");
+
+		assertEquals('b', controlFile.translate('a'));
+		assertEquals('c', controlFile.translate('b'));
+	}
+
+	@Test
+	public void testFrozenStagesApplyInTurn() throws IOException {
+		final FigletControlFile controlFile = FigletControlFile.parse("t a b\nf\nt b c\n");
+
+		assertEquals('c', controlFile.translate('a'));
+		assertEquals('c', controlFile.translate('b'));
+	}
+
+	@Test
+	public void testTranslateOutsideBasicMultilingualPlane() {
+		final FigletControlFile controlFile = new FigletControlFile.Builder().addTranslation(0x1F600, 0x1F602, 'x')
+				.addTranslation('s', 0x1F60E).freeze().addTranslation(0x1F60E, 'S').build();
+
+		assertEquals('x', controlFile.translate(0x1F600));
+		assertEquals('z', controlFile.translate(0x1F602));
+		assertEquals(0x1F603, controlFile.translate(0x1F603));
+		assertEquals('S', controlFile.translate('s'));
+		assertEquals('S', controlFile.translate(0x1F60E));
+	}
+
+	@Test
+	public void testTooManyTranslationsOutsideBasicMultilingualPlane() {
+		try {
+			new FigletControlFile.Builder().addTranslation(0x10000, 0x10000 + FigletControlFile.MAX_SPARSE_SIZE, 0);
+			fail("Expected IllegalArgumentException");
+		} catch (final IllegalArgumentException e) {
+			// Expected.
+		}
+	}
+
+	@Test
+	public void testCharacterSets() throws IOException {
+		assertEquals(0xE9, FigletControlFile.parse("# Latin-1\n").translate(0xE9));
+		assertEquals(('M' << 16) | 0xE9, FigletControlFile.parse("g 1 96 M\n").translate(0xE9));
+		assertEquals('A', FigletControlFile.parse("g R 0\n").translate(0xC1));
+		assertEquals(('J' << 16) | 0x41, FigletControlFile.parse("g 0 94 J\n").translate('A'));
+		assertEquals(0xA5, FigletControlFile.parse("g 0 94 J\nt \\0x4A005C \\0xA5\n").translate('\\'));
+		assertEquals(0xC1, FigletControlFile.parse("g 1 94x94 B\n").translate(0xC1));
+		assertEquals('A', FigletControlFile.parse("g 0 94 J\nu\n").translate('A'));
+	}
+
+	@Test
+	public void testInvalidCommands() {
+		for (final String text : new String[] { "t a\n", "t\n", "0x41\n", "99999999999 0\n", "t \\x", "g 4 94 B\n",
+				"g 0 95 B\n", "g L 7\n", "t z-a A\n" }) {
+			try {
+				FigletControlFile.parse(text);
+				fail("Expected IOException for " + text);
+			} catch (final IOException e) {
+				assertTrue(e.getMessage(), e.getMessage().contains("line 1"));
+			}
+		}
+	}
+
+	@Test
+	public void testLoad() throws IOException {
+		final Path path = Files.createTempFile("jfiglet", FigletControlFile.CONTROL_FILE_EXTENSION);
+		try {
+			Files.write(path, "t \u00E4 a\n".getBytes(StandardCharsets.UTF_8));
+			assertEquals('a', FigletControlFile.load(path).translate(0xE4));
+			assertEquals('a', FigletControlFile.read(new StringReader("t \u00E4 a\n")).translate(0xE4));
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void testRenderWithControlFile() throws IOException {
+		final FigletRenderer renderer = new FigletRenderer.Builder(standardFont)
+				.setControlFile(FigletControlFile.parse("t a-z A-Z\nt | \\n\n")).build();
+		final FigletRenderer plainRenderer = new FigletRenderer(standardFont);
+
+		assertEquals(plainRenderer.renderText("HELLO\nWORLD"), renderer.renderText("hello|world"));
+		assertEquals(2, renderer.measure("hello|world").getLineCount());
+		assertEquals(renderer.getControlFile(), renderer.toBuilder().build().getControlFile());
+
+		final FigletRenderer wrappingRenderer = renderer.toBuilder().setMaxWidth(40).build();
+		assertEquals(plainRenderer.toBuilder().setMaxWidth(40).build().renderText("HELLO WORLD\nAGAIN"),
+				wrappingRenderer.renderText("hello world|again"));
+	}
+
+	@Test
+	public void testRenderWithSupplementaryWhitespace() throws IOException {
+		final FigletRenderer renderer = new FigletRenderer.Builder(standardFont)
+				.setControlFile(FigletControlFile.parse("0x1F600 10\n0x1F601 32\n")).build();
+		final FigletRenderer plainRenderer = new FigletRenderer(standardFont);
+		final String text = "ab\uD83D\uDE00cd\uD83D\uDE00ef";
+
+		assertEquals(plainRenderer.renderText("ab\ncd\nef"), renderer.renderText(text));
+		assertEquals(3, renderer.measure(text).getLineCount());
+		assertEquals(2, renderer.countFitting(text, 1000));
+
+		final StringWriter writer = new StringWriter();
+		renderer.renderStream(new StringReader(text), writer);
+		assertEquals(plainRenderer.renderText("ab\ncd\nef"), writer.toString());
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final FigletRenderer parallelRenderer = renderer.toBuilder().setParallel(true).setParallelThreshold(0)
+					.setExecutor(executor).build();
+			assertEquals(plainRenderer.renderText("ab\ncd\nef"), parallelRenderer.renderText(text));
+		} finally {
+			executor.shutdown();
+		}
+
+		final String spacedText = "hello\uD83D\uDE01world\uD83D\uDE01again";
+		assertEquals(plainRenderer.toBuilder().setMaxWidth(40).build().renderText("hello world again"),
+				renderer.toBuilder().setMaxWidth(40).build().renderText(spacedText));
+	}
+
+	@Test
+	public void testRenderCacheIsKeyedByControlFile() throws IOException {
+		final FigletRenderCache cache = new FigletRenderCache.Builder().build();
+		final FigletRenderer renderer = new FigletRenderer(standardFont);
+		final FigletRenderer upperRenderer = renderer.toBuilder()
+				.setControlFile(FigletControlFile.parse("t a-z A-Z\n")).build();
+
+		assertEquals(renderer.renderText("hello"), cache.renderText(renderer, "hello"));
+		assertEquals(renderer.renderText("HELLO"), cache.renderText(upperRenderer, "hello"));
+	}
+}
@@ -0,0 +1,74 @@
+package com.github.dtmo.jfiglet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FigletEventsTest {
+	@Test
+	public void testEventsAreRecorded() throws IOException {
+		final Path file = Files.createTempFile("jfiglet", ".jfr");
+		try {
+			final FigFont figFont;
+			final String rendered;
+			try (final Recording recording = new Recording()) {
+				recording.enable("com.github.dtmo.jfiglet.Render").withThreshold(Duration.ZERO);
+				recording.enable("com.github.dtmo.jfiglet.FontLoad").withThreshold(Duration.ZERO);
+				recording.start();
+
+				figFont = FigFontResources.loadFigFontResource(FigFontResources.SLANT_FLF);
+				rendered = new FigletRenderer(figFont).renderText("Hello");
+
+				recording.stop();
+				recording.dump(file);
+			}
+
+			final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+			RecordedEvent fontLoad = null;
+			RecordedEvent render = null;
+			for (final RecordedEvent event : events) {
+				final String name = event.getEventType().getName();
+				if (name.equals("com.github.dtmo.jfiglet.FontLoad")) {
+					fontLoad = event;
+				} else if (name.equals("com.github.dtmo.jfiglet.Render")) {
+					render = event;
+				}
+			}
+
+			assertEquals(FigFontResources.SLANT_FLF, fontLoad.getString("fontName"));
+			assertEquals(figFont.getGlyphCount(), fontLoad.getInt("glyphCount"));
+			assertTrue(fontLoad.getLong("size") > 0);
+
+			assertEquals(System.identityHashCode(figFont), render.getInt("fontId"));
+			assertEquals("Hello".length(), render.getLong("textLength"));
+			assertEquals(rendered.length(), render.getLong("outputLength"));
+			assertEquals(figFont.getPrintDirection().name(), render.getString("printDirection"));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testGlyphCount() throws IOException {
+		final FigFont figFont = FigFontResources.loadFigFontResource(FigFontResources.STANDARD_FLF);
+
+		int glyphCount = 0;
+		for (int character = Character.MIN_VALUE; character <= Character.MAX_VALUE; character++) {
+			if (figFont.getFigCharacter((char) character) != null) {
+				glyphCount++;
+			}
+		}
+		assertEquals(glyphCount, figFont.getGlyphCount());
+	}
+}
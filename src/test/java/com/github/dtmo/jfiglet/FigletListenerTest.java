@@ -0,0 +1,106 @@
+package com.github.dtmo.jfiglet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FigletListenerTest {
+	private final RecordingListener listener = new RecordingListener();
+	private FigletRenderer renderer;
+
+	@Before
+	public void setUp() throws IOException {
+		renderer = new FigletRenderer(FigFontResources.loadFigFontResource(FigFontResources.STANDARD_FLF));
+		FigletListeners.setListener(listener);
+	}
+
+	@After
+	public void tearDown() {
+		FigletListeners.setListener(FigletListener.NO_OP);
+	}
+
+	@Test
+	public void testRenderTextIsNotified() {
+		final String rendered = renderer.renderText("Hello\nHello");
+
+		assertEquals(1, listener.renders.size());
+		final long[] render = listener.renders.get(0);
+		assertEquals("Hello\nHello".length(), render[0]);
+		assertEquals(rendered.length(), render[1]);
+		assertTrue(render[2] >= 0);
+	}
+
+	@Test
+	public void testEveryRenderingMethodIsNotified() throws IOException {
+		final String text = "Hello world";
+		final int renderedLength = renderer.renderText(text).length();
+
+		final StringBuilder stringBuilder = new StringBuilder();
+		renderer.renderTo(text, stringBuilder);
+		renderer.renderInto(text, new char[renderedLength], 0);
+		renderer.renderStream(new StringReader(text), new StringWriter());
+		renderer.renderAll(Arrays.asList(text, text));
+
+		assertEquals(6, listener.renders.size());
+		for (final long[] render : listener.renders) {
+			assertEquals(text.length(), render[0]);
+			assertEquals(renderedLength, render[1]);
+		}
+	}
+
+	@Test
+	public void testMissingGlyphIsNotified() {
+		renderer.renderText("a\u4E00b");
+
+		assertEquals(Collections.singletonList(Integer.valueOf('\u4E00')), listener.missingGlyphs);
+	}
+
+	@Test
+	public void testFontLoadIsNotified() throws IOException {
+		final FigFont figFont = FigFontResources.loadFigFontResource(FigFontResources.SLANT_FLF);
+
+		assertEquals(Collections.singletonList(FigFontResources.SLANT_FLF), listener.fontNames);
+		assertSame(figFont, listener.fonts.get(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetNullListener() {
+		FigletListeners.setListener(null);
+	}
+
+	private static class RecordingListener implements FigletListener {
+		private final List<long[]> renders = Collections.synchronizedList(new ArrayList<>());
+		private final List<Integer> missingGlyphs = Collections.synchronizedList(new ArrayList<>());
+		private final List<String> fontNames = Collections.synchronizedList(new ArrayList<>());
+		private final List<FigFont> fonts = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public void textRendered(final FigletRenderer renderer, final long inputLength, final long outputLength,
+				final long durationNanos) {
+			renders.add(new long[] { inputLength, outputLength, durationNanos });
+		}
+
+		@Override
+		public void glyphMissing(final FigFont figFont, final int character) {
+			missingGlyphs.add(character);
+		}
+
+		@Override
+		public void fontLoaded(final String fontName, final FigFont figFont, final long durationNanos) {
+			fontNames.add(fontName);
+			fonts.add(figFont);
+		}
+	}
+}
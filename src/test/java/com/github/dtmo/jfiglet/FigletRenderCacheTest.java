@@ -0,0 +1,114 @@
+package com.github.dtmo.jfiglet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.dtmo.jfiglet.FigFont.PrintDirection;
+
+public class FigletRenderCacheTest {
+	private FigFont standardFont;
+	private FigletRenderer renderer;
+
+	@Before
+	public void setUp() throws IOException {
+		standardFont = FigFontResources.loadFigFontResource(FigFontResources.STANDARD_FLF);
+		renderer = new FigletRenderer(standardFont);
+	}
+
+	@Test
+	public void testRepeatedTextIsRenderedOnce() {
+		final FigletRenderCache cache = new FigletRenderCache.Builder().build();
+
+		final String rendered = cache.renderText(renderer, "Hello");
+
+		assertEquals(renderer.renderText("Hello"), rendered);
+		assertSame(rendered, cache.renderText(renderer, "Hello"));
+		final FigletRenderCache.Statistics statistics = cache.getStatistics();
+		assertEquals(1, statistics.getHitCount());
+		assertEquals(1, statistics.getMissCount());
+		assertEquals(0.5, statistics.getHitRate(), 0.0);
+		assertEquals(1, statistics.getSize());
+		assertEquals("Hello".length() + rendered.length(), statistics.getWeight());
+	}
+
+	@Test
+	public void testSettingsAreKeys() {
+		final FigletRenderCache cache = new FigletRenderCache.Builder().build();
+		final String rendered = cache.renderText(renderer, "Hello");
+
+		final FigletRenderer rightToLeftRenderer = renderer.withPrintDirection(PrintDirection.RIGHT_TO_LEFT);
+		assertEquals(rightToLeftRenderer.renderText("Hello"), cache.renderText(rightToLeftRenderer, "Hello"));
+
+		final FigletRenderer fullWidthRenderer = renderer.withSmushMode(0);
+		assertEquals(fullWidthRenderer.renderText("Hello"), cache.renderText(fullWidthRenderer, "Hello"));
+
+		assertSame(rendered, cache.renderText(new FigletRenderer(standardFont), "Hello"));
+		assertEquals(3, cache.getStatistics().getMissCount());
+	}
+
+	@Test
+	public void testFontsAreComparedByIdentity() throws IOException {
+		final FigletRenderCache cache = new FigletRenderCache.Builder().build();
+		final FigletRenderer otherRenderer = new FigletRenderer(
+				FigFontResources.loadFigFontResource(FigFontResources.STANDARD_FLF));
+
+		final String rendered = cache.renderText(renderer, "Hello");
+
+		assertNotSame(rendered, cache.renderText(otherRenderer, "Hello"));
+		assertEquals(2, cache.getStatistics().getMissCount());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() {
+		final FigletRenderCache cache = new FigletRenderCache.Builder().setMaximumSize(2).build();
+
+		final String first = cache.renderText(renderer, "one");
+		cache.renderText(renderer, "two");
+		cache.renderText(renderer, "one");
+		cache.renderText(renderer, "three");
+
+		assertSame(first, cache.renderText(renderer, "one"));
+		assertEquals(1, cache.getStatistics().getEvictionCount());
+		assertEquals(2, cache.getStatistics().getSize());
+
+		cache.renderText(renderer, "two");
+		assertEquals(4, cache.getStatistics().getMissCount());
+	}
+
+	@Test
+	public void testWeightIsBounded() {
+		final long maximumWeight = 3 * ("abc".length() + renderer.renderText("abc").length());
+		final FigletRenderCache cache = new FigletRenderCache.Builder().setMaximumWeight(maximumWeight).build();
+
+		for (final String text : new String[] { "abc", "def", "ghi", "jkl", "mno" }) {
+			cache.renderText(renderer, text);
+		}
+
+		final FigletRenderCache.Statistics statistics = cache.getStatistics();
+		assertTrue(statistics.getWeight() <= maximumWeight);
+		assertEquals(5, statistics.getSize() + statistics.getEvictionCount());
+	}
+
+	@Test
+	public void testInvalidateAll() {
+		final FigletRenderCache cache = new FigletRenderCache.Builder().build();
+		cache.renderText(renderer, "Hello");
+
+		cache.invalidateAll();
+
+		assertEquals(0, cache.getStatistics().getSize());
+		assertEquals(0, cache.getStatistics().getWeight());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeMaximumWeight() {
+		new FigletRenderCache.Builder().setMaximumWeight(-1);
+	}
+}
@@ -0,0 +1,401 @@
+package com.github.dtmo.jfiglet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FigletRendererTest {
+
+	private static final String HELLO_STANDARD = String.join("\n", //
+			"  _   _      _ _       ", //
+			" | | | | ___| | | ___  ", //
+			" | |_| |/ _ \\ | |/ _ \\ ", //
+			" |  _  |  __/ | | (_) |", //
+			" |_| |_|\\___|_|_|\\___/ ", //
+			"                       ");
+
+	private static final String HELLO_STANDARD_RIGHT_TO_LEFT = String.join("\n", //
+			"        _ _      _   _ ", //
+			"   ___ | | | ___| | | |", //
+			"  / _ \\| | |/ _ \\ |_| |", //
+			" | (_) | | |  __/  _  |", //
+			"  \\___/|_|_|\\___|_| |_|", //
+			"                       ");
+
+	private FigFont standardFont;
+	private FigletRenderer renderer;
+
+	@Before
+	public void before() throws Exception {
+		standardFont = FigFontResources.loadFigFontResource(FigFontResources.STANDARD_FLF);
+		renderer = new FigletRenderer(standardFont);
+	}
+
+	@Test
+	public void testRenderText() {
+		assertEquals(HELLO_STANDARD, renderer.renderText("Hello"));
+	}
+
+	private static final String HELLO_HELLO_STANDARD_VERTICAL_SMUSHING = String.join("\n", //
+			"  _   _      _ _       ", //
+			" | | | | ___| | | ___  ", //
+			" | |_| |/ _ \\ | |/ _ \\ ", //
+			" |  _  |  __/ | | (_) |", //
+			" |_| |_|\\___|_|_|\\___/ ", //
+			" | | | | ___| | | ___  ", //
+			" | |_| |/ _ \\ | |/ _ \\ ", //
+			" |  _  |  __/ | | (_) |", //
+			" |_| |_|\\___|_|_|\\___/ ", //
+			"                       ");
+
+	private static final int VERTICAL_LAYOUT = LayoutOptions.VERTICAL_FITTING_BY_DEFAULT
+			| LayoutOptions.VERTICAL_SMUSHING_BY_DEFAULT;
+
+	@Test
+	public void testRenderTextMultipleLines() {
+		renderer = renderer.withSmushMode(standardFont.getFullLayout() & ~VERTICAL_LAYOUT);
+
+		assertEquals(HELLO_STANDARD + "\n" + HELLO_STANDARD, renderer.renderText("Hello\nHello"));
+	}
+
+	@Test
+	public void testRenderTextMultipleLinesVerticalSmushing() {
+		assertEquals(HELLO_HELLO_STANDARD_VERTICAL_SMUSHING, renderer.renderText("Hello\nHello"));
+	}
+
+	@Test
+	public void testRenderTextMultipleLinesVerticalFitting() {
+		renderer = renderer.withSmushMode(
+				(standardFont.getFullLayout() & ~VERTICAL_LAYOUT) | LayoutOptions.VERTICAL_FITTING_BY_DEFAULT);
+
+		final String[] helloRows = HELLO_STANDARD.split("\n", -1);
+		final String fittedRows = String.join("\n", helloRows[0], helloRows[1], helloRows[2], helloRows[3],
+				helloRows[4]);
+		assertEquals(fittedRows + "\n" + HELLO_STANDARD, renderer.renderText("Hello\nHello"));
+	}
+
+	@Test
+	public void testRenderTextWrapsAtSpace() {
+		renderer = renderer.toBuilder().setSmushMode(standardFont.getFullLayout() & ~VERTICAL_LAYOUT).setMaxWidth(40)
+				.build();
+
+		assertEquals(HELLO_STANDARD + "\n" + HELLO_STANDARD, renderer.renderText("Hello Hello"));
+	}
+
+	@Test
+	public void testRenderTextWrapsWithinWord() {
+		renderer = renderer.toBuilder().setSmushMode(standardFont.getFullLayout() & ~VERTICAL_LAYOUT)
+				.setMaxWidth(HELLO_STANDARD.indexOf('\n')).build();
+
+		assertEquals(HELLO_STANDARD + "\n" + HELLO_STANDARD, renderer.renderText("HelloHello"));
+	}
+
+	@Test
+	public void testRenderTextWithinMaxWidth() {
+		renderer = renderer.toBuilder().setMaxWidth(HELLO_STANDARD.indexOf('\n')).build();
+
+		assertEquals(HELLO_STANDARD, renderer.renderText("Hello"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetMaxWidthNegative() {
+		new FigletRenderer.Builder(standardFont).setMaxWidth(-1);
+	}
+
+	@Test
+	public void testRenderStreamReader() throws Exception {
+		final String text = "Hello\nHello world\n\nHello";
+		final StringWriter writer = new StringWriter();
+
+		renderer = renderer.toBuilder().setMaxWidth(60).build();
+		renderer.renderStream(new StringReader(text), writer);
+
+		assertEquals(renderer.renderText(text), writer.toString());
+	}
+
+	@Test
+	public void testRenderStreamIterator() throws Exception {
+		final StringWriter writer = new StringWriter();
+
+		renderer.renderStream(Arrays.asList("Hello", "Hello").iterator(), writer);
+
+		assertEquals(HELLO_HELLO_STANDARD_VERTICAL_SMUSHING, writer.toString());
+	}
+
+	@Test
+	public void testRenderTextParallel() {
+		final StringBuilder text = new StringBuilder();
+		for (int line = 0; line < 100; line++) {
+			text.append("Hello world ").append(line).append('\n');
+		}
+		final String expected = renderer.renderText(text.toString());
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final FigletRenderer parallelRenderer = renderer.toBuilder().setParallel(true).setParallelThreshold(0)
+					.setExecutor(executor).build();
+
+			assertEquals(expected, parallelRenderer.renderText(text.toString()));
+
+			final int fullHeightSmushMode = standardFont.getFullLayout() & ~VERTICAL_LAYOUT;
+			final String expectedFullHeight = renderer.withSmushMode(fullHeightSmushMode).renderText(text.toString());
+			assertEquals(expectedFullHeight,
+					parallelRenderer.withSmushMode(fullHeightSmushMode).renderText(text.toString()));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testWithSmushModeLeavesRendererUnchanged() {
+		final FigletRenderer fullHeightRenderer = renderer
+				.withSmushMode(standardFont.getFullLayout() & ~VERTICAL_LAYOUT);
+
+		assertEquals(standardFont.getFullLayout(), renderer.getSmushMode());
+		assertEquals(HELLO_HELLO_STANDARD_VERTICAL_SMUSHING, renderer.renderText("Hello\nHello"));
+		assertEquals(HELLO_STANDARD + "\n" + HELLO_STANDARD, fullHeightRenderer.renderText("Hello\nHello"));
+		assertSame(renderer, renderer.withSmushMode(standardFont.getFullLayout()));
+	}
+
+	@Test
+	public void testToBuilder() {
+		final FigletRenderer wrappingRenderer = new FigletRenderer.Builder(standardFont)
+				.setPrintDirection(FigFont.PrintDirection.RIGHT_TO_LEFT).setMaxWidth(40).setParallelThreshold(10)
+				.build();
+
+		final FigletRenderer.Builder builder = wrappingRenderer.toBuilder();
+
+		assertSame(standardFont, builder.getFigFont());
+		assertEquals(standardFont.getFullLayout(), builder.getSmushMode());
+		assertEquals(FigFont.PrintDirection.RIGHT_TO_LEFT, builder.getPrintDirection());
+		assertEquals(40, builder.getMaxWidth());
+		assertEquals(10, builder.getParallelThreshold());
+	}
+
+	@Test
+	public void testRenderTextConcurrently() throws Exception {
+		final String[] texts = { "Hello", "Hello\nHello", "Hello world", "jfiglet" };
+		final String[] expected = new String[texts.length];
+		for (int index = 0; index < texts.length; index++) {
+			expected[index] = renderer.renderText(texts[index]);
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			final List<Future<Boolean>> results = new ArrayList<>();
+			for (int task = 0; task < 32; task++) {
+				results.add(executor.submit(() -> {
+					for (int repeat = 0; repeat < 100; repeat++) {
+						for (int index = 0; index < texts.length; index++) {
+							if (!expected[index].equals(renderer.renderText(texts[index]))) {
+								return false;
+							}
+						}
+					}
+					return true;
+				}));
+			}
+			for (final Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testRenderAll() {
+		final List<String> texts = Arrays.asList("Hello", "Hello\nHello", "", "world", "Hello");
+
+		final List<String> rendered = renderer.renderAll(texts);
+
+		assertEquals(texts.size(), rendered.size());
+		for (int index = 0; index < texts.size(); index++) {
+			assertEquals(renderer.renderText(texts.get(index)), rendered.get(index));
+		}
+		assertEquals(HELLO_HELLO_STANDARD_VERTICAL_SMUSHING, rendered.get(1));
+	}
+
+	@Test
+	public void testRenderAllWithExecutor() {
+		final List<String> texts = new ArrayList<>();
+		for (int index = 0; index < 50; index++) {
+			texts.add("Label " + index + (index % 7 == 0 ? "\nsecond line" : ""));
+		}
+		final List<String> expected = renderer.renderAll(texts);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			assertEquals(expected, renderer.renderAll(texts, executor));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testRenderAllStream() {
+		final List<String> texts = new ArrayList<>();
+		for (int index = 0; index < 50; index++) {
+			texts.add("Label " + index);
+		}
+		final List<String> expected = renderer.renderAll(texts);
+
+		assertEquals(expected, renderer.renderAll(texts.stream()).collect(Collectors.toList()));
+		assertEquals(expected, renderer.renderAll(texts.parallelStream()).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testRenderIntoArrayVerticalSmushing() {
+		final char[] buffer = new char[HELLO_HELLO_STANDARD_VERTICAL_SMUSHING.length()];
+
+		final int length = renderer.renderInto("Hello\nHello", buffer, 0);
+
+		assertEquals(HELLO_HELLO_STANDARD_VERTICAL_SMUSHING, new String(buffer, 0, length));
+	}
+
+	@Test
+	public void testRenderTo() throws Exception {
+		final StringBuilder stringBuilder = new StringBuilder("> ");
+
+		renderer.renderTo("Hello", stringBuilder);
+
+		assertEquals("> " + HELLO_STANDARD, stringBuilder.toString());
+	}
+
+	@Test
+	public void testRenderIntoArray() {
+		final char[] buffer = new char[HELLO_STANDARD.length() + 4];
+
+		final int length = renderer.renderInto("Hello", buffer, 2);
+
+		assertEquals(HELLO_STANDARD.length(), length);
+		assertEquals(HELLO_STANDARD, new String(buffer, 2, length));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testRenderIntoArrayTooSmall() {
+		renderer.renderInto("Hello", new char[HELLO_STANDARD.length() - 1], 0);
+	}
+
+	@Test
+	public void testRenderIntoCharBuffer() {
+		final CharBuffer buffer = CharBuffer.allocate(HELLO_STANDARD.length() + 2);
+		buffer.put("> ");
+
+		renderer.renderInto("Hello", buffer);
+
+		buffer.flip();
+		assertEquals("> " + HELLO_STANDARD, buffer.toString());
+	}
+
+	@Test(expected = BufferOverflowException.class)
+	public void testRenderIntoCharBufferTooSmall() {
+		renderer.renderInto("Hello", CharBuffer.allocate(HELLO_STANDARD.length() - 1));
+	}
+
+	@Test
+	public void testRenderSkipsCharactersMissingFromFont() {
+		assertEquals(HELLO_STANDARD, renderer.renderText("Hel\u2603lo"));
+	}
+
+	@Test
+	public void testRenderTextRightToLeft() {
+		renderer = renderer.withPrintDirection(FigFont.PrintDirection.RIGHT_TO_LEFT);
+
+		assertEquals(HELLO_STANDARD_RIGHT_TO_LEFT, renderer.renderText("Hello"));
+	}
+
+	@Test
+	public void testRenderLongLineRightToLeft() {
+		final StringBuilder text = new StringBuilder();
+		for (int count = 0; count < 1000; count++) {
+			text.append("Hello");
+		}
+		renderer = renderer.withPrintDirection(FigFont.PrintDirection.RIGHT_TO_LEFT);
+
+		final String[] rows = renderer.renderText(text.toString()).split("\n", -1);
+
+		final String[] helloRows = HELLO_STANDARD_RIGHT_TO_LEFT.split("\n", -1);
+		assertEquals(helloRows.length, rows.length);
+		for (int row = 0; row < rows.length; row++) {
+			assertEquals(rows[0].length(), rows[row].length());
+			assertEquals(helloRows[row].substring(0, 10), rows[row].substring(0, 10));
+			assertEquals(helloRows[row].substring(helloRows[row].length() - 10),
+					rows[row].substring(rows[row].length() - 10));
+		}
+	}
+
+	@Test
+	public void testMeasure() {
+		renderer = renderer.withSmushMode(standardFont.getFullLayout() & ~VERTICAL_LAYOUT);
+
+		final FigletMeasurement measurement = renderer.measure("Hello\nHi");
+
+		final String[] rows = renderer.renderText("Hello\nHi").split("\n", -1);
+		assertEquals(2, measurement.getLineCount());
+		assertEquals(rows[0].length(), measurement.getLineWidth(0));
+		assertEquals(rows[standardFont.getHeight()].length(), measurement.getLineWidth(1));
+		assertEquals(HELLO_STANDARD.indexOf('\n'), measurement.getWidth());
+		assertEquals(rows.length, measurement.getHeight());
+	}
+
+	@Test
+	public void testMeasureWrappedText() {
+		renderer = renderer.toBuilder().setMaxWidth(30).build();
+
+		final FigletMeasurement measurement = renderer.measure("Hello Hello Hello");
+
+		final String[] rows = renderer.renderText("Hello Hello Hello").split("\n", -1);
+		assertEquals(3, measurement.getLineCount());
+		assertEquals(rows.length, measurement.getHeight());
+		assertEquals(rows[0].length(), measurement.getWidth());
+	}
+
+	@Test
+	public void testMeasureVerticallySmushedText() {
+		final FigletMeasurement measurement = renderer.measure("Hello\nHello");
+
+		assertEquals(HELLO_HELLO_STANDARD_VERTICAL_SMUSHING.split("\n", -1).length, measurement.getHeight());
+		assertEquals(HELLO_STANDARD.indexOf('\n'), measurement.getWidth());
+	}
+
+	@Test
+	public void testCountFitting() {
+		final int helloWidth = HELLO_STANDARD.indexOf('\n');
+
+		assertEquals(5, renderer.countFitting("Hello", helloWidth));
+		assertEquals(4, renderer.countFitting("Hello", helloWidth - 1));
+		assertEquals(5, renderer.countFitting("Hello\nHello", 1000));
+		assertEquals(0, renderer.countFitting("Hello", 0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCountFittingNegativeColumns() {
+		renderer.countFitting("Hello", -1);
+	}
+
+	@Test
+	public void testRenderSupplementaryCodePoint() {
+		final FigFont figFont = new FigFont.Builder().setHeight(1).setFigCharacter('a', "a")
+				.setFigCharacter(0x1F600, "@@").build();
+		renderer = new FigletRenderer.Builder(figFont).setSmushMode(0).build();
+
+		assertEquals("a@@a", renderer.renderText("a\uD83D\uDE00a"));
+		assertEquals(4, renderer.measure("a\uD83D\uDE00a").getWidth());
+	}
+}
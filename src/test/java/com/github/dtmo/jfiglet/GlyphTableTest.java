@@ -0,0 +1,95 @@
+package com.github.dtmo.jfiglet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.dtmo.jfiglet.FigFont.FigCharacter;
+
+public class GlyphTableTest {
+
+	private FigFont standardFont;
+
+	@Before
+	public void before() throws Exception {
+		standardFont = FigFontResources.loadFigFontResource(FigFontResources.STANDARD_FLF);
+	}
+
+	@Test
+	public void testDirectAndMappedCodes() {
+		final FigCharacter figChar = standardFont.getFigCharacter('A');
+		final GlyphTable glyphTable = new GlyphTable();
+
+		glyphTable.put('A', figChar);
+		glyphTable.put(0x2502, figChar);
+		glyphTable.put(-2, figChar);
+
+		assertSame(figChar, glyphTable.get('A'));
+		assertSame(figChar, glyphTable.get(0x2502));
+		assertSame(figChar, glyphTable.get(-2));
+		assertNull(glyphTable.get('B'));
+		assertNull(glyphTable.get(0x2503));
+		assertNull(glyphTable.get(-1));
+		assertEquals(Arrays.toString(new int[] { -2, 'A', 0x2502 }), Arrays.toString(glyphTable.getCodes()));
+	}
+
+	@Test
+	public void testManyMappedCodes() {
+		final GlyphTable glyphTable = new GlyphTable();
+		for (int code = 0; code < 5000; code++) {
+			glyphTable.put(GlyphTable.DIRECT_SIZE + (code * 7), standardFont.getFigCharacter((char) (' ' + (code % 95))));
+		}
+
+		for (int code = 0; code < 5000; code++) {
+			assertSame(standardFont.getFigCharacter((char) (' ' + (code % 95))),
+					glyphTable.get(GlyphTable.DIRECT_SIZE + (code * 7)));
+			assertNull(glyphTable.get(GlyphTable.DIRECT_SIZE + (code * 7) + 1));
+		}
+		assertEquals(5000, glyphTable.getCodes().length);
+	}
+
+	@Test
+	public void testLazyCodesAreDecodedOnce() {
+		final int[] decodeCounts = new int[3];
+		final GlyphTable glyphTable = new GlyphTable(glyph -> {
+			decodeCounts[glyph]++;
+			return standardFont.getFigCharacter('A' + glyph);
+		});
+
+		glyphTable.putGlyph('A', 0);
+		glyphTable.putGlyph(0x2502, 1);
+		glyphTable.putGlyph(-2, 2);
+		glyphTable.put(-2, standardFont.getFigCharacter('Z'));
+		assertEquals(2, glyphTable.getUndecodedCount());
+
+		assertSame(standardFont.getFigCharacter('A'), glyphTable.get('A'));
+		assertSame(standardFont.getFigCharacter('A'), glyphTable.get('A'));
+		assertEquals(1, glyphTable.getUndecodedCount());
+		assertSame(standardFont.getFigCharacter('B'), glyphTable.get(0x2502));
+		assertSame(standardFont.getFigCharacter('Z'), glyphTable.get(-2));
+		assertEquals(0, glyphTable.getUndecodedCount());
+
+		assertSame(standardFont.getFigCharacter('B'), glyphTable.get(0x2502));
+		assertEquals(Arrays.toString(new int[] { 1, 1, 0 }), Arrays.toString(decodeCounts));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalCode() {
+		new GlyphTable().put(Integer.MIN_VALUE, standardFont.getFigCharacter('A'));
+	}
+
+	@Test
+	public void testFigCharacterRows() {
+		final FigCharacter figChar = standardFont.getFigCharacter('H');
+
+		assertEquals(8, figChar.getWidth());
+		assertEquals(6, figChar.getHeight());
+		assertEquals(" | |_| |", figChar.getRow(2));
+		assertEquals('|', figChar.getCharacterAt(1, 1));
+	}
+}
@@ -0,0 +1,91 @@
+package com.github.dtmo.jfiglet;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LegacyFigFontParser is the line-by-line FIGfont parser that
+ * {@link FigFontReader#readFont()} used before it parsed fonts in a single
+ * pass, with a {@link BufferedReader}, <code>String.split</code> for the header
+ * and a regular expression for code tags. It is kept to check that the fonts
+ * read by {@link FigFontReader} are unchanged, and as a baseline for
+ * <code>FontParsingBenchmark</code>.
+ */
+final class LegacyFigFontParser {
+	private static final Pattern CODE_TAG_PATTERN = Pattern.compile("([^\\s]+)\\s*.*");
+
+	private static final int[] deutschCodePoints = new int[] { 196, 214, 220, 228, 246, 252, 223 };
+
+	private LegacyFigFontParser() {
+		// Do nothing.
+	}
+
+	static FigFont parseFont(final Reader reader) throws IOException {
+		final FigFont.Builder fontBuilder = new FigFont.Builder();
+
+		try (final BufferedReader bufferedReader = new BufferedReader(reader)) {
+			parseHeader(bufferedReader.readLine(), fontBuilder);
+
+			for (int commentCounter = 0; commentCounter < fontBuilder.getCommentLines(); commentCounter++) {
+				bufferedReader.readLine();
+			}
+
+			for (int codePoint = 32; codePoint < 127; codePoint++) {
+				fontBuilder.setFigCharacter(codePoint,
+						FigFontReader.readCharacterData(fontBuilder.getHeight(), bufferedReader));
+			}
+
+			for (int codePoint : deutschCodePoints) {
+				fontBuilder.setFigCharacter(codePoint,
+						FigFontReader.readCharacterData(fontBuilder.getHeight(), bufferedReader));
+			}
+
+			String line;
+			while ((line = bufferedReader.readLine()) != null) {
+				final String characterData = FigFontReader.readCharacterData(fontBuilder.getHeight(), bufferedReader);
+				final Matcher codeTagMatcher = CODE_TAG_PATTERN.matcher(line);
+				if (!codeTagMatcher.matches()) {
+					throw new IOException("Could not parse code tag: " + line);
+				}
+				fontBuilder.setFigCharacter(Integer.decode(codeTagMatcher.group(1)), characterData);
+			}
+		}
+
+		return fontBuilder.build();
+	}
+
+	private static void parseHeader(final String header, final FigFont.Builder fontBuilder) {
+		final String[] arguments = header.split("\\s+");
+		fontBuilder.setHardBlankChar(arguments[0].charAt(arguments[0].length() - 1));
+		if (arguments.length > 1) {
+			fontBuilder.setHeight(Integer.decode(arguments[1]).intValue());
+		}
+		if (arguments.length > 2) {
+			fontBuilder.setBaseline(Integer.decode(arguments[2]).intValue());
+		}
+		if (arguments.length > 3) {
+			fontBuilder.setMaxLength(Integer.decode(arguments[3]).intValue());
+		}
+		if (arguments.length > 4) {
+			final int oldLayout = Integer.decode(arguments[4]).intValue();
+			fontBuilder.setOldLayout(oldLayout);
+			fontBuilder.setFullLayout(LayoutOptions.fullLayoutFromOldLayout(oldLayout));
+		}
+		if (arguments.length > 5) {
+			fontBuilder.setCommentLines(Integer.decode(arguments[5]).intValue());
+		}
+		if (arguments.length > 6) {
+			fontBuilder.setPrintDirection(
+					FigFont.PrintDirection.ofHeaderValue(Integer.decode(arguments[6]).intValue()));
+		}
+		if (arguments.length > 7) {
+			fontBuilder.setFullLayout(Integer.decode(arguments[7]).intValue());
+		}
+		if (arguments.length > 8) {
+			fontBuilder.setCodetagCount(Integer.decode(arguments[8]).intValue());
+		}
+	}
+}
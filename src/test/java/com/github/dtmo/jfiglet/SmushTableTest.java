@@ -0,0 +1,73 @@
+package com.github.dtmo.jfiglet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import com.github.dtmo.jfiglet.FigFont.FigCharacter;
+import com.github.dtmo.jfiglet.FigFont.PrintDirection;
+
+public class SmushTableTest {
+
+	private static final String[] BUNDLED_FONTS = { FigFontResources.BANNER_FLF, FigFontResources.BIG_FLF,
+			FigFontResources.BLOCK_FLF, FigFontResources.BUBBLE_FLF, FigFontResources.DIGITAL_FLF,
+			FigFontResources.IVRIT_FLF, FigFontResources.LEAN_FLF, FigFontResources.MINI_FLF,
+			FigFontResources.MNEMONIC_FLF, FigFontResources.SCRIPT_FLF, FigFontResources.SHADOW_FLF,
+			FigFontResources.SLANT_FLF, FigFontResources.SMALL_FLF, FigFontResources.SMSCRIPT_FLF,
+			FigFontResources.SMSHADOW_FLF, FigFontResources.SMSLANT_FLF, FigFontResources.STANDARD_FLF,
+			FigFontResources.TERM_FLF };
+
+	@Test
+	public void testSmushMatchesSmushingRulesForBundledFonts() throws Exception {
+		for (final String fontName : BUNDLED_FONTS) {
+			final FigFont font = FigFontResources.loadFigFontResource(fontName);
+
+			final Set<Character> subCharacters = subCharacters(font);
+			for (final PrintDirection printDirection : PrintDirection.values()) {
+				for (int smushMode = 0; smushMode < 256; smushMode++) {
+					final SmushTable smushTable = font.getSmushTable(smushMode, printDirection);
+					for (final char char1 : subCharacters) {
+						for (final char char2 : subCharacters) {
+							assertEquals(fontName + " " + smushMode + " " + printDirection + " '" + char1 + "' '" + char2 + "'",
+									FigFont.smushem(char1, char2, smushMode, printDirection, font.getHardBlankChar()),
+									smushTable.smush(char1, char2));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testTablesAreSharedBetweenVerticalLayouts() {
+		assertSame(SmushTable.forSmushMode(LayoutOptions.HORIZONTAL_SMUSHING_BY_DEFAULT, PrintDirection.LEFT_TO_RIGHT, '$'),
+				SmushTable.forSmushMode(LayoutOptions.HORIZONTAL_SMUSHING_BY_DEFAULT | LayoutOptions.VERTICAL_SMUSHING_BY_DEFAULT,
+						PrintDirection.LEFT_TO_RIGHT, '$'));
+	}
+
+	private static Set<Character> subCharacters(final FigFont font) {
+		final Set<Character> subCharacters = new TreeSet<>();
+		subCharacters.add(' ');
+		subCharacters.add(font.getHardBlankChar());
+		// Sub-characters beyond the compiled table.
+		subCharacters.add('\u00e9');
+		subCharacters.add('\u2502');
+
+		for (int character = 0; character <= Character.MAX_VALUE; character++) {
+			final FigCharacter figChar = font.getFigCharacter((char) character);
+			if (figChar != null) {
+				for (int row = 0; row < figChar.getHeight(); row++) {
+					for (final char subCharacter : figChar.getRow(row).toCharArray()) {
+						subCharacters.add(subCharacter);
+					}
+				}
+			}
+		}
+
+		return subCharacters;
+	}
+}